@@ -0,0 +1,38 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.commons.exception.APIException
+import com.eirsteir.coffeewithme.commons.exception.EntityType
+import com.eirsteir.coffeewithme.commons.exception.ExceptionType
+import com.eirsteir.coffeewithme.commons.exception.PropertiesConfig
+import org.openjdk.jmh.annotations.*
+import org.springframework.core.env.StandardEnvironment
+import org.springframework.core.io.support.ResourcePropertySource
+import java.util.concurrent.TimeUnit
+
+/**
+ * Creating the exceptions services throw for missing and duplicate entities, including looking
+ * up and formatting their message templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class APIExceptionBenchmark {
+
+    @Setup
+    fun setUp() {
+        val environment = StandardEnvironment()
+        environment.propertySources.addFirst(ResourcePropertySource("classpath:exception.properties"))
+        APIException(PropertiesConfig(environment))
+    }
+
+    @Benchmark
+    fun entityNotFound(): RuntimeException =
+        APIException.of(EntityType.USER, ExceptionType.ENTITY_NOT_FOUND, "42")
+
+    @Benchmark
+    fun duplicateEntity(): RuntimeException =
+        APIException.of(EntityType.FRIENDSHIP, ExceptionType.DUPLICATE_ENTITY, "1", "2")
+}
@@ -0,0 +1,18 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import org.openjdk.jmh.profile.GCProfiler
+import org.openjdk.jmh.runner.Runner
+import org.openjdk.jmh.runner.options.CommandLineOptions
+import org.openjdk.jmh.runner.options.OptionsBuilder
+
+/**
+ * Runs the benchmarks selected by the JMH command line [args], always with the GC profiler so
+ * every result reports its allocation rate next to its throughput.
+ */
+fun main(args: Array<String>) {
+    val options = OptionsBuilder()
+        .parent(CommandLineOptions(*args))
+        .addProfiler(GCProfiler::class.java)
+        .build()
+    Runner(options).run()
+}
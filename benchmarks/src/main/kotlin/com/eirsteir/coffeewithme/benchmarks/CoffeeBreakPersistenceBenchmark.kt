@@ -0,0 +1,139 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.Invitation
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatusConverter
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.domain.user.User
+import org.hibernate.SessionFactory
+import org.hibernate.boot.MetadataSources
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder
+import org.hibernate.cfg.AvailableSettings
+import org.hibernate.dialect.H2Dialect
+import org.openjdk.jmh.annotations.*
+import java.time.LocalDateTime
+import java.util.concurrent.TimeUnit
+
+/**
+ * Saving a coffee break addressed to 50 or 2,000 friends, reading only the addressees' display
+ * fields and storing their ids. With an increment and batch size of 1 every
+ * identifier and row costs a statement of its own, as with the shared `hibernate_sequence`;
+ * with 50 the identifiers come from an allocated block and the rows are inserted in batches.
+ * The `statements` counter divided by `coffeeBreaks` gives the statements per coffee break.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class CoffeeBreakPersistenceBenchmark {
+
+    @Param("1", "50")
+    var idIncrementSize = 0
+
+    @Param("1", "50")
+    var jdbcBatchSize = 0
+
+    @Param("50", "2000")
+    var addressees = 0
+
+    private lateinit var sessionFactory: SessionFactory
+    private var campusId = 0L
+    private lateinit var addresseeIds: List<Long>
+
+    @Setup
+    fun setUp() {
+        sessionFactory = sessionFactory()
+        addresseeIds = (1L..addressees).toList()
+        sessionFactory.openSession().use { session ->
+            session.beginTransaction()
+            val university = University(name = "NTNU").also { session.persist(it) }
+            val campus = Campus(name = "Gløshaugen", university = university).also { session.persist(it) }
+            campusId = campus.id!!
+            session.persist(User(id = REQUESTER_ID, name = "Requester", nickname = "requester"))
+            addresseeIds.forEach { session.persist(User(id = it, name = "Friend $it", nickname = "friend$it")) }
+            session.transaction.commit()
+        }
+    }
+
+    @TearDown
+    fun tearDown() = sessionFactory.close()
+
+    @Benchmark
+    fun saveCoffeeBreak(counters: StatementCounters) {
+        val statistics = sessionFactory.statistics
+        val before = statistics.prepareStatementCount
+
+        sessionFactory.openSession().use { session ->
+            session.beginTransaction()
+            // Loads what CoffeeBreakServiceImpl loads before saving
+            val details = session.createQuery(
+                "SELECT new ${UserDetails::class.java.name}(u.id, u.name, u.nickname) FROM User u WHERE u.id IN :ids",
+                UserDetails::class.java
+            )
+                .setParameter("ids", addresseeIds)
+                .resultList
+            val scheduledTo = LocalDateTime.now()
+            session.persist(
+                CoffeeBreak(
+                    scheduledTo = scheduledTo,
+                    requester = session.get(User::class.java, REQUESTER_ID),
+                    invitations = details.mapTo(HashSet()) { Invitation(it.id, scheduledTo) },
+                    campus = session.get(Campus::class.java, campusId)
+                )
+            )
+            session.transaction.commit()
+        }
+
+        counters.statements += statistics.prepareStatementCount - before
+        counters.coffeeBreaks++
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    open class StatementCounters {
+        @JvmField
+        var statements = 0L
+
+        @JvmField
+        var coffeeBreaks = 0L
+
+        @Setup(Level.Iteration)
+        fun reset() {
+            statements = 0
+            coffeeBreaks = 0
+        }
+    }
+
+    private fun sessionFactory(): SessionFactory {
+        val registry = StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.URL, "jdbc:h2:mem:coffee-breaks;DB_CLOSE_DELAY=-1")
+            .applySetting(AvailableSettings.DIALECT, H2Dialect::class.java.name)
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+            .applySetting(AvailableSettings.GENERATE_STATISTICS, true)
+            .applySetting(AvailableSettings.JPA_CALLBACKS_ENABLED, false)
+            .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, jdbcBatchSize)
+            .applySetting(AvailableSettings.ORDER_INSERTS, true)
+            .applySetting(PooledSequenceGenerator.INCREMENT_SIZE_SETTING, idIncrementSize)
+            .build()
+
+        return MetadataSources(registry)
+            .addAnnotatedClass(User::class.java)
+            .addAnnotatedClass(University::class.java)
+            .addAnnotatedClass(Campus::class.java)
+            .addAnnotatedClass(Friendship::class.java)
+            .addAnnotatedClass(FriendshipStatusConverter::class.java)
+            .addAnnotatedClass(CoffeeBreak::class.java)
+            .buildMetadata()
+            .buildSessionFactory()
+    }
+
+    companion object {
+        private const val REQUESTER_ID = 0L
+    }
+}
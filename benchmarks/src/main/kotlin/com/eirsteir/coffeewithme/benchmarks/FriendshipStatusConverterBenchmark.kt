@@ -0,0 +1,36 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatusConverter
+import org.openjdk.jmh.annotations.*
+import java.util.concurrent.TimeUnit
+
+/**
+ * Converting friendship statuses to and from their column values, done for every friendship
+ * row Hibernate reads or writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class FriendshipStatusConverterBenchmark {
+
+    @Param("1", "4")
+    var value: Int = 0
+
+    private val converter = FriendshipStatusConverter()
+    private lateinit var status: FriendshipStatus
+
+    @Setup
+    fun setUp() {
+        status = converter.convertToEntityAttribute(value)
+    }
+
+    @Benchmark
+    fun toEntityAttribute(): FriendshipStatus = converter.convertToEntityAttribute(value)
+
+    @Benchmark
+    fun toDatabaseColumn(): Int = converter.convertToDatabaseColumn(status)
+}
@@ -0,0 +1,64 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.commons.security.JwtConfig
+import com.eirsteir.coffeewithme.commons.security.JwtUtils
+import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import com.eirsteir.coffeewithme.social.security.JwtTokenAuthenticationFilter
+import io.jsonwebtoken.Claims
+import io.jsonwebtoken.Jwts
+import org.openjdk.jmh.annotations.*
+import org.springframework.mock.web.MockFilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.SimpleGrantedAuthority
+import org.springframework.security.core.context.SecurityContextHolder
+import java.util.concurrent.TimeUnit
+
+/**
+ * Issuing and verifying the tokens every request to the services carries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class JwtBenchmark {
+    private val jwtConfig = JwtConfig("/auth", "Authorization", "Bearer ", 24 * 60 * 60, "JwtSecretKey")
+    private val principal = UserDetailsImpl(id = 1L, email = "alex@email.com", nickname = "alex")
+    private val authentication = UsernamePasswordAuthenticationToken(
+        principal, null, listOf(SimpleGrantedAuthority("ROLE_USER"))
+    )
+    private val filter = JwtTokenAuthenticationFilter(jwtConfig)
+
+    private lateinit var token: String
+    private lateinit var request: MockHttpServletRequest
+
+    @Setup
+    fun setUp() {
+        token = JwtUtils.createJwtToken(jwtConfig, authentication, principal)
+        request = MockHttpServletRequest().apply { addHeader(jwtConfig.header, jwtConfig.prefix + token) }
+
+        authenticate()
+        check(SecurityContextHolder.getContext().authentication?.principal == principal) {
+            "The filter did not authenticate the benchmark token"
+        }
+    }
+
+    @Benchmark
+    fun createJwtToken(): String = JwtUtils.createJwtToken(jwtConfig, authentication, principal)
+
+    @Benchmark
+    fun parseAndVerify(): Claims =
+        Jwts.parser()
+            .setSigningKey(jwtConfig.secret.toByteArray())
+            .parseClaimsJws(token)
+            .body
+
+    @Benchmark
+    fun authenticate(): Any? {
+        filter.doFilter(request, MockHttpServletResponse(), MockFilterChain())
+        return SecurityContextHolder.getContext().authentication
+    }
+}
@@ -0,0 +1,102 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
+import com.eirsteir.coffeewithme.commons.domain.notification.NotificationType
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.notification.domain.Notification
+import com.eirsteir.coffeewithme.notification.dto.NotificationDto
+import com.eirsteir.coffeewithme.social.config.ModelMapperConfig
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.Invitation
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.toUserDetails
+import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.UserProfile
+import org.modelmapper.ModelMapper
+import org.openjdk.jmh.annotations.*
+import java.time.LocalDateTime
+import java.util.*
+import java.util.concurrent.TimeUnit
+import com.eirsteir.coffeewithme.notification.config.ModelMapperConfig as NotificationModelMapperConfig
+
+/**
+ * Per-object cost of mapping entities into response DTOs, with the reflective ModelMapper and
+ * with the hand-written mappers behind [DtoMapper]. Covers the DTOs of the busiest endpoints:
+ * user search results, profiles, friendships, coffee breaks and notifications.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class MappingBenchmark {
+    private lateinit var modelMapper: ModelMapper
+    private lateinit var dtoMapper: DtoMapper
+    private lateinit var notificationDtoMapper: DtoMapper
+
+    private val university = University(id = 1L, name = "NTNU")
+    private val requester =
+        User(id = 1L, email = "alex@email.com", nickname = "alex", name = "Alex", university = university)
+    private val addressee = User(id = 2L, email = "sam@email.com", nickname = "sam", name = "Sam")
+    private val friendship = Friendship(requester, addressee, FriendshipStatus.ACCEPTED)
+
+    private val scheduledTo = LocalDateTime.of(2021, 5, 1, 12, 0)
+    private val addressees = (1..COFFEE_BREAK_ADDRESSEES).mapTo(HashSet()) {
+        User(id = it + 2L, email = "user$it@email.com", nickname = "user$it", name = "User $it").toUserDetails()
+    }
+    private val coffeeBreak = CoffeeBreak(
+        id = 1L,
+        scheduledTo = scheduledTo,
+        requester = requester,
+        invitations = addressees.mapTo(HashSet()) { Invitation(it.id, scheduledTo) },
+        campus = Campus(id = 1L, name = "Gløshaugen", university = university)
+    )
+
+    private val notification = Notification(
+        notificationId = 1L,
+        timestamp = Date(),
+        type = NotificationType.FRIEND_REQUEST,
+        user = Notification.UserDetails(id = 1L, name = "Alex", nickname = "alex"),
+        subjectId = 2L
+    )
+
+    @Setup
+    fun setUp() {
+        val modelMapperConfig = ModelMapperConfig()
+        modelMapper = modelMapperConfig.modelMapper()
+        dtoMapper = modelMapperConfig.dtoMapper(modelMapper)
+
+        val notificationModelMapperConfig = NotificationModelMapperConfig()
+        notificationDtoMapper = notificationModelMapperConfig.dtoMapper(notificationModelMapperConfig.modelMapper())
+    }
+
+    @Benchmark
+    fun userDetailsWithModelMapper(): UserDetailsDto = modelMapper.map(requester, UserDetailsDto::class.java)
+
+    @Benchmark
+    fun userDetailsWithDtoMapper(): UserDetailsDto = dtoMapper.map(requester, UserDetailsDto::class.java)
+
+    // ModelMapper cannot construct FriendshipDto, which has no no-arg constructor
+    @Benchmark
+    fun friendshipWithDtoMapper(): FriendshipDto = dtoMapper.map(friendship, FriendshipDto::class.java)
+
+    // ModelMapper cannot construct UserProfile, CoffeeBreakDetails or NotificationDto either
+    @Benchmark
+    fun userProfileWithDtoMapper(): UserProfile = dtoMapper.map(requester, UserProfile::class.java)
+
+    @Benchmark
+    fun coffeeBreakDetails(): CoffeeBreakDetails = coffeeBreak.toCoffeeBreakDetails(addressees)
+
+    @Benchmark
+    fun notificationWithDtoMapper(): NotificationDto = notificationDtoMapper.map(notification, NotificationDto::class.java)
+
+    companion object {
+        private const val COFFEE_BREAK_ADDRESSEES = 50
+    }
+}
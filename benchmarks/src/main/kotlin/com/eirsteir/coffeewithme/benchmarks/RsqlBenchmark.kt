@@ -0,0 +1,93 @@
+package com.eirsteir.coffeewithme.benchmarks
+
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatusConverter
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.repository.rsql.GenericRsqlSpecBuilder
+import com.eirsteir.coffeewithme.social.repository.rsql.RqslVisitorImpl
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSpecificationCache
+import cz.jirutka.rsql.parser.RSQLParser
+import cz.jirutka.rsql.parser.ast.Node
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.hibernate.SessionFactory
+import org.hibernate.boot.MetadataSources
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder
+import org.hibernate.cfg.AvailableSettings
+import org.hibernate.dialect.H2Dialect
+import org.openjdk.jmh.annotations.*
+import org.springframework.data.jpa.domain.Specification
+import java.util.concurrent.TimeUnit
+import javax.persistence.criteria.Predicate
+
+/**
+ * Turning the `search` parameter of the user search into a specification and a predicate,
+ * with and without the specification cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+open class RsqlBenchmark {
+
+    @Param("name==jo*", "name=='john doe',nickname=in=(jo,jack,jill)", "id>10;email==*@ntnu.no")
+    lateinit var query: String
+
+    private lateinit var sessionFactory: SessionFactory
+    private lateinit var visitor: RqslVisitorImpl<User>
+    private lateinit var specifications: RsqlSpecificationCache<User>
+    private lateinit var node: Node
+    private lateinit var specification: Specification<User>
+    private val parser = RSQLParser()
+
+    @Setup
+    fun setUp() {
+        sessionFactory = sessionFactory()
+        val managedType = sessionFactory.metamodel.entity(User::class.java)
+        visitor = RqslVisitorImpl(GenericRsqlSpecBuilder(managedType))
+        specifications = RsqlSpecificationCache(managedType, SimpleMeterRegistry())
+        node = parser.parse(query)
+        specification = node.accept(visitor)
+    }
+
+    @TearDown
+    fun tearDown() = sessionFactory.close()
+
+    @Benchmark
+    fun parse(): Node = parser.parse(query)
+
+    @Benchmark
+    fun parseAndBuild(): Specification<User> = parser.parse(query).accept(visitor)
+
+    @Benchmark
+    fun cachedSpecification(): Specification<User> = specifications.specificationFor(query)
+
+    @Benchmark
+    fun toPredicate(): Predicate? {
+        val builder = sessionFactory.criteriaBuilder
+        val criteriaQuery = builder.createQuery(User::class.java)
+        return specification.toPredicate(criteriaQuery.from(User::class.java), criteriaQuery, builder)
+    }
+
+    private fun sessionFactory(): SessionFactory {
+        val registry = StandardServiceRegistryBuilder()
+            .applySetting(AvailableSettings.URL, "jdbc:h2:mem:benchmarks")
+            .applySetting(AvailableSettings.DIALECT, H2Dialect::class.java.name)
+            .applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+            // Entity listeners are Spring beans, and there is no bean container here
+            .applySetting(AvailableSettings.JPA_CALLBACKS_ENABLED, false)
+            .build()
+
+        return MetadataSources(registry)
+            .addAnnotatedClass(User::class.java)
+            .addAnnotatedClass(University::class.java)
+            .addAnnotatedClass(Campus::class.java)
+            .addAnnotatedClass(Friendship::class.java)
+            .addAnnotatedClass(FriendshipStatusConverter::class.java)
+            .buildMetadata()
+            .buildSessionFactory()
+    }
+}
@@ -2,11 +2,12 @@ package com.eirsteir.coffeewithme.commons.domain.coffeebreak
 
 import com.eirsteir.coffeewithme.commons.domain.university.CampusDetails
 import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
-import java.time.LocalTime
+import java.time.LocalDateTime
 
 data class CoffeeBreakDetails(
-    val scheduledTo: LocalTime,
+    val id: Long?,
+    val scheduledTo: LocalDateTime,
     val requester: UserDetails,
     val addressees: Set<UserDetails>,
     val campus: CampusDetails,
-)
\ No newline at end of file
+)
@@ -0,0 +1,8 @@
+package com.eirsteir.coffeewithme.commons.domain.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.notification.AbstractEntityNotificationEvent
+
+/**
+ * Published when the coffee break with id [subjectId] has reached its scheduled time.
+ */
+class CoffeeBreakExpiredEvent(subjectId: Long) : AbstractEntityNotificationEvent(subjectId), CoffeeBreakEvent
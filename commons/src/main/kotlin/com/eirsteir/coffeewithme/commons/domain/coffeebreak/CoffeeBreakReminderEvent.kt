@@ -0,0 +1,8 @@
+package com.eirsteir.coffeewithme.commons.domain.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.notification.AbstractEntityNotificationEvent
+
+/**
+ * Published shortly before the coffee break with id [subjectId] starts.
+ */
+class CoffeeBreakReminderEvent(subjectId: Long) : AbstractEntityNotificationEvent(subjectId), CoffeeBreakEvent
@@ -1,3 +1,3 @@
 package com.eirsteir.coffeewithme.commons.domain.university
 
-data class CampusDetails(val name: String)
\ No newline at end of file
+data class CampusDetails(val id: Long?, val name: String)
@@ -0,0 +1,10 @@
+package com.eirsteir.coffeewithme.commons.domain.user
+
+/**
+ * Published when the user with id [userId] is registered or changes name or nickname.
+ */
+data class UserNamesChangedEvent(
+    val userId: Long,
+    val name: String?,
+    val nickname: String?,
+) : UserEvent
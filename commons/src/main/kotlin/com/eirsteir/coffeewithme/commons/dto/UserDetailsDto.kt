@@ -1,6 +1,6 @@
 package com.eirsteir.coffeewithme.commons.dto
 
-data class UserDetailsDto(
+data class UserDetailsDto @JvmOverloads constructor(
     val id: Long? = null,
     val email: String? = null,
     val nickname: String? = null,
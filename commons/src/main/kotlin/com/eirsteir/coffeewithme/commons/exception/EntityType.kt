@@ -1,5 +1,5 @@
 package com.eirsteir.coffeewithme.commons.exception
 
 enum class EntityType {
-    USER, NOTIFICATION, ACCOUNT, FRIENDSHIP
+    USER, NOTIFICATION, ACCOUNT, FRIENDSHIP, CAMPUS
 }
\ No newline at end of file
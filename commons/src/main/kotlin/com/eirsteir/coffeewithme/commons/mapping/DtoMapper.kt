@@ -0,0 +1,9 @@
+package com.eirsteir.coffeewithme.commons.mapping
+
+/**
+ * Maps domain objects into the DTOs returned by the services.
+ */
+interface DtoMapper {
+
+    fun <T> map(source: Any, destinationType: Class<T>): T
+}
@@ -0,0 +1,45 @@
+package com.eirsteir.coffeewithme.commons.mapping
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * [DtoMapper] dispatching to mapping functions registered per source and destination type,
+ * which construct the DTO directly instead of matching fields by reflection. Pairs without a
+ * registered function are handed to [fallback].
+ *
+ * Sources are also looked up by their superclasses, so Hibernate proxies of an entity are
+ * mapped by the function registered for the entity.
+ */
+class TypedDtoMapper(private val fallback: (Any, Class<*>) -> Any) : DtoMapper {
+
+    private val mappings = HashMap<Class<*>, HashMap<Class<*>, (Any) -> Any>>()
+    private val resolved = ConcurrentHashMap<Class<*>, Map<Class<*>, (Any) -> Any>>()
+
+    /**
+     * Registers [mapping] for mapping [sourceType] into [destinationType]. Registration is not
+     * thread-safe and must be done before the mapper is shared.
+     */
+    fun <S : Any, T : Any> register(
+        sourceType: Class<S>, destinationType: Class<T>, mapping: (S) -> T
+    ): TypedDtoMapper {
+        @Suppress("UNCHECKED_CAST")
+        mappings.getOrPut(sourceType) { HashMap() }[destinationType] = mapping as (Any) -> Any
+        return this
+    }
+
+    fun hasMapping(sourceType: Class<*>, destinationType: Class<*>) =
+        mappingsOf(sourceType).containsKey(destinationType)
+
+    override fun <T> map(source: Any, destinationType: Class<T>): T {
+        val mapping = mappingsOf(source.javaClass)[destinationType]
+        @Suppress("UNCHECKED_CAST")
+        return (mapping?.invoke(source) ?: fallback(source, destinationType)) as T
+    }
+
+    private fun mappingsOf(sourceType: Class<*>): Map<Class<*>, (Any) -> Any> =
+        resolved.computeIfAbsent(sourceType) { type ->
+            generateSequence<Class<*>>(type) { it.superclass }
+                .mapNotNull { mappings[it] }
+                .firstOrNull() ?: emptyMap()
+        }
+}
@@ -0,0 +1,34 @@
+package com.eirsteir.coffeewithme.commons.persistence
+
+import org.hibernate.engine.config.spi.ConfigurationService
+import org.hibernate.engine.config.spi.StandardConverters
+import org.hibernate.id.enhanced.SequenceStyleGenerator
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor
+import org.hibernate.service.ServiceRegistry
+import org.hibernate.type.Type
+import java.util.*
+
+/**
+ * Sequence generator handing out identifiers in blocks of [INCREMENT_SIZE_SETTING] values, so
+ * only one insert per block makes a round trip for its identifier. On MySQL, which has no
+ * sequences, each sequence is a single-row table.
+ *
+ * Uses the pooled-lo optimizer, which stores the first value of the next block, so nodes
+ * configured with different increment sizes never hand out overlapping blocks.
+ */
+class PooledSequenceGenerator : SequenceStyleGenerator() {
+
+    override fun configure(type: Type, params: Properties, serviceRegistry: ServiceRegistry) {
+        val incrementSize = serviceRegistry.getService(ConfigurationService::class.java)
+            .getSetting(INCREMENT_SIZE_SETTING, StandardConverters.INTEGER, DEFAULT_INCREMENT_SIZE)
+        params.putIfAbsent(SequenceStyleGenerator.INCREMENT_PARAM, incrementSize.toString())
+        params.putIfAbsent(SequenceStyleGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.externalName)
+        super.configure(type, params, serviceRegistry)
+    }
+
+    companion object {
+        const val STRATEGY = "com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator"
+        const val INCREMENT_SIZE_SETTING = "coffeewithme.id.increment_size"
+        private const val DEFAULT_INCREMENT_SIZE = 50
+    }
+}
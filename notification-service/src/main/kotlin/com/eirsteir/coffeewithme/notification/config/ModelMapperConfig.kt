@@ -1,5 +1,12 @@
 package com.eirsteir.coffeewithme.notification.config
 
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.commons.mapping.TypedDtoMapper
+import com.eirsteir.coffeewithme.notification.domain.Notification
+import com.eirsteir.coffeewithme.notification.domain.toNotificationUserDetails
+import com.eirsteir.coffeewithme.notification.dto.NotificationDto
+import com.eirsteir.coffeewithme.notification.dto.toNotificationDto
 import org.modelmapper.ModelMapper
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
@@ -14,4 +21,16 @@ class ModelMapperConfig {
             .setFieldMatchingEnabled(true).fieldAccessLevel = org.modelmapper.config.Configuration.AccessLevel.PRIVATE
         return modelMapper
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps notifications with hand-written functions, leaving other types to the reflective
+     * [modelMapper].
+     */
+    @Bean
+    fun dtoMapper(modelMapper: ModelMapper): DtoMapper =
+        TypedDtoMapper { source, destinationType -> modelMapper.map(source, destinationType) }
+            .register(Notification::class.java, NotificationDto::class.java) { it.toNotificationDto() }
+            .register(UserDetails::class.java, Notification.UserDetails::class.java) {
+                it.toNotificationUserDetails()
+            }
+}
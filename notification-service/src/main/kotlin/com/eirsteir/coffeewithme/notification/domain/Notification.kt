@@ -1,10 +1,15 @@
 package com.eirsteir.coffeewithme.notification.domain
 
 import com.eirsteir.coffeewithme.commons.domain.notification.NotificationType
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails as CommonUserDetails
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
 import com.fasterxml.jackson.annotation.JsonIgnore
 import lombok.*
 import lombok.experimental.Accessors
 import org.hibernate.annotations.CreationTimestamp
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
 import java.util.*
 import javax.persistence.*
 
@@ -12,7 +17,12 @@ import javax.persistence.*
 @Entity
 data class Notification(
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "notification_seq")
+    @GenericGenerator(
+        name = "notification_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "notification_seq")]
+    )
     val notificationId: Long? = null,
     @CreationTimestamp
     val timestamp: Date? = null,
@@ -29,4 +39,10 @@ data class Notification(
         var name: String? = null,
         var nickname: String? = null,
     )
-}
\ No newline at end of file
+}
+
+fun CommonUserDetails.toNotificationUserDetails() = Notification.UserDetails(
+    id = this.id,
+    name = this.name,
+    nickname = this.nickname
+)
@@ -13,4 +13,12 @@ data class NotificationDto(
     val user: Notification.UserDetails? = null,
     val type: NotificationType? = null,
     val seen: Boolean? = null
-)
\ No newline at end of file
+)
+
+fun Notification.toNotificationDto() = NotificationDto(
+    notificationId = this.notificationId!!,
+    timestamp = this.timestamp,
+    user = this.user,
+    type = this.type,
+    seen = this.seen
+)
@@ -1,17 +1,17 @@
 package com.eirsteir.coffeewithme.notification.service
 
 import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakCreatedEvent
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.notification.repository.NotificationRepository
 import io.eventuate.tram.events.subscriber.DomainEventEnvelope
 import io.eventuate.tram.events.subscriber.DomainEventHandlers
 import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
-import org.modelmapper.ModelMapper
 import org.springframework.messaging.simp.SimpMessagingTemplate
 
 class CoffeeBreakEventConsumer(notificationRepository: NotificationRepository, template: SimpMessagingTemplate,
-                               modelMapper: ModelMapper
+                               dtoMapper: DtoMapper
 )
-    : EventConsumer(notificationRepository, template, modelMapper) {
+    : EventConsumer(notificationRepository, template, dtoMapper) {
 
     fun domainEventHandlers(): DomainEventHandlers {
         return DomainEventHandlersBuilder.forAggregateType(
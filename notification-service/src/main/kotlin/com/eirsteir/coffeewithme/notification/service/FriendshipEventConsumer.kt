@@ -2,11 +2,11 @@ package com.eirsteir.coffeewithme.notification.service
 
 import com.eirsteir.coffeewithme.commons.domain.friendship.FriendRequestAcceptedEvent
 import com.eirsteir.coffeewithme.commons.domain.friendship.FriendRequestEvent
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.notification.repository.NotificationRepository
 import io.eventuate.tram.events.subscriber.DomainEventEnvelope
 import io.eventuate.tram.events.subscriber.DomainEventHandlers
 import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
-import org.modelmapper.ModelMapper
 import org.springframework.messaging.simp.SimpMessagingTemplate
 import org.springframework.stereotype.Component
 
@@ -14,8 +14,8 @@ import org.springframework.stereotype.Component
 class FriendshipEventConsumer(
     notificationRepository: NotificationRepository,
     template: SimpMessagingTemplate,
-    modelMapper: ModelMapper
-) : EventConsumer(notificationRepository, template, modelMapper) {
+    dtoMapper: DtoMapper
+) : EventConsumer(notificationRepository, template, dtoMapper) {
 
     fun domainEventHandlers(): DomainEventHandlers {
         return DomainEventHandlersBuilder.forAggregateType(
@@ -3,11 +3,11 @@ package com.eirsteir.coffeewithme.notification.service
 import com.eirsteir.coffeewithme.commons.exception.APIException
 import com.eirsteir.coffeewithme.commons.exception.EntityType
 import com.eirsteir.coffeewithme.commons.exception.ExceptionType
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.notification.domain.Notification
 import com.eirsteir.coffeewithme.notification.dto.NotificationDto
 import com.eirsteir.coffeewithme.notification.repository.NotificationRepository
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
 import org.springframework.data.domain.Pageable
 import org.springframework.stereotype.Service
 import java.util.stream.Collectors
@@ -17,7 +17,7 @@ private val logger = KotlinLogging.logger {  }
 @Service
 class NotificationServiceImpl(
     private val notificationRepository: NotificationRepository,
-    private val modelMapper: ModelMapper
+    private val dtoMapper: DtoMapper
 ) : NotificationService {
 
     override fun updateNotificationToRead(notificationDto: NotificationDto): NotificationDto =
@@ -27,7 +27,7 @@ class NotificationServiceImpl(
 
                 logger.debug("[x] Updating notification: {}", this)
 
-                return modelMapper.map(
+                return dtoMapper.map(
                     notificationRepository.save(this), NotificationDto::class.java
                 )
             }
@@ -45,7 +45,7 @@ class NotificationServiceImpl(
     override fun findAllByUserId(id: Long, pageable: Pageable): MutableList<NotificationDto> {
         return notificationRepository.findAllByUser_idOrderByTimestamp(id, pageable)
             .stream()
-            .map { notification: Notification -> modelMapper.map(notification, NotificationDto::class.java) }
+            .map { notification: Notification -> dtoMapper.map(notification, NotificationDto::class.java) }
             .collect(Collectors.toList())
     }
 }
\ No newline at end of file
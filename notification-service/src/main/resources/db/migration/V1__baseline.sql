@@ -0,0 +1,21 @@
+-- Schema of notification-service as previously generated by Hibernate (ddl-auto). The database is
+-- shared with the other services and may already hold these tables, so every statement is idempotent.
+
+create table if not exists hibernate_sequence (
+    next_val bigint
+) engine = InnoDB;
+
+insert into hibernate_sequence (next_val)
+select 1 from dual where not exists (select * from hibernate_sequence);
+
+create table if not exists notification (
+    notification_id bigint not null,
+    timestamp       datetime(6),
+    type            integer,
+    seen            bit    not null,
+    id              bigint,
+    name            varchar(255),
+    nickname        varchar(255),
+    subject_id      bigint,
+    primary key (notification_id)
+) engine = InnoDB;
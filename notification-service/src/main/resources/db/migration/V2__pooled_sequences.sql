@@ -0,0 +1,15 @@
+-- Gives notifications their own sequence, allocated in blocks by the pooled-lo optimizer, instead
+-- of a round trip to the shared hibernate_sequence per insert. The sequence starts after both the
+-- last identifier handed out by hibernate_sequence and the highest existing notification id, as
+-- nodes from before this migration keep using hibernate_sequence, so they must be stopped before
+-- it runs.
+
+create table notification_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into notification_seq (next_val)
+select greatest(
+    (select next_val from hibernate_sequence),
+    (select coalesce(max(notification_id), 0) + 1 from notification)
+);
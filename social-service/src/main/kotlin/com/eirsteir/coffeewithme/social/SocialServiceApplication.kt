@@ -3,8 +3,10 @@ package com.eirsteir.coffeewithme.social
 import org.springframework.boot.autoconfigure.SpringBootApplication
 import org.springframework.boot.runApplication
 import org.springframework.cloud.netflix.eureka.EnableEurekaClient
+import org.springframework.scheduling.annotation.EnableScheduling
 
 @EnableEurekaClient
+@EnableScheduling
 @SpringBootApplication
 class SocialServiceApplication
 
@@ -0,0 +1,81 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.web.actuator.EntityCacheEndpoint
+import com.eirsteir.coffeewithme.social.web.api.university.UniversityResponses
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider
+import org.hibernate.cache.jcache.ConfigSettings
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory
+import org.hibernate.cache.spi.RegionFactory
+import org.hibernate.cfg.AvailableSettings
+import org.springframework.beans.factory.ObjectProvider
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import java.net.URI
+import java.time.Duration
+import java.util.*
+import javax.cache.CacheManager
+import javax.cache.Caching
+import javax.persistence.EntityManagerFactory
+
+/**
+ * Second-level cache for the university reference data, which changes a few times a year.
+ * Hibernate keeps the regions in a Caffeine backed JCache [CacheManager], updating them on
+ * writes through JPA. Changes made directly in the database are picked up after the expiry,
+ * or at once by evicting through the `entitycache` actuator endpoint.
+ */
+@Configuration
+class CacheConfiguration {
+    @Bean(destroyMethod = "close")
+    fun entityCacheManager(
+        @Value("\${social.entity-cache.expire-after-write:PT24H}") expiry: Duration
+    ): CacheManager {
+        val cacheManager = Caching.getCachingProvider(CaffeineCachingProvider::class.java.name)
+            .let { it.getCacheManager(URI_PREFIX.resolve(UUID.randomUUID().toString()), it.defaultClassLoader) }
+
+        REFERENCE_DATA_REGIONS.forEach {
+            cacheManager.createCache(it, storeByReference().apply {
+                maximumSize = OptionalLong.of(MAX_ENTRIES_PER_REGION)
+                expireAfterWrite = OptionalLong.of(expiry.toNanos())
+            })
+        }
+        // Must outlive every cached query result, so it is neither bounded nor expired
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, storeByReference())
+        return cacheManager
+    }
+
+    // Hibernate stores its own disassembled copies, so there is no need to copy them again
+    private fun storeByReference() = CaffeineConfiguration<Any, Any>().apply { isStoreByValue = false }
+
+    @Bean
+    fun entityCachePropertiesCustomizer(entityCacheManager: CacheManager) =
+        HibernatePropertiesCustomizer { properties ->
+            properties[AvailableSettings.USE_SECOND_LEVEL_CACHE] = true
+            properties[AvailableSettings.USE_QUERY_CACHE] = true
+            properties[AvailableSettings.CACHE_REGION_FACTORY] = JCacheRegionFactory::class.java.name
+            properties[ConfigSettings.CACHE_MANAGER] = entityCacheManager
+        }
+
+    @Bean
+    fun entityCacheEndpoint(
+        entityManagerFactory: EntityManagerFactory,
+        universityResponses: ObjectProvider<UniversityResponses>
+    ): EntityCacheEndpoint =
+        EntityCacheEndpoint(entityManagerFactory) { universityResponses.ifAvailable { it.invalidate() } }
+
+    companion object {
+        private val URI_PREFIX = URI.create("social-service:entity-cache/")
+        private const val MAX_ENTRIES_PER_REGION = 10_000L
+
+        val REFERENCE_DATA_REGIONS = listOf(
+            University::class.java.name,
+            "${University::class.java.name}.campuses",
+            Campus::class.java.name,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME
+        )
+    }
+}
@@ -1,19 +1,29 @@
 package com.eirsteir.coffeewithme.social.config
 
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
 import com.eirsteir.coffeewithme.social.repository.CampusRepository
 import com.eirsteir.coffeewithme.social.repository.CoffeeBreakRepository
+import com.eirsteir.coffeewithme.social.repository.ScheduledTimerRepository
 import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.scheduling.HashedTimingWheel
+import com.eirsteir.coffeewithme.social.service.coffeebreak.CoffeeBreakScheduler
 import com.eirsteir.coffeewithme.social.service.coffeebreak.CoffeeBreakService
 import com.eirsteir.coffeewithme.social.service.coffeebreak.CoffeeBreakServiceImpl
+import com.eirsteir.coffeewithme.social.service.coffeebreak.UpcomingCoffeeBreaks
+import com.eirsteir.coffeewithme.social.service.coffeebreak.UpcomingCoffeeBreaksLoader
 import io.eventuate.tram.events.publisher.DomainEventPublisher
 import io.eventuate.tram.spring.events.publisher.TramEventsPublisherConfiguration
 import io.eventuate.tram.spring.events.subscriber.TramEventSubscriberConfiguration
 import io.eventuate.tram.spring.jdbckafka.TramJdbcKafkaConfiguration
 import io.eventuate.tram.spring.optimisticlocking.OptimisticLockingDecoratorConfiguration
-import org.modelmapper.ModelMapper
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import org.springframework.context.annotation.Import
+import org.springframework.transaction.support.TransactionTemplate
+import java.time.Duration
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
 
 @Configuration
 
@@ -24,8 +34,55 @@ class CoffeeBreakConfiguration {
         coffeeBreakRepository: CoffeeBreakRepository,
         userRepository: UserRepository,
         campusRepository: CampusRepository,
-        modelMapper: ModelMapper
+        friendGraph: FriendGraph,
+        coffeeBreakScheduler: CoffeeBreakScheduler,
+        upcomingCoffeeBreaks: UpcomingCoffeeBreaks
     ): CoffeeBreakService = CoffeeBreakServiceImpl(
-        domainEventPublisher, coffeeBreakRepository, userRepository, campusRepository, modelMapper
+        domainEventPublisher,
+        coffeeBreakRepository,
+        userRepository,
+        campusRepository,
+        friendGraph,
+        coffeeBreakScheduler,
+        upcomingCoffeeBreaks
+    )
+
+    @Bean
+    fun upcomingCoffeeBreaks(
+        @Value("\${social.coffee-break.upcoming.bucket-ms:300000}") bucketMs: Long
+    ): UpcomingCoffeeBreaks = UpcomingCoffeeBreaks(Duration.ofMillis(bucketMs))
+
+    @Bean
+    fun upcomingCoffeeBreaksLoader(
+        upcomingCoffeeBreaks: UpcomingCoffeeBreaks,
+        coffeeBreakService: CoffeeBreakService,
+        @Value("\${social.coffee-break.upcoming.refresh-ms:30000}") refreshMs: Long
+    ): UpcomingCoffeeBreaksLoader = UpcomingCoffeeBreaksLoader(upcomingCoffeeBreaks, coffeeBreakService, refreshMs)
+
+    @Bean(destroyMethod = "close")
+    fun coffeeBreakTimingWheel(
+        @Value("\${social.coffee-break.timer.tick-ms:1000}") tickMs: Long,
+        @Value("\${social.coffee-break.timer.wheel-size:4096}") wheelSize: Int
+    ): HashedTimingWheel = HashedTimingWheel(Duration.ofMillis(tickMs), wheelSize).apply { start() }
+
+    @Bean(destroyMethod = "shutdown")
+    fun coffeeBreakTimerExecutor(): ExecutorService =
+        Executors.newSingleThreadExecutor { Thread(it, "coffee-break-timers").apply { isDaemon = true } }
+
+    @Bean
+    fun coffeeBreakScheduler(
+        coffeeBreakTimingWheel: HashedTimingWheel,
+        scheduledTimerRepository: ScheduledTimerRepository,
+        domainEventPublisher: DomainEventPublisher,
+        transactionTemplate: TransactionTemplate,
+        coffeeBreakTimerExecutor: ExecutorService,
+        @Value("\${social.coffee-break.reminder-lead-minutes:5}") reminderLeadMinutes: Long
+    ): CoffeeBreakScheduler = CoffeeBreakScheduler(
+        coffeeBreakTimingWheel,
+        scheduledTimerRepository,
+        domainEventPublisher,
+        transactionTemplate,
+        coffeeBreakTimerExecutor,
+        Duration.ofMinutes(reminderLeadMinutes)
     )
 }
\ No newline at end of file
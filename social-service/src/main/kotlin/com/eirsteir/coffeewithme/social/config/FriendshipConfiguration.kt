@@ -1,13 +1,28 @@
 package com.eirsteir.coffeewithme.social.config
 
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.graph.FriendGraphLoader
+import com.eirsteir.coffeewithme.social.graph.FriendshipFilter
+import com.eirsteir.coffeewithme.social.repository.FriendshipCounterRepository
+import com.eirsteir.coffeewithme.social.repository.FriendshipRemovalRepository
 import com.eirsteir.coffeewithme.social.repository.FriendshipRepository
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.service.friendship.FriendGraphEventConsumer
+import com.eirsteir.coffeewithme.social.service.friendship.FriendshipCounters
+import com.eirsteir.coffeewithme.social.service.friendship.FriendshipEventConsumer
 import com.eirsteir.coffeewithme.social.service.friendship.FriendshipService
 import com.eirsteir.coffeewithme.social.service.friendship.FriendshipServiceImpl
 import com.eirsteir.coffeewithme.social.service.user.UserService
 import io.eventuate.tram.events.publisher.DomainEventPublisher
-import org.modelmapper.ModelMapper
+import io.eventuate.tram.events.subscriber.DomainEventDispatcher
+import io.eventuate.tram.events.subscriber.DomainEventDispatcherFactory
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import java.nio.file.Paths
+import java.time.Duration
 
 @Configuration
 class FriendshipConfiguration {
@@ -15,9 +30,78 @@ class FriendshipConfiguration {
     fun friendshipService(
         domainEventPublisher: DomainEventPublisher,
         friendshipRepository: FriendshipRepository,
+        friendshipRemovalRepository: FriendshipRemovalRepository,
         userService: UserService,
-        modelMapper: ModelMapper
+        friendGraph: FriendGraph,
+        friendshipCounters: FriendshipCounters,
+        friendshipFilter: FriendshipFilter,
+        dtoMapper: DtoMapper
     ): FriendshipService = FriendshipServiceImpl(
-        domainEventPublisher, userService, friendshipRepository, modelMapper
+        domainEventPublisher,
+        userService,
+        friendshipRepository,
+        friendshipRemovalRepository,
+        friendGraph,
+        friendshipCounters,
+        friendshipFilter,
+        dtoMapper
     )
-}
\ No newline at end of file
+
+    @Bean
+    fun friendshipCounters(
+        friendshipCounterRepository: FriendshipCounterRepository,
+        friendGraph: FriendGraph,
+        @Value("\${social.friendship-counters.max-cached-users:50000}") maxCachedUsers: Long,
+        @Value("\${social.friendship-counters.expire-after-write:PT30S}") expireAfterWrite: Duration
+    ): FriendshipCounters =
+        FriendshipCounters(friendshipCounterRepository, friendGraph, maxCachedUsers, expireAfterWrite)
+
+    @Bean
+    fun friendGraph(): FriendGraph = FriendGraph()
+
+    @Bean
+    fun friendshipFilter(meterRegistry: MeterRegistry): FriendshipFilter = FriendshipFilter(meterRegistry)
+
+    @Bean
+    fun friendshipEventConsumer(friendshipFilter: FriendshipFilter): FriendshipEventConsumer =
+        FriendshipEventConsumer(friendshipFilter)
+
+    @Bean
+    fun friendshipEventDispatcher(
+        friendshipEventConsumer: FriendshipEventConsumer,
+        domainEventDispatcherFactory: DomainEventDispatcherFactory,
+        @Value("\${social.node-id:local}") nodeId: String
+    ): DomainEventDispatcher = domainEventDispatcherFactory.make(
+        "friendshipFilter-$nodeId", friendshipEventConsumer.domainEventHandlers()
+    )
+
+    @Bean
+    fun friendGraphEventConsumer(friendGraph: FriendGraph): FriendGraphEventConsumer =
+        FriendGraphEventConsumer(friendGraph)
+
+    @Bean
+    fun friendGraphEventDispatcher(
+        friendGraphEventConsumer: FriendGraphEventConsumer,
+        domainEventDispatcherFactory: DomainEventDispatcherFactory,
+        @Value("\${social.node-id:local}") nodeId: String
+    ): DomainEventDispatcher = domainEventDispatcherFactory.make(
+        "friendGraph-$nodeId", friendGraphEventConsumer.domainEventHandlers()
+    )
+
+    @Bean
+    fun friendGraphLoader(
+        friendGraph: FriendGraph,
+        friendshipFilter: FriendshipFilter,
+        friendshipRepository: FriendshipRepository,
+        friendshipRemovalRepository: FriendshipRemovalRepository,
+        userRepository: UserRepository,
+        @Value("\${social.friend-graph.snapshot.directory:}") snapshotDirectory: String
+    ): FriendGraphLoader = FriendGraphLoader(
+        friendGraph,
+        friendshipFilter,
+        friendshipRepository,
+        friendshipRemovalRepository,
+        userRepository,
+        snapshotDirectory.takeIf { it.isNotBlank() }?.let { Paths.get(it) }
+    )
+}
@@ -1,5 +1,15 @@
 package com.eirsteir.coffeewithme.social.config
 
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.commons.mapping.TypedDtoMapper
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.toUserDetailsDto
+import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.UserProfile
+import com.eirsteir.coffeewithme.social.dto.toFriendshipDto
+import com.eirsteir.coffeewithme.social.dto.toUserProfile
 import org.modelmapper.ModelMapper
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
@@ -14,4 +24,15 @@ class ModelMapperConfig {
             .setFieldMatchingEnabled(true).fieldAccessLevel = org.modelmapper.config.Configuration.AccessLevel.PRIVATE
         return modelMapper
     }
-}
\ No newline at end of file
+
+    /**
+     * Maps the DTOs of list responses with hand-written functions, leaving other types to the
+     * reflective [modelMapper].
+     */
+    @Bean
+    fun dtoMapper(modelMapper: ModelMapper): DtoMapper =
+        TypedDtoMapper { source, destinationType -> modelMapper.map(source, destinationType) }
+            .register(User::class.java, UserDetailsDto::class.java) { it.toUserDetailsDto() }
+            .register(User::class.java, UserProfile::class.java) { it.toUserProfile() }
+            .register(Friendship::class.java, FriendshipDto::class.java) { it.toFriendshipDto() }
+}
@@ -0,0 +1,46 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.presence.PresenceIndex
+import com.eirsteir.coffeewithme.social.repository.CampusRepository
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.service.presence.PresenceEventConsumer
+import com.eirsteir.coffeewithme.social.service.presence.PresenceService
+import com.eirsteir.coffeewithme.social.service.presence.PresenceServiceImpl
+import io.eventuate.tram.events.publisher.DomainEventPublisher
+import io.eventuate.tram.events.subscriber.DomainEventDispatcher
+import io.eventuate.tram.events.subscriber.DomainEventDispatcherFactory
+import org.springframework.beans.factory.annotation.Value
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+import java.time.Duration
+
+@Configuration
+class PresenceConfiguration {
+    @Bean
+    fun presenceIndex(@Value("\${social.presence.bucket-ms:60000}") bucketMs: Long): PresenceIndex =
+        PresenceIndex(Duration.ofMillis(bucketMs))
+
+    @Bean
+    fun presenceService(
+        domainEventPublisher: DomainEventPublisher,
+        presenceIndex: PresenceIndex,
+        friendBitmaps: FriendBitmaps,
+        campusRepository: CampusRepository,
+        userRepository: UserRepository
+    ): PresenceService =
+        PresenceServiceImpl(domainEventPublisher, presenceIndex, friendBitmaps, campusRepository, userRepository)
+
+    @Bean
+    fun presenceEventConsumer(presenceIndex: PresenceIndex): PresenceEventConsumer =
+        PresenceEventConsumer(presenceIndex)
+
+    @Bean
+    fun presenceEventDispatcher(
+        presenceEventConsumer: PresenceEventConsumer,
+        domainEventDispatcherFactory: DomainEventDispatcherFactory,
+        @Value("\${social.node-id:local}") nodeId: String
+    ): DomainEventDispatcher = domainEventDispatcherFactory.make(
+        "presence-$nodeId", presenceEventConsumer.domainEventHandlers()
+    )
+}
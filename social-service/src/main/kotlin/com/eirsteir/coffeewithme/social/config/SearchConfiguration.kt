@@ -0,0 +1,41 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.search.SocialDistanceRanker
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import com.eirsteir.coffeewithme.social.search.UserNameIndexLoader
+import com.eirsteir.coffeewithme.social.search.UserNameSelectorIndex
+import com.eirsteir.coffeewithme.social.service.autocomplete.AutocompleteService
+import com.eirsteir.coffeewithme.social.service.autocomplete.AutocompleteServiceImpl
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+class SearchConfiguration {
+    @Bean
+    fun userNameIndex(): UserNameIndex = UserNameIndex()
+
+    @Bean
+    fun userNameSelectorIndex(userNameIndex: UserNameIndex): UserNameSelectorIndex =
+        UserNameSelectorIndex(userNameIndex)
+
+    @Bean
+    fun userNameIndexLoader(
+        userNameIndex: UserNameIndex,
+        userRepository: UserRepository
+    ): UserNameIndexLoader = UserNameIndexLoader(userNameIndex, userRepository)
+
+    @Bean
+    fun socialDistanceRanker(friendGraph: FriendGraph, friendBitmaps: FriendBitmaps): SocialDistanceRanker =
+        SocialDistanceRanker(friendGraph, friendBitmaps)
+
+    @Bean
+    fun autocompleteService(
+        userNameIndex: UserNameIndex,
+        friendGraph: FriendGraph,
+        friendBitmaps: FriendBitmaps,
+        userRepository: UserRepository
+    ): AutocompleteService = AutocompleteServiceImpl(userNameIndex, friendGraph, friendBitmaps, userRepository)
+}
@@ -14,6 +14,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories
     UserConfiguration::class,
     FriendshipConfiguration::class,
     CoffeeBreakConfiguration::class,
+    SuggestionConfiguration::class,
+    SearchConfiguration::class,
     ModelMapperConfig::class,
     TramJdbcKafkaConfiguration::class,
     TramEventsPublisherConfiguration::class,
@@ -0,0 +1,26 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.service.suggestion.SuggestionService
+import com.eirsteir.coffeewithme.social.service.suggestion.SuggestionServiceImpl
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+class SuggestionConfiguration {
+    @Bean
+    fun friendBitmaps(friendGraph: FriendGraph): FriendBitmaps =
+        FriendBitmaps(friendGraph).also { friendGraph.addListener(it) }
+
+    @Bean
+    fun suggestionService(
+        friendGraph: FriendGraph,
+        friendBitmaps: FriendBitmaps,
+        userRepository: UserRepository,
+        dtoMapper: DtoMapper
+    ): SuggestionService = SuggestionServiceImpl(friendGraph, friendBitmaps, userRepository, dtoMapper)
+        .also { friendGraph.addListener(it) }
+}
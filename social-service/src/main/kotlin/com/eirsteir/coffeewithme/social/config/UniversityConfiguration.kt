@@ -0,0 +1,16 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.social.repository.UniversityRepository
+import com.eirsteir.coffeewithme.social.web.api.university.UniversityResponses
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.springframework.context.annotation.Bean
+import org.springframework.context.annotation.Configuration
+
+@Configuration
+class UniversityConfiguration {
+    @Bean
+    fun universityResponses(
+        universityRepository: UniversityRepository,
+        objectMapper: ObjectMapper
+    ): UniversityResponses = UniversityResponses(universityRepository, objectMapper)
+}
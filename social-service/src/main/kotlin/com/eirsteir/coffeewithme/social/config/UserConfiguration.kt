@@ -1,34 +1,82 @@
 package com.eirsteir.coffeewithme.social.config
 
-import com.eirsteir.coffeewithme.social.repository.FriendshipRepository
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.FriendshipCounterRepository
 import com.eirsteir.coffeewithme.social.repository.UniversityRepository
 import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlCostEstimator
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlCostEstimator.Selector
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSpecificationCache
+import com.eirsteir.coffeewithme.social.search.SocialDistanceRanker
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import com.eirsteir.coffeewithme.social.search.UserNameSelectorIndex
 import com.eirsteir.coffeewithme.social.service.AccountEventConsumer
+import com.eirsteir.coffeewithme.social.service.friendship.FriendshipCounters
+import com.eirsteir.coffeewithme.social.service.user.UserEventConsumer
 import com.eirsteir.coffeewithme.social.service.user.UserService
 import com.eirsteir.coffeewithme.social.service.user.UserServiceImpl
 import io.eventuate.tram.events.publisher.DomainEventPublisher
 import io.eventuate.tram.events.subscriber.DomainEventDispatcher
 import io.eventuate.tram.events.subscriber.DomainEventDispatcherFactory
-import org.modelmapper.ModelMapper
+import io.micrometer.core.instrument.MeterRegistry
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
+import javax.persistence.EntityManagerFactory
 
 @Configuration
 class UserConfiguration {
     @Bean
     fun accountEventConsumer(
         domainEventPublisher: DomainEventPublisher,
-        userRepository: UserRepository): AccountEventConsumer =
-        AccountEventConsumer(userRepository, domainEventPublisher)
+        userRepository: UserRepository,
+        friendshipCounterRepository: FriendshipCounterRepository,
+        userNameIndex: UserNameIndex): AccountEventConsumer =
+        AccountEventConsumer(userRepository, friendshipCounterRepository, userNameIndex, domainEventPublisher)
+
+    @Bean
+    fun userEventConsumer(userNameIndex: UserNameIndex): UserEventConsumer = UserEventConsumer(userNameIndex)
 
     @Bean
     fun userService(
+        domainEventPublisher: DomainEventPublisher,
         userRepository: UserRepository,
         universityRepository: UniversityRepository,
-        friendshipRepository: FriendshipRepository,
-        modelMapper: ModelMapper
+        friendshipCounters: FriendshipCounters,
+        friendGraph: FriendGraph,
+        userNameIndex: UserNameIndex,
+        socialDistanceRanker: SocialDistanceRanker,
+        dtoMapper: DtoMapper
     ): UserService = UserServiceImpl(
-        userRepository, universityRepository, friendshipRepository, modelMapper
+        domainEventPublisher,
+        userRepository,
+        universityRepository,
+        friendshipCounters,
+        friendGraph,
+        userNameIndex,
+        socialDistanceRanker,
+        dtoMapper
+    )
+
+    @Bean
+    fun userSearchSpecifications(
+        entityManagerFactory: EntityManagerFactory,
+        meterRegistry: MeterRegistry,
+        userNameSelectorIndex: UserNameSelectorIndex
+    ): RsqlSpecificationCache<User> = RsqlSpecificationCache(
+        entityManagerFactory.metamodel.entity(User::class.java),
+        meterRegistry,
+        userNameSelectorIndex,
+        RsqlCostEstimator(
+            mapOf(
+                "id" to Selector.KEY,
+                "email" to Selector.KEY,
+                "name" to Selector.TEXT_INDEXED,
+                "nickname" to Selector.TEXT_INDEXED
+            )
+        )
     )
 
     @Bean
@@ -38,4 +86,13 @@ class UserConfiguration {
     ): DomainEventDispatcher = domainEventDispatcherFactory.make(
         "accountServiceEvents", accountEventConsumer.domainEventHandlers()
     )
-}
\ No newline at end of file
+
+    @Bean
+    fun userEventDispatcher(
+        userEventConsumer: UserEventConsumer,
+        domainEventDispatcherFactory: DomainEventDispatcherFactory,
+        @Value("\${social.node-id:local}") nodeId: String
+    ): DomainEventDispatcher = domainEventDispatcherFactory.make(
+        "userNameIndex-$nodeId", userEventConsumer.domainEventHandlers()
+    )
+}
@@ -2,27 +2,61 @@ package com.eirsteir.coffeewithme.social.domain.coffeebreak
 
 import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakCreatedEvent
 import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
+import com.eirsteir.coffeewithme.commons.domain.university.CampusDetails
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
 import com.eirsteir.coffeewithme.social.domain.CreatedUpdatedDateTimeBaseModel
 import com.eirsteir.coffeewithme.social.domain.university.Campus
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.toUserDetails
 import io.eventuate.tram.events.publisher.ResultWithEvents
-import java.time.LocalTime
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
+import java.time.LocalDateTime
 import javax.persistence.*
 
 @Entity
+@Table(
+    indexes = [
+        Index(name = "ix_coffee_break_campus_scheduled_to", columnList = "campus_id, scheduled_to"),
+        Index(name = "ix_coffee_break_created", columnList = "created_date_time")
+    ]
+)
 data class CoffeeBreak(
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private val id: Long? = null,
-    private val scheduledTo: LocalTime? = null,
+    @GeneratedValue(generator = "coffee_break_seq")
+    @GenericGenerator(
+        name = "coffee_break_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "coffee_break_seq")]
+    )
+    val id: Long? = null,
+    val scheduledTo: LocalDateTime? = null,
     @ManyToOne
     private val requester: User? = null,
-    @ManyToMany
-    private val addressees: Set<User> = setOf(),
+    @ElementCollection
+    @CollectionTable(name = "coffee_break_addressees", joinColumns = [JoinColumn(name = "coffee_break_id")])
+    private val invitations: Set<Invitation> = setOf(),
     @ManyToOne
-    private val campus: Campus? = null
+    val campus: Campus? = null
 ) : CreatedUpdatedDateTimeBaseModel() {
 
+    val addresseeIds: List<Long>
+        get() = invitations.map { it.addresseeId!! }
+
+    /**
+     * Maps the coffee break with the [addressees] it was registered for, whose details are not
+     * kept with the addressee ids.
+     */
+    fun toCoffeeBreakDetails(addressees: Set<UserDetails>) = CoffeeBreakDetails(
+        id = id,
+        scheduledTo = scheduledTo!!,
+        requester = requester!!.toUserDetails(),
+        addressees = addressees,
+        campus = CampusDetails(campus!!.id, campus.name!!)
+    )
+
     companion object {
         fun createCoffeeBreak(
             coffeeBreakDetails: CoffeeBreakDetails
@@ -0,0 +1,16 @@
+package com.eirsteir.coffeewithme.social.domain.coffeebreak
+
+import java.time.LocalDateTime
+import javax.persistence.Column
+import javax.persistence.Embeddable
+
+/**
+ * An addressee of a coffee break. Carries the time the coffee break is scheduled to, so the
+ * breaks a user is invited to can be listed in time order from an index on the collection table.
+ */
+@Embeddable
+data class Invitation(
+    @Column(name = "addressees_id", nullable = false)
+    val addresseeId: Long? = null,
+    val scheduledTo: LocalDateTime? = null
+)
@@ -0,0 +1,43 @@
+package com.eirsteir.coffeewithme.social.domain.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakEvent
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakExpiredEvent
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakReminderEvent
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
+import java.util.*
+import javax.persistence.*
+
+/**
+ * A pending reminder or expiry of a coffee break. Deleted once fired, so the rows left are
+ * exactly the timers to put back on the timing wheel after a restart.
+ */
+@Entity
+data class ScheduledTimer(
+    @Id
+    @GeneratedValue(generator = "scheduled_timer_seq")
+    @GenericGenerator(
+        name = "scheduled_timer_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "scheduled_timer_seq")]
+    )
+    val id: Long? = null,
+    val coffeeBreakId: Long? = null,
+    @Enumerated(EnumType.STRING)
+    val type: Type? = null,
+    val fireAt: Date? = null
+) {
+
+    fun toEvent(): CoffeeBreakEvent =
+        when (type!!) {
+            Type.REMINDER -> CoffeeBreakReminderEvent(coffeeBreakId!!)
+            Type.EXPIRY -> CoffeeBreakExpiredEvent(coffeeBreakId!!)
+        }
+
+    enum class Type {
+        REMINDER,
+        EXPIRY
+    }
+}
@@ -0,0 +1,20 @@
+package com.eirsteir.coffeewithme.social.domain.friendship
+
+import com.eirsteir.coffeewithme.commons.domain.friendship.FriendshipEvent
+
+/**
+ * Published when the friendship from [requesterId] to [addresseeId] is created or changes
+ * status, or with a null [status] when it is removed. Carries the resulting state, so applying
+ * the changes to a pair in order leaves the friend graph matching the database.
+ */
+data class FriendshipChangedEvent(
+    val requesterId: Long,
+    val addresseeId: Long,
+    val status: FriendshipStatus?,
+) : FriendshipEvent {
+
+    /**
+     * Identifies the pair regardless of direction, so every change to it is delivered in order.
+     */
+    fun aggregateId() = "${minOf(requesterId, addresseeId)}-${maxOf(requesterId, addresseeId)}"
+}
@@ -0,0 +1,17 @@
+package com.eirsteir.coffeewithme.social.domain.friendship
+
+import javax.persistence.Entity
+import javax.persistence.Id
+
+/**
+ * Denormalized friendship counts for a single user, kept up to date whenever a friendship
+ * of the user is registered, updated or removed.
+ */
+@Entity
+data class FriendshipCounter(
+    @Id
+    val userId: Long? = null,
+    val friendsCount: Int = 0,
+    val incomingRequestsCount: Int = 0,
+    val outgoingRequestsCount: Int = 0,
+)
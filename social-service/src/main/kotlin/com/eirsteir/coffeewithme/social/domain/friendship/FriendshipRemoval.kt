@@ -0,0 +1,30 @@
+package com.eirsteir.coffeewithme.social.domain.friendship
+
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
+import org.hibernate.annotations.CreationTimestamp
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
+import java.util.*
+import javax.persistence.*
+
+/**
+ * Record of a removed friendship. Removed rows leave no trace in the friendship table, so these
+ * records let a friend graph restored from an older snapshot replay the removal.
+ */
+@Entity
+@Table(indexes = [Index(name = "ix_friendship_removal_removed", columnList = "removed_date_time")])
+data class FriendshipRemoval(
+    @Id
+    @GeneratedValue(generator = "friendship_removal_seq")
+    @GenericGenerator(
+        name = "friendship_removal_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "friendship_removal_seq")]
+    )
+    val id: Long? = null,
+    val requesterId: Long? = null,
+    val addresseeId: Long? = null,
+    @CreationTimestamp
+    val removedDateTime: Date? = null
+)
@@ -1,14 +1,29 @@
 package com.eirsteir.coffeewithme.social.domain.university
 
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
+import com.eirsteir.coffeewithme.social.web.api.university.UniversityChangeListener
 import com.fasterxml.jackson.annotation.JsonIgnore
 import lombok.Data
 import lombok.ToString
+import org.hibernate.annotations.Cache
+import org.hibernate.annotations.CacheConcurrencyStrategy
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
 import javax.persistence.*
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(UniversityChangeListener::class)
 data class Campus(
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "campus_seq")
+    @GenericGenerator(
+        name = "campus_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "campus_seq")]
+    )
     val id: Long? = null,
     val name: String? = null,
     @ManyToOne
@@ -1,17 +1,32 @@
 package com.eirsteir.coffeewithme.social.domain.university
 
+import com.eirsteir.coffeewithme.commons.persistence.PooledSequenceGenerator
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.web.api.university.UniversityChangeListener
 import com.fasterxml.jackson.annotation.JsonIgnore
 import lombok.Data
+import org.hibernate.annotations.Cache
+import org.hibernate.annotations.CacheConcurrencyStrategy
 import org.hibernate.annotations.Cascade
+import org.hibernate.annotations.GenericGenerator
+import org.hibernate.annotations.Parameter
+import org.hibernate.id.enhanced.SequenceStyleGenerator
 import java.util.*
 import javax.persistence.*
 import javax.validation.constraints.NotNull
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@EntityListeners(UniversityChangeListener::class)
 class University(
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "university_seq")
+    @GenericGenerator(
+        name = "university_seq",
+        strategy = PooledSequenceGenerator.STRATEGY,
+        parameters = [Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "university_seq")]
+    )
     val id: Long? = null,
     @get:NotNull
     val name: String? = null,
@@ -19,12 +34,13 @@ class University(
     @JsonIgnore
     val attendees: Set<User> = setOf(),
     @OneToMany(
-        fetch = FetchType.EAGER,
+        fetch = FetchType.LAZY,
         mappedBy = "university",
         cascade = [CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE],
         orphanRemoval = true
     )
     @Cascade(org.hibernate.annotations.CascadeType.SAVE_UPDATE)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     var campuses: Set<Campus> = setOf()
 ) {
 
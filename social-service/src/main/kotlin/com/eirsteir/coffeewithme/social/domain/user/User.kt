@@ -1,6 +1,7 @@
 package com.eirsteir.coffeewithme.social.domain.user
 
 import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.CreatedUpdatedDateTimeBaseModel
 import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
@@ -17,6 +18,8 @@ import java.util.stream.Collectors
 import javax.persistence.*
 
 @Entity
+@Table(indexes = [Index(name = "ix_user_updated", columnList = "updated_date_time")])
+@NamedEntityGraph(name = "User.university", attributeNodes = [NamedAttributeNode("university")])
 data class User(
     @Id
     val id: Long? = null,
@@ -85,4 +88,11 @@ fun User.toUserDetails() = UserDetails(
     id = this.id!!,
     name = this.name!!,
     nickname = this.nickname!!
+)
+
+fun User.toUserDetailsDto() = UserDetailsDto(
+    id = this.id,
+    email = this.email,
+    nickname = this.nickname,
+    name = this.name
 )
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.eirsteir.coffeewithme.social.domain.user
+
+import com.eirsteir.coffeewithme.commons.domain.user.UserEvent
+
+/**
+ * Published when the user with id [userId] is marked available at the campus with id [campusId]
+ * until [availableUntil] epoch milliseconds, or marked unavailable when both are null.
+ */
+data class UserPresenceChangedEvent(
+    val userId: Long,
+    val campusId: Long?,
+    val availableUntil: Long?,
+) : UserEvent
@@ -0,0 +1,12 @@
+package com.eirsteir.coffeewithme.social.domain.user
+
+import com.eirsteir.coffeewithme.commons.domain.user.UserEvent
+
+/**
+ * Published when the user with id [userId] joins the university with id [universityId], or
+ * leaves their university when it is null.
+ */
+data class UserUniversityChangedEvent(
+    val userId: Long,
+    val universityId: Long?,
+) : UserEvent
@@ -0,0 +1,9 @@
+package com.eirsteir.coffeewithme.social.dto
+
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import java.time.Instant
+
+data class AvailableFriend(
+    val user: UserDetails,
+    val availableUntil: Instant,
+)
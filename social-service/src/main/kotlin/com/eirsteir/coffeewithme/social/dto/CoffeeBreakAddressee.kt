@@ -0,0 +1,6 @@
+package com.eirsteir.coffeewithme.social.dto
+
+interface CoffeeBreakAddressee {
+    fun getCoffeeBreakId(): Long
+    fun getAddresseeId(): Long
+}
@@ -0,0 +1,13 @@
+package com.eirsteir.coffeewithme.social.dto
+
+data class FriendRequestResult(
+    val addresseeId: Long,
+    val outcome: Outcome,
+) {
+    enum class Outcome {
+        CREATED,
+        ALREADY_EXISTS,
+        USER_NOT_FOUND,
+        SELF_REQUEST
+    }
+}
@@ -0,0 +1,8 @@
+package com.eirsteir.coffeewithme.social.dto
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+
+data class FriendSuggestion(
+    val user: UserDetailsDto,
+    val mutualFriendsCount: Int,
+)
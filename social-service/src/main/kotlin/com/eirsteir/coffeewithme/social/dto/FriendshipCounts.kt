@@ -0,0 +1,7 @@
+package com.eirsteir.coffeewithme.social.dto
+
+data class FriendshipCounts(
+    val friends: Int = 0,
+    val incomingRequests: Int = 0,
+    val outgoingRequests: Int = 0,
+)
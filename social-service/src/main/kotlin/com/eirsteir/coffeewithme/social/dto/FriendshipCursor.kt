@@ -0,0 +1,44 @@
+package com.eirsteir.coffeewithme.social.dto
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+import java.util.*
+
+/**
+ * Position in a user's friendship listing, ordered by creation time and then the id of the
+ * other user in the friendship, both descending.
+ */
+data class FriendshipCursor(
+    val createdDateTime: Date,
+    val otherUserId: Long,
+) {
+
+    fun encode(): String {
+        val value = "${createdDateTime.time}:$otherUserId"
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.toByteArray(StandardCharsets.UTF_8))
+    }
+
+    companion object {
+        /**
+         * Sorts after every stored friendship, while staying within the range of SQL datetime columns.
+         */
+        val FIRST = FriendshipCursor(Date.from(Instant.parse("9999-12-31T23:59:59Z")), Long.MAX_VALUE)
+
+        /**
+         * Returns the cursor encoded in [value], or null if it is not a valid cursor.
+         */
+        fun decode(value: String): FriendshipCursor? {
+            val parts = try {
+                String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8).split(":")
+            } catch (e: IllegalArgumentException) {
+                return null
+            }
+            if (parts.size != 2)
+                return null
+
+            val createdDateTime = parts[0].toLongOrNull() ?: return null
+            val otherUserId = parts[1].toLongOrNull() ?: return null
+            return FriendshipCursor(Date(createdDateTime), otherUserId)
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.eirsteir.coffeewithme.social.dto
 
 import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.user.toUserDetailsDto
 import lombok.Builder
 import lombok.Getter
 import lombok.Setter
@@ -12,4 +14,10 @@ data class FriendshipDto(
     val requester: UserDetailsDto,
     val addressee: UserDetailsDto,
     val status: FriendshipStatus
-)
\ No newline at end of file
+)
+
+fun Friendship.toFriendshipDto() = FriendshipDto(
+    requester = this.requester!!.toUserDetailsDto(),
+    addressee = this.addressee!!.toUserDetailsDto(),
+    status = this.status!!
+)
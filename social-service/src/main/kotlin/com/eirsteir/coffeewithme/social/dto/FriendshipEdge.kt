@@ -0,0 +1,9 @@
+package com.eirsteir.coffeewithme.social.dto
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+
+interface FriendshipEdge {
+    fun getRequesterId(): Long
+    fun getAddresseeId(): Long
+    fun getStatus(): FriendshipStatus
+}
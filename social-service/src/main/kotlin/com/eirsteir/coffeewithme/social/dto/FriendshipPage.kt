@@ -0,0 +1,6 @@
+package com.eirsteir.coffeewithme.social.dto
+
+data class FriendshipPage(
+    val items: List<FriendshipDto>,
+    val next: String?,
+)
@@ -0,0 +1,11 @@
+package com.eirsteir.coffeewithme.social.dto
+
+data class FriendshipUpdateResult(
+    val requesterId: Long,
+    val outcome: Outcome,
+) {
+    enum class Outcome {
+        UPDATED,
+        NOT_PENDING
+    }
+}
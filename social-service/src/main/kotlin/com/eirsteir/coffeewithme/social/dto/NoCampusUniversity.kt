@@ -1,6 +1,6 @@
 package com.eirsteir.coffeewithme.social.dto
 
-interface NoCampusUniversity {
-    fun getId(): Long
-    fun getName(): String
-}
\ No newline at end of file
+data class NoCampusUniversity(
+    val id: Long,
+    val name: String
+)
@@ -0,0 +1,6 @@
+package com.eirsteir.coffeewithme.social.dto
+
+interface UniversityMembership {
+    fun getUserId(): Long
+    fun getUniversityId(): Long
+}
@@ -0,0 +1,7 @@
+package com.eirsteir.coffeewithme.social.dto
+
+interface UserNames {
+    fun getUserId(): Long
+    fun getName(): String?
+    fun getNickname(): String?
+}
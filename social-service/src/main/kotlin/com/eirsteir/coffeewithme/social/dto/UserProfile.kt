@@ -1,6 +1,7 @@
 package com.eirsteir.coffeewithme.social.dto
 
 import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.domain.user.User
 import lombok.Builder
 import lombok.Getter
 import lombok.Setter
@@ -9,8 +10,18 @@ import lombok.experimental.Accessors
 data class UserProfile(
     val id: Long,
     val email: String,
-    val nickname: String,
+    val nickname: String?,
     val name: String,
-    var friendsCount: Int,
-    val university: University,
-)
\ No newline at end of file
+    var friendsCount: Int = 0,
+    val university: University?,
+    var incomingRequestsCount: Int = 0,
+    var outgoingRequestsCount: Int = 0,
+)
+
+fun User.toUserProfile() = UserProfile(
+    id = this.id!!,
+    email = this.email!!,
+    nickname = this.nickname,
+    name = this.name!!,
+    university = this.university
+)
@@ -0,0 +1,58 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import org.roaringbitmap.RoaringBitmap
+
+/**
+ * Compressed bitmap views of the [FriendGraph], used for set intersections such as mutual
+ * friends. Bitmaps are built lazily from the graph and dropped when the graph changes.
+ *
+ * Roaring bitmaps hold 32 bit values, so user ids must fit in an int.
+ */
+class FriendBitmaps(
+    private val friendGraph: FriendGraph,
+    maximumSize: Long = DEFAULT_MAXIMUM_SIZE
+) : FriendGraphListener {
+
+    private val friends: Cache<Long, RoaringBitmap> = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .build()
+
+    private val members: Cache<Long, RoaringBitmap> = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .build()
+
+    fun friendsOf(userId: Long): RoaringBitmap =
+        friends.get(userId) { toBitmap(friendGraph.friendsOf(it)) }!!
+
+    fun membersOf(universityId: Long): RoaringBitmap =
+        members.get(universityId) { toBitmap(friendGraph.membersOf(it)) }!!
+
+    override fun onEdgeChanged(requesterId: Long, addresseeId: Long) {
+        friends.invalidate(requesterId)
+        friends.invalidate(addresseeId)
+    }
+
+    override fun onUniversityChanged(userId: Long, oldUniversityId: Long?, newUniversityId: Long?) {
+        oldUniversityId?.let { members.invalidate(it) }
+        newUniversityId?.let { members.invalidate(it) }
+    }
+
+    override fun onReset() {
+        friends.invalidateAll()
+        members.invalidateAll()
+    }
+
+    companion object {
+        private const val DEFAULT_MAXIMUM_SIZE = 100_000L
+
+        fun toBitmap(userIds: LongArray): RoaringBitmap {
+            val values = IntArray(userIds.size) { toInt(userIds[it]) }
+            values.sort()
+            return RoaringBitmap.bitmapOf(*values).apply { runOptimize() }
+        }
+
+        fun toInt(userId: Long) = Math.toIntExact(userId)
+    }
+}
@@ -0,0 +1,222 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.dto.FriendshipEdge
+import com.eirsteir.coffeewithme.social.dto.UniversityMembership
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.locks.ReentrantReadWriteLock
+import kotlin.concurrent.read
+import kotlin.concurrent.write
+
+/**
+ * In-memory store of accepted and pending friendships, kept as primitive adjacency sets per
+ * user so friend lookups do not need a join against the friendship table.
+ *
+ * Edges are directed from requester to addressee. Declined and blocked friendships are not
+ * held and must be looked up in the repository.
+ *
+ * Changes made before [markLoaded] may land in a graph that is about to be replaced, so they are
+ * kept and applied again, in the order they were made, once loading completes.
+ */
+class FriendGraph {
+
+    private val lock = ReentrantReadWriteLock()
+    private val accepted = DirectedEdges()
+    private val requested = DirectedEdges()
+    private val universities = HashMap<Long, Long>()
+    private val listeners = CopyOnWriteArrayList<FriendGraphListener>()
+    private val changesWhileLoading = ArrayList<() -> Unit>()
+
+    @Volatile
+    var isLoaded = false
+        private set
+
+    fun addListener(listener: FriendGraphListener) {
+        listeners.add(listener)
+    }
+
+    fun putEdge(requesterId: Long, addresseeId: Long, status: FriendshipStatus) {
+        lock.write { setEdge(requesterId, addresseeId, status) }
+        listeners.forEach { it.onEdgeChanged(requesterId, addresseeId) }
+    }
+
+    fun removeEdge(requesterId: Long, addresseeId: Long) {
+        lock.write { setEdge(requesterId, addresseeId, null) }
+        listeners.forEach { it.onEdgeChanged(requesterId, addresseeId) }
+    }
+
+    fun putUniversity(userId: Long, universityId: Long?) {
+        val oldUniversityId = lock.write { setUniversity(userId, universityId) }
+        if (oldUniversityId != universityId)
+            listeners.forEach { it.onUniversityChanged(userId, oldUniversityId, universityId) }
+    }
+
+    /**
+     * Applies the changes made while the graph was being loaded and applies later changes directly.
+     */
+    fun markLoaded() {
+        lock.write {
+            isLoaded = true
+            changesWhileLoading.forEach { it() }
+            changesWhileLoading.clear()
+        }
+        listeners.forEach { it.onReset() }
+    }
+
+    /**
+     * Replaces the whole graph in one go, notifying listeners once instead of per edge.
+     */
+    fun load(edges: List<FriendshipEdge>, memberships: List<UniversityMembership>) {
+        lock.write {
+            clearAll()
+            edges.forEach { edgesWith(it.getStatus())?.add(it.getRequesterId(), it.getAddresseeId()) }
+            memberships.forEach { universities[it.getUserId()] = it.getUniversityId() }
+        }
+        listeners.forEach { it.onReset() }
+    }
+
+    /**
+     * Replaces the whole graph with the content of [snapshot], notifying listeners once.
+     */
+    fun load(snapshot: FriendGraphSnapshot) {
+        lock.write {
+            clearAll()
+            snapshot.forEachEdge { requesterId, addresseeId, status -> edgesWith(status)?.add(requesterId, addresseeId) }
+            snapshot.forEachMembership { userId, universityId -> universities[userId] = universityId }
+        }
+        listeners.forEach { it.onReset() }
+    }
+
+    /**
+     * Encodes the current graph into a snapshot. Writers are blocked while it is encoded.
+     */
+    fun snapshot(takenAt: Long): FriendGraphSnapshot = lock.read {
+        FriendGraphSnapshot.of(
+            takenAt,
+            mapOf(FriendshipStatus.ACCEPTED to accepted.outgoing, FriendshipStatus.REQUESTED to requested.outgoing),
+            universities
+        )
+    }
+
+    fun universityOf(userId: Long): Long? = lock.read { universities[userId] }
+
+    fun isFriend(userId: Long, otherUserId: Long): Boolean = lock.read {
+        accepted.contains(userId, otherUserId) || accepted.contains(otherUserId, userId)
+    }
+
+    fun friendsOf(userId: Long): LongArray = lock.read { accepted.neighboursOf(userId) }
+
+    fun membersOf(universityId: Long): LongArray = lock.read {
+        universities.filterValues { it == universityId }.keys.toLongArray()
+    }
+
+    fun friendsAtUniversity(userId: Long): LongArray = lock.read {
+        val universityId = universities[userId]
+        accepted.neighboursOf(userId)
+            .filter { universities[it] == universityId }
+            .toLongArray()
+    }
+
+    fun incomingRequestsOf(userId: Long): LongArray = lock.read { requested.incomingOf(userId) }
+
+    fun outgoingRequestsOf(userId: Long): LongArray = lock.read { requested.outgoingOf(userId) }
+
+    fun holds(status: FriendshipStatus) = edgesWith(status) != null
+
+    /**
+     * Returns the directed edges touching [userId] with the given status, or null when edges
+     * with that status are not held in memory.
+     */
+    fun edgesOf(userId: Long, status: FriendshipStatus): List<Edge>? = lock.read {
+        val edges = edgesWith(status) ?: return@read null
+        edges.outgoingOf(userId).map { Edge(userId, it, status) } +
+                edges.incomingOf(userId).map { Edge(it, userId, status) }
+    }
+
+    fun clear() {
+        lock.write { clearAll() }
+        listeners.forEach { it.onReset() }
+    }
+
+    private fun setEdge(requesterId: Long, addresseeId: Long, status: FriendshipStatus?) {
+        if (!isLoaded)
+            changesWhileLoading.add { setEdge(requesterId, addresseeId, status) }
+        accepted.remove(requesterId, addresseeId)
+        requested.remove(requesterId, addresseeId)
+        status?.let { edgesWith(it)?.add(requesterId, addresseeId) }
+    }
+
+    private fun setUniversity(userId: Long, universityId: Long?): Long? {
+        if (!isLoaded)
+            changesWhileLoading.add { setUniversity(userId, universityId) }
+        return if (universityId == null)
+            universities.remove(userId)
+        else
+            universities.put(userId, universityId)
+    }
+
+    private fun clearAll() {
+        accepted.clear()
+        requested.clear()
+        universities.clear()
+    }
+
+    private fun edgesWith(status: FriendshipStatus) =
+        when (status) {
+            FriendshipStatus.ACCEPTED -> accepted
+            FriendshipStatus.REQUESTED -> requested
+            else -> null
+        }
+
+    data class Edge(val requesterId: Long, val addresseeId: Long, val status: FriendshipStatus)
+
+    private class DirectedEdges {
+        val outgoing = HashMap<Long, LongHashSet>()
+        private val incoming = HashMap<Long, LongHashSet>()
+
+        fun add(requesterId: Long, addresseeId: Long) {
+            outgoing.getOrPut(requesterId) { LongHashSet() }.add(addresseeId)
+            incoming.getOrPut(addresseeId) { LongHashSet() }.add(requesterId)
+        }
+
+        fun remove(requesterId: Long, addresseeId: Long) {
+            removeFrom(outgoing, requesterId, addresseeId)
+            removeFrom(incoming, addresseeId, requesterId)
+        }
+
+        fun contains(requesterId: Long, addresseeId: Long) =
+            outgoing[requesterId]?.contains(addresseeId) ?: false
+
+        fun outgoingOf(userId: Long) = outgoing[userId]?.toArray() ?: EMPTY
+
+        fun incomingOf(userId: Long) = incoming[userId]?.toArray() ?: EMPTY
+
+        fun neighboursOf(userId: Long): LongArray {
+            val requestedByUser = outgoing[userId]
+            val requestedOfUser = incoming[userId]
+            if (requestedByUser == null || requestedOfUser == null)
+                return (requestedByUser ?: requestedOfUser)?.toArray() ?: EMPTY
+
+            val neighbours = LongHashSet(requestedByUser.size + requestedOfUser.size)
+            requestedByUser.toArray().forEach { neighbours.add(it) }
+            requestedOfUser.toArray().forEach { neighbours.add(it) }
+            return neighbours.toArray()
+        }
+
+        fun clear() {
+            outgoing.clear()
+            incoming.clear()
+        }
+
+        private fun removeFrom(adjacency: HashMap<Long, LongHashSet>, from: Long, to: Long) {
+            val neighbours = adjacency[from] ?: return
+            neighbours.remove(to)
+            if (neighbours.isEmpty())
+                adjacency.remove(from)
+        }
+    }
+
+    companion object {
+        private val EMPTY = LongArray(0)
+    }
+}
@@ -0,0 +1,16 @@
+package com.eirsteir.coffeewithme.social.graph
+
+/**
+ * Notified after the [FriendGraph] changes, outside of the graph's lock.
+ */
+interface FriendGraphListener {
+
+    fun onEdgeChanged(requesterId: Long, addresseeId: Long) {}
+
+    fun onUniversityChanged(userId: Long, oldUniversityId: Long?, newUniversityId: Long?) {}
+
+    /**
+     * Called when the whole graph has been cleared or reloaded.
+     */
+    fun onReset() {}
+}
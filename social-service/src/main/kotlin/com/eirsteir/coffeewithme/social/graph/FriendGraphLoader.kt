@@ -0,0 +1,144 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.repository.FriendshipRemovalRepository
+import com.eirsteir.coffeewithme.social.repository.FriendshipRepository
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import mu.KotlinLogging
+import org.springframework.boot.ApplicationArguments
+import org.springframework.boot.ApplicationRunner
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.transaction.annotation.Transactional
+import java.io.IOException
+import java.nio.file.Files
+import java.nio.file.Path
+import java.time.Duration
+import java.util.*
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Populates the [FriendGraph] and [FriendshipFilter] when the application starts, and
+ * periodically writes them to [snapshotDirectory].
+ *
+ * When a recent snapshot exists it is memory-mapped and only the friendships, removals and
+ * university memberships changed since it was taken are read from the database. Otherwise, or
+ * when snapshots are disabled by leaving [snapshotDirectory] unset, everything is loaded from
+ * the database.
+ */
+class FriendGraphLoader(
+    private val friendGraph: FriendGraph,
+    private val friendshipFilter: FriendshipFilter,
+    private val friendshipRepository: FriendshipRepository,
+    private val friendshipRemovalRepository: FriendshipRemovalRepository,
+    private val userRepository: UserRepository,
+    private val snapshotDirectory: Path?
+) : ApplicationRunner {
+
+    @Volatile
+    private var loaded = false
+
+    @Transactional(readOnly = true)
+    override fun run(args: ApplicationArguments?) {
+        val started = System.currentTimeMillis()
+
+        val snapshot = readSnapshot()
+        if (snapshot == null)
+            loadFromDatabase()
+        else
+            loadFromSnapshot(snapshot)
+        friendGraph.markLoaded()
+        friendshipFilter.markLoaded()
+        loaded = true
+
+        logger.info("[x] Loaded friend graph in {} ms", System.currentTimeMillis() - started)
+    }
+
+    /**
+     * Writes the friend graph and friendship filter to disk, and drops removal records too old
+     * to be replayed onto any usable snapshot.
+     */
+    @Scheduled(
+        initialDelayString = "\${social.friend-graph.snapshot.interval-ms:300000}",
+        fixedDelayString = "\${social.friend-graph.snapshot.interval-ms:300000}"
+    )
+    fun writeSnapshot() {
+        if (snapshotDirectory == null || !loaded)
+            return
+
+        val started = System.currentTimeMillis()
+        val snapshot = friendGraph.snapshot(started)
+        snapshot.writeTo(snapshotDirectory.resolve(GRAPH_FILE))
+        friendshipFilter.writeTo(snapshotDirectory.resolve(FILTER_FILE))
+        val purged = friendshipRemovalRepository.deleteRemovedBefore(
+            Date(started - MAX_SNAPSHOT_AGE.toMillis() - REPLAY_MARGIN.toMillis())
+        )
+
+        logger.info(
+            "[x] Wrote friend graph snapshot with {} friendships in {} ms, purged {} friendship removals",
+            snapshot.edgeCount, System.currentTimeMillis() - started, purged
+        )
+    }
+
+    private fun readSnapshot(): FriendGraphSnapshot? {
+        if (snapshotDirectory == null || !Files.exists(snapshotDirectory.resolve(GRAPH_FILE)))
+            return null
+
+        return try {
+            val snapshot = FriendGraphSnapshot.read(snapshotDirectory.resolve(GRAPH_FILE))
+            if (System.currentTimeMillis() - snapshot.takenAt > MAX_SNAPSHOT_AGE.toMillis()) {
+                logger.info("[x] Ignoring friend graph snapshot taken at {}", Date(snapshot.takenAt))
+                return null
+            }
+            friendshipFilter.restore(snapshotDirectory.resolve(FILTER_FILE))
+            snapshot
+        } catch (e: IOException) {
+            logger.warn("[x] Could not read friend graph snapshot", e)
+            null
+        } catch (e: IllegalStateException) {
+            logger.warn("[x] Could not read friend graph snapshot", e)
+            null
+        }
+    }
+
+    private fun loadFromSnapshot(snapshot: FriendGraphSnapshot) {
+        friendGraph.load(snapshot)
+
+        // Changes committed shortly before the snapshot may carry an earlier timestamp
+        val since = Date(snapshot.takenAt - REPLAY_MARGIN.toMillis())
+        val removals = friendshipRemovalRepository.findByRemovedDateTimeGreaterThanEqual(since)
+        val edges = friendshipRepository.findEdgesUpdatedSince(since)
+        val memberships = userRepository.findUniversityMembershipsUpdatedSince(since)
+
+        // Rows still present reflect the latest state, so they are replayed after the removals
+        removals.forEach { friendGraph.removeEdge(it.requesterId!!, it.addresseeId!!) }
+        edges.forEach {
+            friendGraph.putEdge(it.getRequesterId(), it.getAddresseeId(), it.getStatus())
+            friendshipFilter.put(it.getRequesterId(), it.getAddresseeId())
+        }
+        memberships.forEach { friendGraph.putUniversity(it.getUserId(), it.getUniversityId()) }
+
+        logger.info(
+            "[x] Restored {} friendships from snapshot taken at {}, replayed {} changes and {} removals",
+            snapshot.edgeCount, Date(snapshot.takenAt), edges.size + memberships.size, removals.size
+        )
+    }
+
+    private fun loadFromDatabase() {
+        val edges = friendshipRepository.findAllEdges()
+        val memberships = userRepository.findAllUniversityMemberships()
+        friendGraph.load(edges, memberships)
+        friendshipFilter.rebuild(edges)
+
+        logger.info(
+            "[x] Loaded {} friendships and {} university memberships from the database",
+            edges.size, memberships.size
+        )
+    }
+
+    companion object {
+        private const val GRAPH_FILE = "friend-graph.snapshot"
+        private const val FILTER_FILE = "friendship-filter.snapshot"
+        private val MAX_SNAPSHOT_AGE = Duration.ofDays(1)
+        private val REPLAY_MARGIN = Duration.ofMinutes(1)
+    }
+}
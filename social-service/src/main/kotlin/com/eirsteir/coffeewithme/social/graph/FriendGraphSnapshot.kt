@@ -0,0 +1,152 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+
+/**
+ * Binary image of a [FriendGraph] taken at [takenAt], in compressed sparse row layout: for each
+ * held status the requesters in ascending order, offsets into one array holding the sorted
+ * addressees of every requester, and finally the university memberships.
+ *
+ * Snapshots are written to disk periodically and memory-mapped on startup, so the graph can be
+ * restored without scanning the friendship table.
+ */
+class FriendGraphSnapshot private constructor(private val buffer: ByteBuffer) {
+
+    val takenAt: Long
+    val edgeCount: Int
+    private val sections: List<Section>
+    private val membershipCount: Int
+    private val membershipsStart: Int
+
+    init {
+        check(buffer.capacity() >= HEADER_SIZE && buffer.getInt(0) == MAGIC) { "Not a friend graph snapshot" }
+        check(buffer.getInt(4) == VERSION) { "Unsupported friend graph snapshot version ${buffer.getInt(4)}" }
+        takenAt = buffer.getLong(8)
+
+        var position = HEADER_SIZE
+        sections = (0 until buffer.getInt(16)).map {
+            Section(
+                status = FriendshipStatus.values().single { it.getValue() == buffer.getInt(position) },
+                nodeCount = buffer.getInt(position + 4),
+                edgeCount = buffer.getInt(position + 8),
+                start = position + 12
+            ).also { position = it.end }
+        }
+        membershipCount = buffer.getInt(position)
+        membershipsStart = position + 4
+        check(membershipsStart + membershipCount * 16L == buffer.capacity().toLong()) {
+            "Truncated friend graph snapshot"
+        }
+        edgeCount = sections.sumOf { it.edgeCount }
+    }
+
+    fun forEachEdge(action: (requesterId: Long, addresseeId: Long, status: FriendshipStatus) -> Unit) {
+        sections.forEach { section ->
+            for (node in 0 until section.nodeCount) {
+                val requesterId = buffer.getLong(section.nodesStart + node * 8)
+                val from = buffer.getInt(section.offsetsStart + node * 4)
+                val to = buffer.getInt(section.offsetsStart + (node + 1) * 4)
+                for (edge in from until to)
+                    action(requesterId, buffer.getLong(section.neighboursStart + edge * 8), section.status)
+            }
+        }
+    }
+
+    fun forEachMembership(action: (userId: Long, universityId: Long) -> Unit) {
+        val universitiesStart = membershipsStart + membershipCount * 8
+        for (i in 0 until membershipCount)
+            action(buffer.getLong(membershipsStart + i * 8), buffer.getLong(universitiesStart + i * 8))
+    }
+
+    fun writeTo(path: Path) = writeAtomically(path, buffer.duplicate().apply { rewind() })
+
+    private class Section(val status: FriendshipStatus, val nodeCount: Int, val edgeCount: Int, start: Int) {
+        val nodesStart = start
+        val offsetsStart = nodesStart + nodeCount * 8
+        val neighboursStart = offsetsStart + (nodeCount + 1) * 4
+        val end = neighboursStart + edgeCount * 8
+    }
+
+    companion object {
+        private const val MAGIC = 0x43574d47 // "CWMG"
+        private const val VERSION = 1
+        private const val HEADER_SIZE = 20
+
+        /**
+         * Memory-maps the snapshot at [path]. The mapping stays valid after the file is replaced.
+         */
+        fun read(path: Path): FriendGraphSnapshot =
+            FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+                check(channel.size() <= Int.MAX_VALUE) { "Friend graph snapshot is too large to map" }
+                FriendGraphSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()))
+            }
+
+        /**
+         * Encodes outgoing adjacency sets per status and university memberships into a snapshot.
+         */
+        fun of(
+            takenAt: Long,
+            outgoing: Map<FriendshipStatus, Map<Long, LongHashSet>>,
+            universities: Map<Long, Long>
+        ): FriendGraphSnapshot {
+            var size = HEADER_SIZE.toLong() + 4 + universities.size * 16L
+            outgoing.values.forEach { adjacency ->
+                size += 12 + adjacency.size * 12L + 4 + adjacency.values.sumOf { it.size.toLong() } * 8
+            }
+            check(size <= Int.MAX_VALUE) { "Friend graph is too large for a snapshot" }
+
+            val buffer = ByteBuffer.allocate(size.toInt())
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putLong(takenAt)
+                .putInt(outgoing.size)
+
+            outgoing.forEach { (status, adjacency) ->
+                val requesterIds = adjacency.keys.toLongArray().apply { sort() }
+                val neighbours = requesterIds.map { requesterId -> adjacency.getValue(requesterId).toArray().apply { sort() } }
+                buffer.putInt(status.getValue()).putInt(requesterIds.size).putInt(neighbours.sumOf { it.size })
+                requesterIds.forEach { buffer.putLong(it) }
+                var offset = 0
+                buffer.putInt(offset)
+                neighbours.forEach {
+                    offset += it.size
+                    buffer.putInt(offset)
+                }
+                neighbours.forEach { addresseeIds -> addresseeIds.forEach { buffer.putLong(it) } }
+            }
+
+            val userIds = universities.keys.toLongArray().apply { sort() }
+            buffer.putInt(userIds.size)
+            userIds.forEach { buffer.putLong(it) }
+            userIds.forEach { buffer.putLong(universities.getValue(it)) }
+
+            buffer.flip()
+            return FriendGraphSnapshot(buffer)
+        }
+    }
+}
+
+/**
+ * Writes [content] next to [path] and moves it into place, so readers never see a partially
+ * written file.
+ */
+internal fun writeAtomically(path: Path, content: ByteBuffer) {
+    val absolutePath = path.toAbsolutePath()
+    Files.createDirectories(absolutePath.parent)
+    val temporaryPath = absolutePath.resolveSibling("${absolutePath.fileName}.tmp")
+
+    FileChannel.open(
+        temporaryPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+    ).use { channel ->
+        while (content.hasRemaining())
+            channel.write(content)
+        channel.force(true)
+    }
+    Files.move(temporaryPath, absolutePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+}
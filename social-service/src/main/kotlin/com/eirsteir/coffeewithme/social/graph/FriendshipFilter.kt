@@ -0,0 +1,199 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.dto.FriendshipEdge
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLongArray
+import kotlin.math.ceil
+import kotlin.math.ln
+import kotlin.math.max
+import kotlin.math.roundToInt
+
+/**
+ * Bloom filter over the directed (requester, addressee) pairs of every stored friendship,
+ * whatever its status. A negative answer means the friendship certainly does not exist, so
+ * only possible hits need to be confirmed against the database.
+ *
+ * Removed friendships stay in the filter until it is rebuilt, which only costs extra
+ * false positives.
+ *
+ * Until [markLoaded] is called every lookup is a possible hit, so callers fall back to the
+ * database while the filter is being rebuilt or restored. Pairs put in the meantime may land in
+ * the filter being replaced, so they are kept and put again when loading completes.
+ */
+class FriendshipFilter(
+    meterRegistry: MeterRegistry,
+    private val falsePositiveProbability: Double = DEFAULT_FALSE_POSITIVE_PROBABILITY
+) {
+
+    @Volatile
+    private var filter = Filter.sized(MIN_EXPECTED_INSERTIONS, falsePositiveProbability)
+    private val insertions = AtomicInteger()
+    private val putsWhileLoading = ConcurrentLinkedQueue<LongArray>()
+
+    @Volatile
+    var isLoaded = false
+        private set
+
+    private val negatives = Counter.builder(LOOKUPS_METRIC)
+        .description("Friendship existence checks answered by the filter")
+        .tag("result", "negative")
+        .register(meterRegistry)
+    private val possibleHits = Counter.builder(LOOKUPS_METRIC)
+        .description("Friendship existence checks answered by the filter")
+        .tag("result", "possible-hit")
+        .register(meterRegistry)
+    private val falsePositives = Counter.builder("friendship.filter.false-positives")
+        .description("Possible hits that the database did not confirm")
+        .register(meterRegistry)
+
+    init {
+        Gauge.builder("friendship.filter.insertions", insertions) { it.get().toDouble() }
+            .description("Friendships added to the filter since it was last rebuilt")
+            .register(meterRegistry)
+    }
+
+    /**
+     * Replaces the filter with one sized for [edges], leaving room for the friendships to come.
+     */
+    fun rebuild(edges: List<FriendshipEdge>) {
+        val rebuilt = Filter.sized(max(edges.size * 2, MIN_EXPECTED_INSERTIONS), falsePositiveProbability)
+        edges.forEach { rebuilt.put(it.getRequesterId(), it.getAddresseeId()) }
+        filter = rebuilt
+        insertions.set(edges.size)
+    }
+
+    /**
+     * Replaces the filter with the one written to [path] by [writeTo].
+     */
+    fun restore(path: Path) {
+        val content = FileChannel.open(path, StandardOpenOption.READ).use { channel ->
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+        }
+        check(content.capacity() >= HEADER_SIZE && content.getInt(0) == MAGIC) { "Not a friendship filter snapshot" }
+        val hashCount = content.getInt(4)
+        val restoredInsertions = content.getInt(8)
+        val words = AtomicLongArray(content.getInt(12))
+        check(HEADER_SIZE + words.length() * 8L == content.capacity().toLong()) { "Truncated friendship filter snapshot" }
+        for (i in 0 until words.length())
+            words.set(i, content.getLong(HEADER_SIZE + i * 8))
+
+        filter = Filter(words, hashCount)
+        insertions.set(restoredInsertions)
+    }
+
+    /**
+     * Writes the filter bits to [path], so the filter can be restored together with a
+     * [FriendGraphSnapshot] instead of being rebuilt from the friendship table.
+     */
+    fun writeTo(path: Path) {
+        val current = filter
+        val content = ByteBuffer.allocate(HEADER_SIZE + current.words.length() * 8)
+            .putInt(MAGIC)
+            .putInt(current.hashCount)
+            .putInt(insertions.get())
+            .putInt(current.words.length())
+        for (i in 0 until current.words.length())
+            content.putLong(current.words.get(i))
+        content.flip()
+        writeAtomically(path, content)
+    }
+
+    /**
+     * Starts answering lookups from the filter, once it holds every stored friendship.
+     */
+    fun markLoaded() {
+        isLoaded = true
+        while (true) {
+            val pair = putsWhileLoading.poll() ?: return
+            filter.put(pair[0], pair[1])
+        }
+    }
+
+    fun put(requesterId: Long, addresseeId: Long) {
+        // Recorded before reading the filter, so a put reaching a replaced filter is always replayed
+        if (!isLoaded)
+            putsWhileLoading.add(longArrayOf(requesterId, addresseeId))
+        filter.put(requesterId, addresseeId)
+        insertions.incrementAndGet()
+    }
+
+    fun mightContain(requesterId: Long, addresseeId: Long): Boolean {
+        if (!isLoaded)
+            return true
+
+        val mightContain = filter.mightContain(requesterId, addresseeId)
+        if (mightContain) possibleHits.increment() else negatives.increment()
+        return mightContain
+    }
+
+    /**
+     * Records that a possible hit was not confirmed by the database.
+     */
+    fun falsePositive() {
+        if (isLoaded)
+            falsePositives.increment()
+    }
+
+    private class Filter(val words: AtomicLongArray, val hashCount: Int) {
+        private val bitCount = words.length() * 64L
+
+        fun put(requesterId: Long, addresseeId: Long) {
+            forEachBit(requesterId, addresseeId) { word, mask ->
+                var current = words.get(word)
+                while (current and mask == 0L && !words.compareAndSet(word, current, current or mask))
+                    current = words.get(word)
+                true
+            }
+        }
+
+        fun mightContain(requesterId: Long, addresseeId: Long) =
+            forEachBit(requesterId, addresseeId) { word, mask -> words.get(word) and mask != 0L }
+
+        /**
+         * Visits the bits of a pair using double hashing, stopping at the first bit for
+         * which [visit] returns false.
+         */
+        private inline fun forEachBit(requesterId: Long, addresseeId: Long, visit: (Int, Long) -> Boolean): Boolean {
+            val hash1 = mix(mix(requesterId) + addresseeId)
+            val hash2 = mix(hash1)
+            for (i in 0 until hashCount) {
+                val bit = ((hash1 + i * hash2) and Long.MAX_VALUE) % bitCount
+                if (!visit((bit ushr 6).toInt(), 1L shl (bit and 63).toInt()))
+                    return false
+            }
+            return true
+        }
+
+        private fun mix(value: Long): Long {
+            var x = value * -0x61c8864680b583ebL
+            x = (x xor (x ushr 32)) * -0x4b47d5b1d5c4fb0dL
+            return x xor (x ushr 29)
+        }
+
+        companion object {
+            fun sized(expectedInsertions: Int, falsePositiveProbability: Double): Filter {
+                val bits = ceil(-expectedInsertions * ln(falsePositiveProbability) / (LN_2 * LN_2)).toLong()
+                val words = AtomicLongArray(((bits + 63) / 64).toInt())
+                val hashCount = max(1, (words.length() * 64.0 / expectedInsertions * LN_2).roundToInt())
+                return Filter(words, hashCount)
+            }
+        }
+    }
+
+    companion object {
+        private const val DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01
+        private const val MIN_EXPECTED_INSERTIONS = 1_000_000
+        private const val MAGIC = 0x43574246 // "CWBF"
+        private const val HEADER_SIZE = 16
+        private const val LOOKUPS_METRIC = "friendship.filter.lookups"
+        private val LN_2 = ln(2.0)
+    }
+}
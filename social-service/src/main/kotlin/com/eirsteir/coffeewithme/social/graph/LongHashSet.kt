@@ -0,0 +1,113 @@
+package com.eirsteir.coffeewithme.social.graph
+
+/**
+ * Open addressing hash set of primitive longs, avoiding the boxing overhead of `Set<Long>`
+ * for adjacency lists. Not thread safe; callers guard access.
+ */
+class LongHashSet(expectedSize: Int = 4) {
+
+    private var keys = LongArray(capacityFor(expectedSize))
+    private var used = BooleanArray(keys.size)
+    private var mask = keys.size - 1
+
+    var size = 0
+        private set
+
+    fun isEmpty() = size == 0
+
+    fun contains(value: Long): Boolean {
+        var slot = slotOf(value)
+        while (used[slot]) {
+            if (keys[slot] == value)
+                return true
+            slot = (slot + 1) and mask
+        }
+        return false
+    }
+
+    fun add(value: Long): Boolean {
+        var slot = slotOf(value)
+        while (used[slot]) {
+            if (keys[slot] == value)
+                return false
+            slot = (slot + 1) and mask
+        }
+        keys[slot] = value
+        used[slot] = true
+        if (++size > keys.size * MAX_LOAD_FACTOR)
+            resize(keys.size * 2)
+        return true
+    }
+
+    fun remove(value: Long): Boolean {
+        var slot = slotOf(value)
+        while (used[slot]) {
+            if (keys[slot] == value) {
+                shiftBack(slot)
+                size--
+                return true
+            }
+            slot = (slot + 1) and mask
+        }
+        return false
+    }
+
+    fun toArray(): LongArray {
+        val result = LongArray(size)
+        var i = 0
+        for (slot in keys.indices)
+            if (used[slot])
+                result[i++] = keys[slot]
+        return result
+    }
+
+    /**
+     * Backward shift deletion keeps probe sequences intact without tombstones.
+     */
+    private fun shiftBack(removedSlot: Int) {
+        var gap = removedSlot
+        var slot = (gap + 1) and mask
+        while (used[slot]) {
+            val home = slotOf(keys[slot])
+            if (((slot - home) and mask) >= ((slot - gap) and mask)) {
+                keys[gap] = keys[slot]
+                gap = slot
+            }
+            slot = (slot + 1) and mask
+        }
+        used[gap] = false
+    }
+
+    private fun resize(capacity: Int) {
+        val oldKeys = keys
+        val oldUsed = used
+        keys = LongArray(capacity)
+        used = BooleanArray(capacity)
+        mask = capacity - 1
+        for (i in oldKeys.indices) {
+            if (!oldUsed[i])
+                continue
+            var slot = slotOf(oldKeys[i])
+            while (used[slot])
+                slot = (slot + 1) and mask
+            keys[slot] = oldKeys[i]
+            used[slot] = true
+        }
+    }
+
+    private fun slotOf(value: Long): Int {
+        val hash = value * -0x61c8864680b583ebL
+        return (hash xor (hash ushr 32)).toInt() and mask
+    }
+
+    companion object {
+        private const val MAX_LOAD_FACTOR = 0.6
+
+        private fun capacityFor(expectedSize: Int): Int {
+            var capacity = 4
+            while (capacity * MAX_LOAD_FACTOR < expectedSize)
+                capacity = capacity shl 1
+            return capacity
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.eirsteir.coffeewithme.social.presence
+
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import org.roaringbitmap.RoaringBitmap
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * In-memory index of the users available for coffee at each campus until some instant.
+ *
+ * Each campus holds a bitmap of the users present, intersected with a friend bitmap to find
+ * available friends, and buckets of [bucketDuration] keyed by when their users become
+ * unavailable. [expire] drops whole buckets at a time, checking each user against their latest
+ * heartbeat, so a heartbeat is a few hash map and bitmap updates however many users are present.
+ * Queries ignore users past their window who are still waiting for [expire].
+ *
+ * A user is present at one campus at a time. Campus locks are only taken inside the
+ * per-user bins of [campusOfUser], never the other way around.
+ */
+class PresenceIndex(
+    private val bucketDuration: Duration,
+    private val clock: Clock = Clock.systemUTC()
+) {
+
+    private val campuses = ConcurrentHashMap<Long, CampusPresence>()
+    private val campusOfUser = ConcurrentHashMap<Long, Long>()
+
+    init {
+        require(!bucketDuration.isNegative && !bucketDuration.isZero) {
+            "Bucket duration must be positive: $bucketDuration"
+        }
+    }
+
+    /**
+     * The number of users marked available, including any past their window not yet expired.
+     */
+    val size: Int
+        get() = campusOfUser.size
+
+    /**
+     * Marks the user available at the campus until [until], moving them from any other campus.
+     */
+    fun markAvailable(userId: Long, campusId: Long, until: Instant) {
+        campusOfUser.compute(userId) { _, previousCampusId ->
+            if (previousCampusId != null && previousCampusId != campusId)
+                campuses[previousCampusId]?.remove(userId)
+            campuses.computeIfAbsent(campusId) { CampusPresence() }.add(userId, until.toEpochMilli())
+            campusId
+        }
+    }
+
+    fun markUnavailable(userId: Long) {
+        campusOfUser.computeIfPresent(userId) { _, campusId ->
+            campuses[campusId]?.remove(userId)
+            null
+        }
+    }
+
+    /**
+     * Returns when each of [userIds] available at the campus now becomes unavailable.
+     */
+    fun availableAt(campusId: Long, userIds: RoaringBitmap): Map<Long, Instant> =
+        campuses[campusId]?.availableAmong(userIds, clock.millis()) ?: mapOf()
+
+    /**
+     * Removes the users whose window has passed, returning how many were removed.
+     */
+    fun expire(): Int {
+        val now = clock.millis()
+        var expired = 0
+        for ((campusId, campus) in campuses) {
+            for (userId in campus.expire(now)) {
+                campusOfUser.computeIfPresent(userId) { _, current ->
+                    if (current == campusId && !campus.contains(userId)) null else current
+                }
+                expired++
+            }
+        }
+        return expired
+    }
+
+    private fun bucketOf(epochMilli: Long) = epochMilli / bucketDuration.toMillis()
+
+    private inner class CampusPresence {
+        private val present = RoaringBitmap()
+        private val availableUntil = HashMap<Int, Long>()
+        private val buckets = TreeMap<Long, RoaringBitmap>()
+
+        @Synchronized
+        fun add(userId: Long, until: Long) {
+            val id = FriendBitmaps.toInt(userId)
+            present.add(id)
+            availableUntil[id] = until
+            buckets.getOrPut(bucketOf(until)) { RoaringBitmap() }.add(id)
+        }
+
+        /**
+         * Leaves the user in their bucket, where [expire] finds them no longer present.
+         */
+        @Synchronized
+        fun remove(userId: Long) {
+            val id = FriendBitmaps.toInt(userId)
+            present.remove(id)
+            availableUntil.remove(id)
+        }
+
+        @Synchronized
+        fun contains(userId: Long) = present.contains(FriendBitmaps.toInt(userId))
+
+        @Synchronized
+        fun availableAmong(userIds: RoaringBitmap, now: Long): Map<Long, Instant> {
+            val available = HashMap<Long, Instant>()
+            for (id in RoaringBitmap.and(present, userIds).toArray()) {
+                val until = availableUntil.getValue(id)
+                if (until > now)
+                    available[id.toLong()] = Instant.ofEpochMilli(until)
+            }
+            return available
+        }
+
+        /**
+         * Drops the buckets ending at or before [now], returning the users removed from them.
+         */
+        @Synchronized
+        fun expire(now: Long): List<Long> {
+            val passed = buckets.headMap(bucketOf(now))
+            val expired = ArrayList<Long>()
+            for (bucket in passed.values) {
+                for (id in bucket.toArray()) {
+                    val until = availableUntil[id]
+                    if (until != null && until <= now) {
+                        present.remove(id)
+                        availableUntil.remove(id)
+                        expired.add(id.toLong())
+                    }
+                }
+            }
+            passed.clear()
+            return expired
+        }
+    }
+}
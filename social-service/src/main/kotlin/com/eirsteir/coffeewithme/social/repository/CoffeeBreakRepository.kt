@@ -1,6 +1,52 @@
 package com.eirsteir.coffeewithme.social.repository
 
 import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.dto.CoffeeBreakAddressee
+import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Query
+import java.time.LocalDateTime
+import java.util.*
 
-interface CoffeeBreakRepository : JpaRepository<CoffeeBreak, Long>
\ No newline at end of file
+interface CoffeeBreakRepository : JpaRepository<CoffeeBreak, Long> {
+
+    /**
+     * Finds the coffee breaks at the campus requested by or addressed to the user, scheduled from
+     * [from] until [to], in time order.
+     */
+    @Query(
+        "SELECT c FROM CoffeeBreak c JOIN FETCH c.requester JOIN FETCH c.campus "
+                + "WHERE c.campus.id = :campusId AND c.scheduledTo >= :from AND c.scheduledTo < :to "
+                + "AND (c.requester.id = :userId OR EXISTS (SELECT i.addresseeId FROM CoffeeBreak o "
+                + "JOIN o.invitations i WHERE o.id = c.id AND i.addresseeId = :userId)) "
+                + "ORDER BY c.scheduledTo, c.id"
+    )
+    fun findScheduledAtCampus(
+        userId: Long, campusId: Long, from: LocalDateTime, to: LocalDateTime, pageable: Pageable
+    ): List<CoffeeBreak>
+
+    /**
+     * Finds the coffee breaks the user is invited to scheduled from [from] until [to], in time
+     * order, using the time copied onto each invitation.
+     */
+    @Query(
+        "SELECT c FROM CoffeeBreak c JOIN c.invitations i JOIN FETCH c.requester JOIN FETCH c.campus "
+                + "WHERE i.addresseeId = :addresseeId AND i.scheduledTo >= :from AND i.scheduledTo < :to "
+                + "ORDER BY i.scheduledTo, c.id"
+    )
+    fun findInvitedTo(
+        addresseeId: Long, from: LocalDateTime, to: LocalDateTime, pageable: Pageable
+    ): List<CoffeeBreak>
+
+    @Query(
+        "SELECT c FROM CoffeeBreak c JOIN FETCH c.requester JOIN FETCH c.campus "
+                + "WHERE c.scheduledTo >= :from AND c.createdDateTime >= :createdSince"
+    )
+    fun findScheduledFromCreatedSince(from: LocalDateTime, createdSince: Date): List<CoffeeBreak>
+
+    @Query(
+        "SELECT c.id AS coffeeBreakId, i.addresseeId AS addresseeId "
+                + "FROM CoffeeBreak c JOIN c.invitations i WHERE c.id IN :ids"
+    )
+    fun findAddressees(ids: Collection<Long>): List<CoffeeBreakAddressee>
+}
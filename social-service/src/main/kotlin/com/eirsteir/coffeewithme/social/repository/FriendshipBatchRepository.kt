@@ -0,0 +1,17 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+
+interface FriendshipBatchRepository {
+
+    /**
+     * Inserts a new friendship and flushes it, so an existing row fails on the primary key
+     * instead of being merged over as `save` would.
+     */
+    fun insert(friendship: Friendship): Friendship
+
+    /**
+     * Inserts new friendships with a single JDBC batch, bypassing the persistence context.
+     */
+    fun insertAll(friendships: List<Friendship>)
+}
@@ -0,0 +1,33 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import org.springframework.jdbc.core.JdbcTemplate
+import java.sql.Timestamp
+import javax.persistence.EntityManager
+import javax.persistence.PersistenceContext
+
+class FriendshipBatchRepositoryImpl(private val jdbcTemplate: JdbcTemplate) : FriendshipBatchRepository {
+
+    @PersistenceContext
+    private lateinit var entityManager: EntityManager
+
+    override fun insert(friendship: Friendship): Friendship {
+        entityManager.persist(friendship)
+        entityManager.flush()
+        return friendship
+    }
+
+    override fun insertAll(friendships: List<Friendship>) {
+        if (friendships.isEmpty())
+            return
+
+        val now = Timestamp(System.currentTimeMillis())
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO friendship (requester_id, addressee_id, status, created_date_time, updated_date_time) "
+                    + "VALUES (?, ?, ?, ?, ?)",
+            friendships.map {
+                arrayOf<Any?>(it.requester!!.id, it.addressee!!.id, it.status!!.getValue(), now, now)
+            }
+        )
+    }
+}
@@ -0,0 +1,37 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipCounter
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+
+interface FriendshipCounterRepository : JpaRepository<FriendshipCounter, Long> {
+
+    /**
+     * Adds the deltas to the counters of [userIds]. Users without a counter row get one counted
+     * from the friendship table, which already holds the change being counted, so the deltas are
+     * not added to it. Inserting and updating is one statement, so concurrent first changes to a
+     * user cannot both insert the row.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(
+        "INSERT INTO friendship_counter "
+                + "(user_id, friends_count, incoming_requests_count, outgoing_requests_count) "
+                + "SELECT u.id, "
+                + "(SELECT count(*) FROM friendship WHERE requester_id = u.id AND status = $ACCEPTED) "
+                + "+ (SELECT count(*) FROM friendship WHERE addressee_id = u.id AND status = $ACCEPTED), "
+                + "(SELECT count(*) FROM friendship WHERE addressee_id = u.id AND status = $REQUESTED), "
+                + "(SELECT count(*) FROM friendship WHERE requester_id = u.id AND status = $REQUESTED) "
+                + "FROM user u WHERE u.id IN (:userIds) "
+                + "ON DUPLICATE KEY UPDATE friends_count = friends_count + :friends, "
+                + "incoming_requests_count = incoming_requests_count + :incomingRequests, "
+                + "outgoing_requests_count = outgoing_requests_count + :outgoingRequests",
+        nativeQuery = true
+    )
+    fun incrementAll(userIds: Collection<Long>, friends: Int, incomingRequests: Int, outgoingRequests: Int)
+
+    companion object {
+        private const val REQUESTED = ":#{T(com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus).REQUESTED.value}"
+        private const val ACCEPTED = ":#{T(com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus).ACCEPTED.value}"
+    }
+}
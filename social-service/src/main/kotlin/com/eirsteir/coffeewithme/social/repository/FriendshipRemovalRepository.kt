@@ -0,0 +1,18 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipRemoval
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+import org.springframework.transaction.annotation.Transactional
+import java.util.*
+
+interface FriendshipRemovalRepository : JpaRepository<FriendshipRemoval, Long> {
+
+    fun findByRemovedDateTimeGreaterThanEqual(removedSince: Date): List<FriendshipRemoval>
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM FriendshipRemoval r WHERE r.removedDateTime < :removedBefore")
+    fun deleteRemovedBefore(removedBefore: Date): Int
+}
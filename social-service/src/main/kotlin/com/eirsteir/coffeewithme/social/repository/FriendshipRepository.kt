@@ -4,23 +4,38 @@ import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipId
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
 import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.dto.FriendshipEdge
+import org.springframework.data.domain.Pageable
 import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
 import org.springframework.data.jpa.repository.Query
 import java.util.*
 
-interface FriendshipRepository : JpaRepository<Friendship, FriendshipId> {
+interface FriendshipRepository : JpaRepository<Friendship, FriendshipId>, FriendshipBatchRepository {
+    // The OR over both sides of a friendship cannot use an index, so each side is queried on its own
     @Query(
-        "SELECT f from Friendship f where (f.id.requester.id = :userId or f.id.addressee.id ="
-                + " :userId) and f.status = :status"
+        "SELECT f.* FROM friendship f "
+                + "WHERE f.requester_id = :userId AND f.status = :#{#status.value} "
+                + "UNION ALL "
+                + "SELECT f.* FROM friendship f "
+                + "WHERE f.addressee_id = :userId AND f.status = :#{#status.value}",
+        nativeQuery = true
     )
     fun findByUserAndStatus(userId: Long, status: FriendshipStatus): List<Friendship>
 
     @Query(
-        "SELECT f from Friendship f "
-                + "where (f.id.requester.id = :userId or f.id.addressee.id = :userId) "
-                + "and f.status = :status "
-                + "and f.id.requester.university = :university "
-                + "and f.id.addressee.university = :university"
+        "SELECT f.* FROM friendship f "
+                + "JOIN user r ON r.id = f.requester_id "
+                + "JOIN user a ON a.id = f.addressee_id "
+                + "WHERE f.requester_id = :userId AND f.status = :#{#status.value} "
+                + "AND r.university_id = :#{#university.id} AND a.university_id = :#{#university.id} "
+                + "UNION ALL "
+                + "SELECT f.* FROM friendship f "
+                + "JOIN user r ON r.id = f.requester_id "
+                + "JOIN user a ON a.id = f.addressee_id "
+                + "WHERE f.addressee_id = :userId AND f.status = :#{#status.value} "
+                + "AND r.university_id = :#{#university.id} AND a.university_id = :#{#university.id}",
+        nativeQuery = true
     )
     fun findByUserAndStatusAndUniversity(
         userId: Long, status: FriendshipStatus, university: University
@@ -29,9 +44,84 @@ interface FriendshipRepository : JpaRepository<Friendship, FriendshipId> {
     fun findByIdRequesterIdAndIdAddresseeId(requesterId: Long, addresseeId: Long): Optional<Friendship>
 
     @Query(
-        "SELECT count(f) from Friendship f where (f.id.requester.id = :userId or f.id.addressee.id ="
-                + " :userId) and f.status ="
-                + " com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus.ACCEPTED"
+        "SELECT (SELECT count(*) FROM friendship WHERE requester_id = :userId AND status = $ACCEPTED) "
+                + "+ (SELECT count(*) FROM friendship WHERE addressee_id = :userId AND status = $ACCEPTED)",
+        nativeQuery = true
     )
     fun countByUserId(userId: Long): Int // TODO: 09.05.2020 What about when addressee sends request back to original requester
+
+    @Query(
+        "SELECT f from Friendship f "
+                + "join fetch f.id.requester r left join fetch r.university "
+                + "join fetch f.id.addressee a left join fetch a.university "
+                + "where f.id.requester.id = :userId and f.status = :status "
+                + "and (f.createdDateTime < :createdBefore "
+                + "or (f.createdDateTime = :createdBefore and f.id.addressee.id < :otherUserIdBefore)) "
+                + "order by f.createdDateTime desc, f.id.addressee.id desc"
+    )
+    fun findRequestedByUserBefore(
+        userId: Long, status: FriendshipStatus, createdBefore: Date, otherUserIdBefore: Long, pageable: Pageable
+    ): List<Friendship>
+
+    @Query(
+        "SELECT f from Friendship f "
+                + "join fetch f.id.requester r left join fetch r.university "
+                + "join fetch f.id.addressee a left join fetch a.university "
+                + "where f.id.addressee.id = :userId and f.status = :status "
+                + "and (f.createdDateTime < :createdBefore "
+                + "or (f.createdDateTime = :createdBefore and f.id.requester.id < :otherUserIdBefore)) "
+                + "order by f.createdDateTime desc, f.id.requester.id desc"
+    )
+    fun findRequestedOfUserBefore(
+        userId: Long, status: FriendshipStatus, createdBefore: Date, otherUserIdBefore: Long, pageable: Pageable
+    ): List<Friendship>
+
+    /**
+     * Returns those of [userIds] that already have a friendship with the user, in either direction.
+     */
+    @Query(
+        "SELECT f.addressee_id FROM friendship f WHERE f.requester_id = :userId AND f.addressee_id IN (:userIds) "
+                + "UNION "
+                + "SELECT f.requester_id FROM friendship f WHERE f.addressee_id = :userId AND f.requester_id IN (:userIds)",
+        nativeQuery = true
+    )
+    fun findRelatedUserIds(userId: Long, userIds: Collection<Long>): List<Number>
+
+    /**
+     * Locks the pending friend requests to the user from any of [requesterIds] and returns their requesters.
+     */
+    @Query(
+        "SELECT f.requester_id FROM friendship f "
+                + "WHERE f.addressee_id = :addresseeId AND f.status = $REQUESTED AND f.requester_id IN (:requesterIds) "
+                + "FOR UPDATE",
+        nativeQuery = true
+    )
+    fun lockPendingRequesterIds(addresseeId: Long, requesterIds: Collection<Long>): List<Number>
+
+    @Modifying
+    @Query(
+        "UPDATE friendship SET status = :#{#status.value}, updated_date_time = :updatedDateTime "
+                + "WHERE addressee_id = :addresseeId AND status = $REQUESTED AND requester_id IN (:requesterIds)",
+        nativeQuery = true
+    )
+    fun updatePendingRequests(
+        addresseeId: Long, requesterIds: Collection<Long>, status: FriendshipStatus, updatedDateTime: Date
+    ): Int
+
+    @Query(
+        "SELECT f.id.requester.id as requesterId, f.id.addressee.id as addresseeId, f.status as status "
+                + "FROM Friendship f"
+    )
+    fun findAllEdges(): List<FriendshipEdge>
+
+    @Query(
+        "SELECT f.id.requester.id as requesterId, f.id.addressee.id as addresseeId, f.status as status "
+                + "FROM Friendship f WHERE f.updatedDateTime >= :updatedSince"
+    )
+    fun findEdgesUpdatedSince(updatedSince: Date): List<FriendshipEdge>
+
+    companion object {
+        private const val REQUESTED = ":#{T(com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus).REQUESTED.value}"
+        private const val ACCEPTED = ":#{T(com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus).ACCEPTED.value}"
+    }
 }
\ No newline at end of file
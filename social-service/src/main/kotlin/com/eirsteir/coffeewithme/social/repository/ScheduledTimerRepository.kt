@@ -0,0 +1,20 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.ScheduledTimer
+import org.springframework.data.domain.Pageable
+import org.springframework.data.jpa.repository.JpaRepository
+import org.springframework.data.jpa.repository.Modifying
+import org.springframework.data.jpa.repository.Query
+import java.util.*
+
+interface ScheduledTimerRepository : JpaRepository<ScheduledTimer, Long> {
+
+    fun findByFireAtLessThanEqualOrderByFireAt(fireAt: Date, pageable: Pageable): List<ScheduledTimer>
+
+    /**
+     * Deletes the timer, returning 0 when it is already gone because another node fired it.
+     */
+    @Modifying
+    @Query("DELETE FROM ScheduledTimer t WHERE t.id = :id")
+    fun deleteFired(id: Long): Int
+}
@@ -2,12 +2,26 @@ package com.eirsteir.coffeewithme.social.repository
 
 import com.eirsteir.coffeewithme.social.domain.university.University
 import com.eirsteir.coffeewithme.social.dto.NoCampusUniversity
+import org.hibernate.jpa.QueryHints.HINT_CACHEABLE
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
+import javax.persistence.QueryHint
 
 interface UniversityRepository : JpaRepository<University, Long> {
 
-    @Query("SELECT university.id as id, university.name as name FROM University university")
+    @Query(
+        "SELECT new com.eirsteir.coffeewithme.social.dto.NoCampusUniversity(university.id, university.name) "
+                + "FROM University university"
+    )
+    @QueryHints(QueryHint(name = HINT_CACHEABLE, value = "true"))
     fun findAllExcludeCampuses(): List<NoCampusUniversity>
 
-}
\ No newline at end of file
+    @Query("SELECT DISTINCT university FROM University university LEFT JOIN FETCH university.campuses")
+    @QueryHints(
+        QueryHint(name = UserRepository.PASS_DISTINCT_THROUGH, value = "false"),
+        QueryHint(name = HINT_CACHEABLE, value = "true")
+    )
+    fun findAllWithCampuses(): List<University>
+
+}
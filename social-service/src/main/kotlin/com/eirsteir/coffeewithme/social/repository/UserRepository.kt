@@ -1,22 +1,94 @@
 package com.eirsteir.coffeewithme.social.repository
 
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.dto.UniversityMembership
+import com.eirsteir.coffeewithme.social.dto.UserNames
+import org.springframework.data.domain.Pageable
+import org.springframework.data.jpa.repository.EntityGraph
 import org.springframework.data.jpa.repository.JpaRepository
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor
 import org.springframework.data.jpa.repository.Modifying
 import org.springframework.data.jpa.repository.Query
+import org.springframework.data.jpa.repository.QueryHints
 import org.springframework.data.repository.query.Param
 import org.springframework.stereotype.Repository
 import org.springframework.transaction.annotation.Transactional
 import java.util.*
+import javax.persistence.QueryHint
 
 
-interface UserRepository : JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+interface UserRepository : JpaRepository<User, Long>, JpaSpecificationExecutor<User>, UserSearchRepository {
 
     fun findByEmail(email: String): Optional<User>
 
+    /**
+     * Finds the user with their university and its campuses in one statement.
+     */
+    @Query(
+        "SELECT DISTINCT u FROM User u "
+                + "LEFT JOIN FETCH u.university university LEFT JOIN FETCH university.campuses "
+                + "WHERE u.id = :id"
+    )
+    @QueryHints(QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+    fun findProfileById(id: Long): Optional<User>
+
+    /**
+     * Finds users with their universities joined in, instead of one select per university.
+     */
+    @EntityGraph("User.university")
+    fun findWithUniversityByIdIn(ids: Collection<Long>): List<User>
+
     @Query("UPDATE User u SET u.lastLogin=:lastLogin WHERE u.email = ?#{ principal?.username }")
     @Modifying
     @Transactional
     fun updateLastLogin(@Param("lastLogin") lastLogin: Date) // TODO: 06.06.2020 query returning a user profile with friends count
-}
\ No newline at end of file
+
+    @Query(
+        "SELECT u.id as userId, u.university.id as universityId FROM User u WHERE u.university IS NOT NULL"
+    )
+    fun findAllUniversityMemberships(): List<UniversityMembership>
+
+    @Query(
+        "SELECT u.id as userId, u.university.id as universityId FROM User u "
+                + "WHERE u.university IS NOT NULL AND u.updatedDateTime >= :updatedSince"
+    )
+    fun findUniversityMembershipsUpdatedSince(updatedSince: Date): List<UniversityMembership>
+
+    @Query("SELECT u.id as userId, u.name as name, u.nickname as nickname FROM User u")
+    fun findAllNames(): List<UserNames>
+
+    @Query(
+        "SELECT new com.eirsteir.coffeewithme.commons.dto.UserDetailsDto(u.id, u.email, u.nickname, u.name) "
+                + "FROM User u WHERE u.id IN :ids"
+    )
+    fun findAllDetailsByIdIn(ids: Collection<Long>): List<UserDetailsDto>
+
+    /**
+     * Finds the users of the university, or of any university when it is null, whose name or
+     * nickname starts with [prefix]. The prefix is lower case, with `!` escaping LIKE wildcards.
+     */
+    @Query(
+        "SELECT new com.eirsteir.coffeewithme.commons.dto.UserDetailsDto(u.id, u.email, u.nickname, u.name) "
+                + "FROM User u "
+                + "WHERE (lower(u.name) LIKE concat(:prefix, '%') ESCAPE '!' "
+                + "OR lower(u.nickname) LIKE concat(:prefix, '%') ESCAPE '!') "
+                + "AND (:universityId IS NULL OR u.university.id = :universityId) "
+                + "ORDER BY u.id"
+    )
+    fun findAllDetailsByNameStartingWith(prefix: String, universityId: Long?, pageable: Pageable): List<UserDetailsDto>
+
+    /**
+     * Finds the display fields of the users, without loading the entities.
+     */
+    @Query(
+        "SELECT new com.eirsteir.coffeewithme.commons.domain.user.UserDetails(u.id, u.name, u.nickname) "
+                + "FROM User u WHERE u.id IN :ids"
+    )
+    fun findAllUserDetailsByIdIn(ids: Collection<Long>): List<UserDetails>
+
+    companion object {
+        const val PASS_DISTINCT_THROUGH = "hibernate.query.passDistinctThrough"
+    }
+}
@@ -0,0 +1,17 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.user.User
+import org.springframework.data.jpa.domain.Specification
+
+interface UserSearchRepository {
+
+    /**
+     * Finds the ids of at most [limit] users matching [spec], lowest ids first.
+     */
+    fun findUserIds(spec: Specification<User>, limit: Int): List<Long>
+
+    /**
+     * Finds the ids of the users among [ids] matching [spec], lowest ids first.
+     */
+    fun findUserIdsAmong(spec: Specification<User>, ids: Collection<Long>): List<Long>
+}
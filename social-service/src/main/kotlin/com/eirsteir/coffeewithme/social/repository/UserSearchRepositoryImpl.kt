@@ -0,0 +1,44 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.social.domain.user.User
+import org.springframework.data.jpa.domain.Specification
+import javax.persistence.EntityManager
+
+class UserSearchRepositoryImpl(private val entityManager: EntityManager) : UserSearchRepository {
+
+    override fun findUserIds(spec: Specification<User>, limit: Int): List<Long> =
+        selectUserIds(spec, limit, null)
+
+    override fun findUserIdsAmong(spec: Specification<User>, ids: Collection<Long>): List<Long> {
+        if (ids.isEmpty())
+            return listOf()
+        return selectUserIds(spec, ids.size, ids)
+    }
+
+    private fun selectUserIds(spec: Specification<User>, limit: Int, among: Collection<Long>?): List<Long> {
+        val builder = entityManager.criteriaBuilder
+        val query = builder.createQuery(Long::class.javaObjectType)
+        val root = query.from(User::class.java)
+
+        query.select(root.get("id"))
+        val predicates = listOfNotNull(
+            spec.toPredicate(root, query, builder),
+            among?.let { root.get<Long>("id").`in`(it) }
+        )
+        if (predicates.isNotEmpty())
+            query.where(*predicates.toTypedArray())
+        query.orderBy(builder.asc(root.get<Long>("id")))
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit)
+            .setHint(QUERY_TIMEOUT_HINT, QUERY_TIMEOUT_MS)
+            .resultList
+    }
+
+    companion object {
+        private const val QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout"
+
+        /** Searches running longer than this are cancelled by the JDBC driver. */
+        private const val QUERY_TIMEOUT_MS = 2_000
+    }
+}
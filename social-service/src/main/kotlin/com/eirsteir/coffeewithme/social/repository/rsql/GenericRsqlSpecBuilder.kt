@@ -7,8 +7,17 @@ import cz.jirutka.rsql.parser.ast.Node
 import org.springframework.data.jpa.domain.Specification
 import java.util.*
 import java.util.stream.Collectors
+import javax.persistence.metamodel.ManagedType
 
-class GenericRsqlSpecBuilder<T> {
+/**
+ * Builds specifications from RSQL nodes, resolving selector types from the JPA metamodel of
+ * [managedType] so arguments are converted once instead of on every predicate. Comparisons on
+ * selectors covered by [selectorIndex] are answered from the index.
+ */
+class GenericRsqlSpecBuilder<T>(
+    private val managedType: ManagedType<T>,
+    private val selectorIndex: RsqlSelectorIndex<T>? = null
+) {
 
     fun createSpecification(node: Node): Specification<T>? {
         if (node is LogicalNode) {
@@ -39,12 +48,25 @@ class GenericRsqlSpecBuilder<T> {
     }
 
     fun createSpecification(comparisonNode: ComparisonNode): Specification<T> {
-        return Specification.where(
-            GenericRsqlSpecification(
+        val operation = RsqlSearchOperation.getSimpleOperator(comparisonNode.operator)
+            ?: throw IllegalArgumentException("Unsupported operator ${comparisonNode.operator}")
+        val type = managedType.getAttribute(comparisonNode.selector).javaType
+
+        val specification = Specification.where(
+            GenericRsqlSpecification<T>(
                 comparisonNode.selector,
-                comparisonNode.operator,
-                comparisonNode.arguments
+                operation,
+                comparisonNode.arguments.map { castArgument(it, type) }
             )
         )
+        return selectorIndex?.specificationFor(comparisonNode.selector, operation, comparisonNode.arguments, specification)
+            ?: specification
     }
-}
\ No newline at end of file
+
+    private fun castArgument(argument: String, type: Class<*>): Any =
+        when (type) {
+            Int::class.javaObjectType, Int::class.javaPrimitiveType -> argument.toInt()
+            Long::class.javaObjectType, Long::class.javaPrimitiveType -> argument.toLong()
+            else -> argument
+        }
+}
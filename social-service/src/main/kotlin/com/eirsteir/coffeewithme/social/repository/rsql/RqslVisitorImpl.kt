@@ -7,19 +7,19 @@ import cz.jirutka.rsql.parser.ast.RSQLVisitor
 import org.springframework.data.jpa.domain.Specification
 
 class RqslVisitorImpl<T>(
-    private val builder: GenericRsqlSpecBuilder<T> = GenericRsqlSpecBuilder()
+    private val builder: GenericRsqlSpecBuilder<T>
 ) : RSQLVisitor<Specification<T>, Void> {
 
-    override fun visit(node: AndNode, param: Void): Specification<T>? {
+    override fun visit(node: AndNode, param: Void?): Specification<T>? {
         return builder.createSpecification(node)
     }
 
-    override fun visit(node: OrNode, param: Void): Specification<T>? {
+    override fun visit(node: OrNode, param: Void?): Specification<T>? {
         return builder.createSpecification(node)
     }
 
-    override fun visit(node: ComparisonNode, params: Void): Specification<T> {
+    override fun visit(node: ComparisonNode, params: Void?): Specification<T> {
         return builder.createSpecification(node)
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.eirsteir.coffeewithme.social.repository.rsql
+
+import cz.jirutka.rsql.parser.ast.ComparisonNode
+import cz.jirutka.rsql.parser.ast.LogicalNode
+import cz.jirutka.rsql.parser.ast.LogicalOperator
+import cz.jirutka.rsql.parser.ast.Node
+
+/**
+ * Estimates what an RSQL query will cost the database before it is compiled, and rejects
+ * queries on selectors outside [selectors] or estimated above [maxCost].
+ *
+ * A comparison costs the lookup cost of its selector once per argument, or a full scan when no
+ * index can serve it, such as a leading wildcard or a negation. A conjunction costs about as
+ * much as its cheapest branch, since the database drives it from that branch's index, while
+ * every branch of a disjunction is paid for.
+ */
+class RsqlCostEstimator(
+    private val selectors: Map<String, Selector>,
+    private val maxCost: Int = DEFAULT_MAX_COST
+) {
+
+    enum class Selector(val lookupCost: Int) {
+        /** Primary or unique key. */
+        KEY(1),
+
+        /** Column covered by a database index. */
+        INDEXED(2),
+
+        /** Text column covered by an in-process index that matches infixes. */
+        TEXT_INDEXED(5),
+
+        /** Column that can only be scanned. */
+        UNINDEXED(SCAN_COST)
+    }
+
+    /**
+     * @throws IllegalArgumentException when the query is not allowed
+     */
+    fun check(node: Node) {
+        val cost = estimate(node)
+        require(cost <= maxCost) { "Search query is too expensive ($cost > $maxCost)" }
+    }
+
+    fun estimate(node: Node): Int =
+        when (node) {
+            is LogicalNode -> {
+                val costs = node.children.map { estimate(it) }
+                if (node.operator == LogicalOperator.AND)
+                    costs.minOrNull()!! + costs.size - 1
+                else
+                    costs.fold(0) { total, cost -> saturatedAdd(total, cost) }
+            }
+            is ComparisonNode -> estimate(node)
+            else -> throw IllegalArgumentException("Unsupported node $node")
+        }
+
+    private fun estimate(node: ComparisonNode): Int {
+        val selector = selectors[node.selector]
+            ?: throw IllegalArgumentException("Selector '${node.selector}' is not searchable")
+        require(node.arguments.size <= MAX_ARGUMENTS) { "At most $MAX_ARGUMENTS arguments are allowed" }
+
+        val operation = RsqlSearchOperation.getSimpleOperator(node.operator)
+        return node.arguments.fold(0) { total, argument ->
+            saturatedAdd(total, argumentCost(selector, operation, argument))
+        }
+    }
+
+    private fun argumentCost(selector: Selector, operation: RsqlSearchOperation?, argument: String): Int =
+        when (operation) {
+            RsqlSearchOperation.EQUAL -> patternCost(selector, argument)
+            RsqlSearchOperation.IN -> selector.lookupCost
+            RsqlSearchOperation.GREATER_THAN,
+            RsqlSearchOperation.GREATER_THAN_OR_EQUAL,
+            RsqlSearchOperation.LESS_THAN,
+            RsqlSearchOperation.LESS_THAN_OR_EQUAL ->
+                if (selector == Selector.TEXT_INDEXED) SCAN_COST else selector.lookupCost * RANGE_FACTOR
+            else -> SCAN_COST
+        }
+
+    private fun patternCost(selector: Selector, pattern: String): Int {
+        val literals = pattern.split(*WILDCARDS).filter { it.isNotEmpty() }
+        if (literals.size == 1 && literals[0] == pattern)
+            return selector.lookupCost
+
+        val anchored = literals.isNotEmpty() && pattern.startsWith(literals[0])
+        return when (selector) {
+            Selector.TEXT_INDEXED ->
+                if (anchored || literals.any { it.length >= TRIGRAM_LENGTH }) selector.lookupCost else SCAN_COST
+            Selector.UNINDEXED -> SCAN_COST
+            else -> if (anchored) selector.lookupCost * RANGE_FACTOR else SCAN_COST
+        }
+    }
+
+    private fun saturatedAdd(a: Int, b: Int) = minOf(a.toLong() + b, Int.MAX_VALUE.toLong()).toInt()
+
+    companion object {
+        private const val SCAN_COST = 1_000
+        private const val DEFAULT_MAX_COST = 100
+        private const val RANGE_FACTOR = 5
+        private const val MAX_ARGUMENTS = 50
+        private const val TRIGRAM_LENGTH = 3
+        private val WILDCARDS = charArrayOf('*', '%', '_')
+    }
+}
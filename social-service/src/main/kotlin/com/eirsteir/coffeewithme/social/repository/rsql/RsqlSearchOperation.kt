@@ -2,7 +2,6 @@ package com.eirsteir.coffeewithme.social.repository.rsql
 
 import cz.jirutka.rsql.parser.ast.ComparisonOperator
 import cz.jirutka.rsql.parser.ast.RSQLOperators
-import java.util.*
 
 enum class RsqlSearchOperation(private val operator: ComparisonOperator?) {
     EQUAL(RSQLOperators.EQUAL),
@@ -19,11 +18,10 @@ enum class RsqlSearchOperation(private val operator: ComparisonOperator?) {
     }
 
     companion object {
+        private val BY_OPERATOR = values().associateBy { it.getOperator() }
+
         fun getSimpleOperator(operator: ComparisonOperator): RsqlSearchOperation? {
-            return Arrays.stream(values())
-                .filter { operation: RsqlSearchOperation -> operation.getOperator() === operator }
-                .findAny()
-                .orElse(null)
+            return BY_OPERATOR[operator]
         }
     }
-}
\ No newline at end of file
+}
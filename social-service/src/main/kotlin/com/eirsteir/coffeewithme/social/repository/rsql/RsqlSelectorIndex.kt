@@ -0,0 +1,21 @@
+package com.eirsteir.coffeewithme.social.repository.rsql
+
+import org.springframework.data.jpa.domain.Specification
+
+/**
+ * Answers comparisons on some selectors from an index instead of the database.
+ */
+interface RsqlSelectorIndex<T> {
+
+    /**
+     * Returns a specification answering the comparison from the index, or null when [selector]
+     * is not indexed. The returned specification may still delegate to [fallback] when the
+     * index cannot answer a particular query.
+     */
+    fun specificationFor(
+        selector: String,
+        operation: RsqlSearchOperation,
+        arguments: List<String>,
+        fallback: Specification<T>
+    ): Specification<T>?
+}
@@ -0,0 +1,72 @@
+package com.eirsteir.coffeewithme.social.repository.rsql
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import cz.jirutka.rsql.parser.RSQLParser
+import io.micrometer.core.instrument.Counter
+import io.micrometer.core.instrument.Gauge
+import io.micrometer.core.instrument.MeterRegistry
+import io.micrometer.core.instrument.Timer
+import org.springframework.data.jpa.domain.Specification
+import javax.persistence.metamodel.ManagedType
+
+/**
+ * Bounded LRU cache of RSQL queries compiled into specifications of [managedType], so repeated
+ * searches skip parsing, operator lookup and argument conversion.
+ *
+ * Compiled specifications hold no per-query state and are shared between requests. Queries
+ * that fail to parse, refer to unknown selectors or are rejected by [costEstimator] are not
+ * cached.
+ */
+class RsqlSpecificationCache<T>(
+    managedType: ManagedType<T>,
+    meterRegistry: MeterRegistry,
+    selectorIndex: RsqlSelectorIndex<T>? = null,
+    private val costEstimator: RsqlCostEstimator? = null,
+    maximumSize: Long = DEFAULT_MAXIMUM_SIZE
+) {
+
+    private val parser = RSQLParser()
+    private val visitor = RqslVisitorImpl(GenericRsqlSpecBuilder(managedType, selectorIndex))
+
+    private val specifications: Cache<String, Specification<T>> = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build()
+
+    private val compileTimer = Timer.builder("rsql.specifications.compile")
+        .description("Time spent parsing and compiling RSQL queries")
+        .tag("entity", managedType.javaType.simpleName)
+        .register(meterRegistry)
+
+    private val rejections = Counter.builder("rsql.specifications.rejected")
+        .description("RSQL queries rejected as too expensive or on selectors that are not searchable")
+        .tag("entity", managedType.javaType.simpleName)
+        .register(meterRegistry)
+
+    init {
+        Gauge.builder("rsql.specifications.hit-ratio", specifications) { it.stats().hitRate() }
+            .description("Share of RSQL queries answered from the cache")
+            .tag("entity", managedType.javaType.simpleName)
+            .register(meterRegistry)
+    }
+
+    fun specificationFor(query: String): Specification<T> =
+        specifications.get(query.trim()) { compile(it) }!!
+
+    private fun compile(query: String): Specification<T> =
+        compileTimer.recordCallable {
+            val node = parser.parse(query)
+            try {
+                costEstimator?.check(node)
+            } catch (e: IllegalArgumentException) {
+                rejections.increment()
+                throw e
+            }
+            node.accept(visitor)
+        }!!
+
+    companion object {
+        private const val DEFAULT_MAXIMUM_SIZE = 1_000L
+    }
+}
@@ -0,0 +1,225 @@
+package com.eirsteir.coffeewithme.social.scheduling
+
+import mu.KotlinLogging
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.concurrent.thread
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Timer for large numbers of pending timeouts, after the hashed timing wheel of Varghese and
+ * Lauck. Timeouts are hashed into [wheelSize] buckets by their deadline, so scheduling and
+ * cancelling are O(1), and a single worker thread expires one bucket per [tickDuration].
+ * Timeouts further away than one turn of the wheel wait out the remaining turns in their bucket.
+ *
+ * A timeout fires on the first tick after its deadline, so never early and at most one tick
+ * late. Tasks run on the worker thread and must hand any slow work off to an executor.
+ */
+class HashedTimingWheel(
+    tickDuration: Duration,
+    wheelSize: Int,
+    private val nanoTime: () -> Long = System::nanoTime
+) : AutoCloseable {
+
+    private val tickNanos = tickDuration.toNanos()
+    private val buckets: Array<Bucket>
+    private val mask: Long
+    private val startTime = nanoTime()
+
+    private val pending = ConcurrentLinkedQueue<Timeout>()
+    private val cancelled = ConcurrentLinkedQueue<Timeout>()
+    private val pendingCount = AtomicInteger()
+
+    private var tick = 0L
+
+    @Volatile
+    private var worker: Thread? = null
+
+    init {
+        require(tickNanos > 0) { "Tick duration must be positive: $tickDuration" }
+        require(wheelSize in 1..MAX_WHEEL_SIZE) { "Wheel size must be between 1 and $MAX_WHEEL_SIZE: $wheelSize" }
+
+        val normalizedSize = if (wheelSize == 1) 1 else Integer.highestOneBit(wheelSize - 1) shl 1
+        buckets = Array(normalizedSize) { Bucket() }
+        mask = normalizedSize - 1L
+    }
+
+    /**
+     * The number of timeouts neither expired nor cancelled.
+     */
+    val size: Int
+        get() = pendingCount.get()
+
+    /**
+     * Schedules [task] to run once [delay] has passed. Can be called from any thread.
+     */
+    fun schedule(delay: Duration, task: () -> Unit): Timeout {
+        val delayNanos = delay.toNanos().coerceIn(0, Long.MAX_VALUE / 2)
+        val timeout = Timeout(task, nanoTime() - startTime + delayNanos)
+        pendingCount.incrementAndGet()
+        pending.add(timeout)
+        return timeout
+    }
+
+    /**
+     * Expires the buckets of every tick that has passed. Called by the worker thread, or
+     * directly when the wheel is driven by hand.
+     */
+    @Synchronized
+    fun advance() {
+        val elapsedTicks = (nanoTime() - startTime) / tickNanos
+        while (tick < elapsedTicks) {
+            removeCancelled()
+            transferPending()
+            buckets[(tick and mask).toInt()].expire()
+            tick++
+        }
+    }
+
+    /**
+     * Starts the worker thread, which sleeps until the end of each tick and then advances.
+     */
+    @Synchronized
+    fun start() {
+        if (worker != null)
+            return
+
+        worker = thread(name = "timing-wheel", isDaemon = true) {
+            try {
+                while (!Thread.currentThread().isInterrupted) {
+                    val nextTickEnd = startTime + (currentTick() + 1) * tickNanos
+                    TimeUnit.NANOSECONDS.sleep(nextTickEnd - nanoTime())
+                    advance()
+                }
+            } catch (e: InterruptedException) {
+                logger.debug("[x] Timing wheel stopped with {} pending timeouts", size)
+            }
+        }
+    }
+
+    override fun close() {
+        val stopped = worker ?: return
+        stopped.interrupt()
+        stopped.join()
+    }
+
+    @Synchronized
+    private fun currentTick() = tick
+
+    private fun removeCancelled() {
+        while (true) {
+            val timeout = cancelled.poll() ?: return
+            timeout.bucket?.remove(timeout)
+        }
+    }
+
+    private fun transferPending() {
+        for (i in 0 until MAX_TRANSFERS_PER_TICK) {
+            val timeout = pending.poll() ?: return
+            if (timeout.isCancelled)
+                continue
+
+            val deadlineTick = timeout.deadline / tickNanos
+            timeout.remainingRounds = (deadlineTick - tick) / buckets.size
+            // Overdue timeouts go into the bucket expired next
+            buckets[(maxOf(deadlineTick, tick) and mask).toInt()].add(timeout)
+        }
+    }
+
+    inner class Timeout internal constructor(private val task: () -> Unit, internal val deadline: Long) {
+        private val state = AtomicInteger(INITIAL)
+
+        internal var remainingRounds = 0L
+        internal var bucket: Bucket? = null
+        internal var previous: Timeout? = null
+        internal var next: Timeout? = null
+
+        val isCancelled: Boolean
+            get() = state.get() == CANCELLED
+
+        val isExpired: Boolean
+            get() = state.get() == EXPIRED
+
+        /**
+         * Cancels the timeout, returning false if it has already expired or been cancelled.
+         * Its bucket lets go of it on the next tick.
+         */
+        fun cancel(): Boolean {
+            if (!state.compareAndSet(INITIAL, CANCELLED))
+                return false
+
+            pendingCount.decrementAndGet()
+            cancelled.add(this)
+            return true
+        }
+
+        internal fun expire() {
+            if (!state.compareAndSet(INITIAL, EXPIRED))
+                return
+
+            pendingCount.decrementAndGet()
+            try {
+                task()
+            } catch (e: Exception) {
+                logger.warn(e) { "[x] Timeout task failed" }
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts hashed to one slot of the wheel. Only touched by the
+     * thread advancing the wheel.
+     */
+    internal inner class Bucket {
+        private var head: Timeout? = null
+        private var tail: Timeout? = null
+
+        fun add(timeout: Timeout) {
+            timeout.bucket = this
+            timeout.previous = tail
+            if (tail == null)
+                head = timeout
+            else
+                tail!!.next = timeout
+            tail = timeout
+        }
+
+        fun remove(timeout: Timeout) {
+            val previous = timeout.previous
+            val next = timeout.next
+            if (previous == null) head = next else previous.next = next
+            if (next == null) tail = previous else next.previous = previous
+            timeout.bucket = null
+            timeout.previous = null
+            timeout.next = null
+        }
+
+        fun expire() {
+            var timeout = head
+            while (timeout != null) {
+                val next = timeout.next
+                when {
+                    timeout.remainingRounds <= 0 -> {
+                        remove(timeout)
+                        timeout.expire()
+                    }
+                    timeout.isCancelled -> remove(timeout)
+                    else -> timeout.remainingRounds--
+                }
+                timeout = next
+            }
+        }
+    }
+
+    companion object {
+        private const val MAX_WHEEL_SIZE = 1 shl 30
+        private const val MAX_TRANSFERS_PER_TICK = 100_000
+
+        private const val INITIAL = 0
+        private const val CANCELLED = 1
+        private const val EXPIRED = 2
+    }
+}
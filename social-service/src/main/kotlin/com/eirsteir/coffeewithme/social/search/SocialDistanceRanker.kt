@@ -0,0 +1,77 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import org.roaringbitmap.RoaringBitmap
+import java.util.*
+
+/**
+ * Orders search matches by their social distance to the viewer: friends first, then friends of
+ * friends by their number of mutual friends, then users at the viewer's university and then
+ * everyone else. Ties go to the lowest user id, so pages stay stable between requests.
+ *
+ * Mutual friends are counted by intersecting the viewer's friends with the friends of each
+ * match, so the two-hop expansion never reaches past the matches themselves, and only the best
+ * matches are kept in a bounded heap instead of sorting them all.
+ */
+class SocialDistanceRanker(
+    private val friendGraph: FriendGraph,
+    private val friendBitmaps: FriendBitmaps
+) {
+
+    enum class Distance {
+        FRIEND,
+        FRIEND_OF_FRIEND,
+        SAME_UNIVERSITY,
+        OTHER
+    }
+
+    data class Ranking(val userId: Long, val distance: Distance, val mutualFriendsCount: Int)
+
+    /**
+     * Returns the [limit] best ranked of [userIds], best first, leaving out the viewer.
+     */
+    fun rank(viewerId: Long, userIds: Collection<Long>, limit: Int): List<Ranking> {
+        if (limit <= 0)
+            return listOf()
+
+        val friends = friendBitmaps.friendsOf(viewerId)
+        val universityId = friendGraph.universityOf(viewerId)
+
+        // Min-heap of the best rankings so far, the weakest on top
+        val top = PriorityQueue(limit + 1, WEAKEST_FIRST)
+        for (userId in userIds) {
+            if (userId == viewerId)
+                continue
+
+            val ranking = rankingOf(userId, friends, universityId)
+            if (top.size < limit) {
+                top.add(ranking)
+            } else if (WEAKEST_FIRST.compare(ranking, top.peek()) > 0) {
+                top.poll()
+                top.add(ranking)
+            }
+        }
+        return top.sortedWith(WEAKEST_FIRST.reversed())
+    }
+
+    private fun rankingOf(userId: Long, friends: RoaringBitmap, universityId: Long?): Ranking {
+        if (friends.contains(FriendBitmaps.toInt(userId)))
+            return Ranking(userId, Distance.FRIEND, 0)
+
+        val mutualFriendsCount =
+            if (friends.isEmpty) 0 else RoaringBitmap.andCardinality(friends, friendBitmaps.friendsOf(userId))
+        val distance = when {
+            mutualFriendsCount > 0 -> Distance.FRIEND_OF_FRIEND
+            universityId != null && friendGraph.universityOf(userId) == universityId -> Distance.SAME_UNIVERSITY
+            else -> Distance.OTHER
+        }
+        return Ranking(userId, distance, mutualFriendsCount)
+    }
+
+    companion object {
+        private val WEAKEST_FIRST = compareByDescending<Ranking> { it.distance }
+            .thenBy { it.mutualFriendsCount }
+            .thenByDescending { it.userId }
+    }
+}
@@ -0,0 +1,188 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.dto.UserNames
+import com.eirsteir.coffeewithme.social.graph.LongHashSet
+import java.util.*
+import java.util.concurrent.locks.ReentrantReadWriteLock
+import kotlin.concurrent.read
+import kotlin.concurrent.write
+
+/**
+ * In-memory inverted index over user names and nicknames. Every field keeps a trigram index for
+ * infix matches and its values in sorted order for prefix lookups, so text searches do not
+ * have to scan the user table with `LIKE '%...%'`.
+ *
+ * Patterns use the wildcards of RSQL and SQL: `*` and `%` match any sequence of characters and
+ * `_` matches a single character. Matching ignores case, like the default collation of the
+ * database.
+ *
+ * Names put before the index is loaded are kept and put again once it is, so changes received
+ * while the users are being read are not lost when the index is replaced.
+ */
+class UserNameIndex {
+
+    enum class Field(val selector: String) {
+        NAME("name"),
+        NICKNAME("nickname");
+
+        companion object {
+            fun of(selector: String) = values().find { it.selector == selector }
+        }
+    }
+
+    private val lock = ReentrantReadWriteLock()
+    private val fields = Field.values().associateWith { FieldIndex() }
+    private val putsWhileLoading = ArrayList<Triple<Long, String?, String?>>()
+
+    /**
+     * Whether the index holds every user, rather than only those put since the application started.
+     */
+    @Volatile
+    var isLoaded = false
+        private set
+
+    fun put(userId: Long, name: String?, nickname: String?) {
+        lock.write {
+            if (!isLoaded)
+                putsWhileLoading.add(Triple(userId, name, nickname))
+            putFields(userId, name, nickname)
+        }
+    }
+
+    /**
+     * Replaces the whole index with the names of [users], followed by the names put so far.
+     */
+    fun load(users: List<UserNames>) {
+        lock.write {
+            fields.values.forEach { it.clear() }
+            users.forEach { putFields(it.getUserId(), it.getName(), it.getNickname()) }
+            putsWhileLoading.forEach { (userId, name, nickname) -> putFields(userId, name, nickname) }
+            putsWhileLoading.clear()
+            isLoaded = true
+        }
+    }
+
+    /**
+     * Returns the ids of users whose [field] matches [pattern], or null when the pattern has no
+     * literal part long enough to be looked up and must be answered by the database.
+     */
+    fun match(field: Field, pattern: String): LongArray? =
+        lock.read { fields.getValue(field).match(pattern.lowercase()) }
+
+    /**
+     * Returns the ids of up to [limit] users accepted by [filter] whose [field] starts with
+     * [prefix], in order of the field value.
+     */
+    fun startingWith(field: Field, prefix: String, limit: Int, filter: (Long) -> Boolean = { true }): LongArray =
+        lock.read { fields.getValue(field).startingWith(prefix.lowercase(), limit, filter) }
+
+    private fun putFields(userId: Long, name: String?, nickname: String?) {
+        fields.getValue(Field.NAME).put(userId, name)
+        fields.getValue(Field.NICKNAME).put(userId, nickname)
+    }
+
+    private class FieldIndex {
+        private val values = HashMap<Long, String>()
+        private val sorted = TreeMap<String, LongHashSet>()
+        private val trigrams = HashMap<String, LongHashSet>()
+
+        fun put(userId: Long, value: String?) {
+            val normalized = value?.lowercase()
+            val oldValue = if (normalized == null) values.remove(userId) else values.put(userId, normalized)
+            if (oldValue == normalized)
+                return
+
+            oldValue?.let { unindex(userId, it) }
+            normalized?.let { index(userId, it) }
+        }
+
+        fun match(pattern: String): LongArray? {
+            val literals = pattern.split(*WILDCARDS).filter { it.isNotEmpty() }
+            if (literals.size == 1 && literals[0] == pattern)
+                return sorted[pattern]?.toArray() ?: EMPTY
+
+            val candidates = trigramCandidates(literals) ?: prefixCandidates(pattern, literals) ?: return null
+            val regex = toRegex(pattern)
+            return candidates.filter { regex.matches(values.getValue(it)) }.toLongArray()
+        }
+
+        fun startingWith(prefix: String, limit: Int, filter: (Long) -> Boolean): LongArray {
+            val ids = ArrayList<Long>(limit)
+            for ((value, userIds) in sorted.tailMap(prefix)) {
+                if (!value.startsWith(prefix) || ids.size >= limit)
+                    break
+                userIds.toArray().sorted().forEach { if (ids.size < limit && filter(it)) ids.add(it) }
+            }
+            return ids.toLongArray()
+        }
+
+        fun clear() {
+            values.clear()
+            sorted.clear()
+            trigrams.clear()
+        }
+
+        /**
+         * Intersects the postings of every trigram in [literals], smallest first.
+         */
+        private fun trigramCandidates(literals: List<String>): LongArray? {
+            val postings = literals.flatMap { trigramsOf(it) }
+                .distinct()
+                .map { trigrams[it] ?: return EMPTY }
+                .sortedBy { it.size }
+            if (postings.isEmpty())
+                return null
+
+            val others = postings.drop(1)
+            return postings[0].toArray().filter { id -> others.all { it.contains(id) } }.toLongArray()
+        }
+
+        private fun prefixCandidates(pattern: String, literals: List<String>): LongArray? {
+            if (literals.isEmpty() || !pattern.startsWith(literals[0]))
+                return null
+
+            val prefix = literals[0]
+            val ids = LongHashSet()
+            for ((value, userIds) in sorted.tailMap(prefix)) {
+                if (!value.startsWith(prefix))
+                    break
+                userIds.toArray().forEach { ids.add(it) }
+            }
+            return ids.toArray()
+        }
+
+        private fun index(userId: Long, value: String) {
+            sorted.getOrPut(value) { LongHashSet() }.add(userId)
+            trigramsOf(value).forEach { trigrams.getOrPut(it) { LongHashSet() }.add(userId) }
+        }
+
+        private fun unindex(userId: Long, value: String) {
+            removeFrom(sorted, value, userId)
+            trigramsOf(value).forEach { removeFrom(trigrams, it, userId) }
+        }
+
+        private fun <K> removeFrom(postings: MutableMap<K, LongHashSet>, key: K, userId: Long) {
+            val userIds = postings[key] ?: return
+            userIds.remove(userId)
+            if (userIds.isEmpty())
+                postings.remove(key)
+        }
+    }
+
+    companion object {
+        private val EMPTY = LongArray(0)
+        private val WILDCARDS = charArrayOf('*', '%', '_')
+
+        private fun trigramsOf(value: String): Set<String> =
+            (0..value.length - 3).mapTo(HashSet()) { value.substring(it, it + 3) }
+
+        private fun toRegex(pattern: String): Regex =
+            Regex(pattern.map {
+                when (it) {
+                    '*', '%' -> ".*"
+                    '_' -> "."
+                    else -> Regex.escape(it.toString())
+                }
+            }.joinToString(""), RegexOption.DOT_MATCHES_ALL)
+    }
+}
@@ -0,0 +1,28 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import mu.KotlinLogging
+import org.springframework.boot.ApplicationArguments
+import org.springframework.boot.ApplicationRunner
+import org.springframework.transaction.annotation.Transactional
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Populates the [UserNameIndex] from the database when the application starts.
+ */
+class UserNameIndexLoader(
+    private val userNameIndex: UserNameIndex,
+    private val userRepository: UserRepository
+) : ApplicationRunner {
+
+    @Transactional(readOnly = true)
+    override fun run(args: ApplicationArguments?) {
+        val started = System.currentTimeMillis()
+
+        val names = userRepository.findAllNames()
+        userNameIndex.load(names)
+
+        logger.info("[x] Indexed names of {} users in {} ms", names.size, System.currentTimeMillis() - started)
+    }
+}
@@ -0,0 +1,71 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSearchOperation
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSelectorIndex
+import org.springframework.data.jpa.domain.Specification
+
+/**
+ * Answers comparisons on user names and nicknames from the [UserNameIndex], turning them into
+ * primary key lookups that the rest of the query can be combined with.
+ *
+ * The index is consulted each time the specification is used, so cached specifications see
+ * the current names. Comparisons the index cannot answer, that match more than [maxIds] users,
+ * or that are made before the index is loaded fall back to the database.
+ */
+class UserNameSelectorIndex(
+    private val userNameIndex: UserNameIndex,
+    private val maxIds: Int = DEFAULT_MAX_IDS
+) : RsqlSelectorIndex<User> {
+
+    override fun specificationFor(
+        selector: String,
+        operation: RsqlSearchOperation,
+        arguments: List<String>,
+        fallback: Specification<User>
+    ): Specification<User>? {
+        val field = UserNameIndex.Field.of(selector) ?: return null
+        val negated = when (operation) {
+            RsqlSearchOperation.EQUAL, RsqlSearchOperation.IN -> false
+            RsqlSearchOperation.NOT_EQUAL, RsqlSearchOperation.NOT_IN -> true
+            else -> return null
+        }
+        // Unlike equality, membership tests compare values literally
+        val literal = operation == RsqlSearchOperation.IN || operation == RsqlSearchOperation.NOT_IN
+        if (literal && arguments.any { argument -> WILDCARDS.any { it in argument } })
+            return null
+
+        return Specification<User> { root, query, builder ->
+            val ids = matchAll(field, arguments)
+            when {
+                ids == null -> fallback.toPredicate(root, query, builder)
+                negated && ids.isEmpty() -> builder.isNotNull(root.get<String>(selector))
+                negated -> builder.and(
+                    builder.isNotNull(root.get<String>(selector)),
+                    builder.not(root.get<Long>("id").`in`(ids))
+                )
+                ids.isEmpty() -> builder.disjunction()
+                else -> root.get<Long>("id").`in`(ids)
+            }
+        }
+    }
+
+    private fun matchAll(field: UserNameIndex.Field, patterns: List<String>): Set<Long>? {
+        if (!userNameIndex.isLoaded)
+            return null
+
+        val ids = HashSet<Long>()
+        patterns.forEach { pattern ->
+            val matched = userNameIndex.match(field, pattern) ?: return null
+            matched.forEach { ids.add(it) }
+            if (ids.size > maxIds)
+                return null
+        }
+        return ids
+    }
+
+    companion object {
+        private const val DEFAULT_MAX_IDS = 1_000
+        private val WILDCARDS = charArrayOf('*', '%', '_')
+    }
+}
@@ -45,7 +45,7 @@ class JwtTokenAuthenticationFilter(
                 val principal = UserDetailsImpl(
                     id = id.toLong(),
                     email = claims["email"] as String,
-                    nickname = claims["username"] as String
+                    nickname = claims["nickname"] as String
                 )
                 val auth = UsernamePasswordAuthenticationToken(
                     principal,
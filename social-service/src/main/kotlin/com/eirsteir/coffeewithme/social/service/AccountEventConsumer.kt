@@ -3,8 +3,12 @@ package com.eirsteir.coffeewithme.social.service
 import com.eirsteir.coffeewithme.commons.domain.account.AccountCreatedEvent
 import com.eirsteir.coffeewithme.commons.domain.user.UserAlreadyExistsEvent
 import com.eirsteir.coffeewithme.commons.domain.user.UserCreatedEvent
+import com.eirsteir.coffeewithme.commons.domain.user.UserNamesChangedEvent
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipCounter
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.repository.FriendshipCounterRepository
 import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
 import io.eventuate.tram.events.publisher.DomainEventPublisher
 import io.eventuate.tram.events.subscriber.DomainEventEnvelope
 import io.eventuate.tram.events.subscriber.DomainEventHandlers
@@ -17,6 +21,8 @@ private val logger = KotlinLogging.logger {  }
 
 class AccountEventConsumer(
     private val userRepository: UserRepository,
+    private val friendshipCounterRepository: FriendshipCounterRepository,
+    private val userNameIndex: UserNameIndex,
     private val domainEventPublisher: DomainEventPublisher
 ) {
 
@@ -47,10 +53,14 @@ class AccountEventConsumer(
                 name = accountCreatedEvent.name
             )
             val registeredUser = userRepository.save(user)
+            friendshipCounterRepository.save(FriendshipCounter(userId = accountId))
+            afterCommit { userNameIndex.put(accountId, registeredUser.name, registeredUser.nickname) }
             logger.info("[x] Registered user: {}", registeredUser)
             val userCreatedEvent = UserCreatedEvent(accountId)
+            val userNamesChangedEvent =
+                UserNamesChangedEvent(accountId, registeredUser.name, registeredUser.nickname)
             domainEventPublisher.publish(
-                User::class.java, user.id, listOf(userCreatedEvent)
+                User::class.java, user.id, listOf(userCreatedEvent, userNamesChangedEvent)
             )
             return
         }
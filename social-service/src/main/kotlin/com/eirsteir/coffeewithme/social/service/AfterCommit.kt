@@ -0,0 +1,18 @@
+package com.eirsteir.coffeewithme.social.service
+
+import org.springframework.transaction.support.TransactionSynchronization
+import org.springframework.transaction.support.TransactionSynchronizationManager
+
+/**
+ * Runs [action] once the surrounding transaction has committed, or right away when there is
+ * no transaction, so in-memory state never reflects a write that was rolled back.
+ */
+fun afterCommit(action: () -> Unit) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+        action()
+        return
+    }
+    TransactionSynchronizationManager.registerSynchronization(object : TransactionSynchronization {
+        override fun afterCommit() = action()
+    })
+}
@@ -0,0 +1,8 @@
+package com.eirsteir.coffeewithme.social.service.autocomplete
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+
+interface AutocompleteService {
+
+    fun completeUsers(userId: Long, query: String, limit: Int): List<UserDetailsDto>
+}
@@ -0,0 +1,107 @@
+package com.eirsteir.coffeewithme.social.service.autocomplete
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import org.springframework.data.domain.PageRequest
+import org.springframework.stereotype.Service
+import java.time.Duration
+import javax.transaction.Transactional
+
+/**
+ * Completes user names and nicknames from the [UserNameIndex], scoped to the caller's
+ * university. Until the index is loaded, completions are read from the database instead and
+ * not cached.
+ *
+ * Completions are cached per prefix and university for a short while. A cached completion that
+ * holds every match of its prefix also answers all longer prefixes by filtering, so typing
+ * another character rarely reaches the index or the database.
+ */
+@Service
+@Transactional
+class AutocompleteServiceImpl(
+    private val userNameIndex: UserNameIndex,
+    private val friendGraph: FriendGraph,
+    private val friendBitmaps: FriendBitmaps,
+    private val userRepository: UserRepository
+) : AutocompleteService {
+
+    private val completions: Cache<Key, Completion> = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_COMPLETIONS)
+        .expireAfterWrite(COMPLETION_TTL)
+        .build()
+
+    override fun completeUsers(userId: Long, query: String, limit: Int): List<UserDetailsDto> {
+        val prefix = query.trim().lowercase()
+        if (prefix.isEmpty())
+            return listOf()
+
+        val key = Key(prefix, friendGraph.universityOf(userId))
+        val users =
+            if (userNameIndex.isLoaded) completions.get(key) { fromShorterPrefix(it) ?: complete(it) }!!.users
+            else completeFromDatabase(key)
+        return users
+            .asSequence()
+            .filter { it.id != userId }
+            .take(limit)
+            .toList()
+    }
+
+    private fun fromShorterPrefix(key: Key): Completion? {
+        for (length in key.prefix.length - 1 downTo 1) {
+            val shorter = completions.getIfPresent(key.copy(prefix = key.prefix.substring(0, length)))
+            if (shorter != null && shorter.isComplete)
+                return Completion(sortedMatches(shorter.users, key.prefix), isComplete = true)
+        }
+        return null
+    }
+
+    private fun complete(key: Key): Completion {
+        val members = key.universityId?.let { friendBitmaps.membersOf(it) }
+        val filter: (Long) -> Boolean =
+            if (members == null) { _ -> true } else { id -> members.contains(FriendBitmaps.toInt(id)) }
+
+        val matches = UserNameIndex.Field.values().map {
+            userNameIndex.startingWith(it, key.prefix, MAX_CANDIDATES + 1, filter)
+        }
+        val ids = matches.flatMap { it.asIterable() }.distinct()
+        val users = if (ids.isEmpty()) listOf() else userRepository.findAllDetailsByIdIn(ids)
+
+        return Completion(sortedMatches(users, key.prefix), isComplete = matches.all { it.size <= MAX_CANDIDATES })
+    }
+
+    private fun completeFromDatabase(key: Key): List<UserDetailsDto> {
+        val escaped = key.prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_")
+        val users = userRepository.findAllDetailsByNameStartingWith(
+            escaped, key.universityId, PageRequest.of(0, MAX_CANDIDATES + 1)
+        )
+        return sortedMatches(users, key.prefix)
+    }
+
+    /**
+     * Keeps the users whose name or nickname starts with [prefix], ordered by the matching value.
+     */
+    private fun sortedMatches(users: List<UserDetailsDto>, prefix: String): List<UserDetailsDto> =
+        users.mapNotNull { user ->
+            listOfNotNull(user.name?.lowercase(), user.nickname?.lowercase())
+                .filter { it.startsWith(prefix) }
+                .minOrNull()
+                ?.let { it to user }
+        }
+            .sortedWith(compareBy({ it.first }, { it.second.id }))
+            .map { it.second }
+
+    private data class Key(val prefix: String, val universityId: Long?)
+
+    private class Completion(val users: List<UserDetailsDto>, val isComplete: Boolean)
+
+    companion object {
+        private const val MAX_CANDIDATES = 100
+        private const val MAX_CACHED_COMPLETIONS = 10_000L
+        private val COMPLETION_TTL = Duration.ofSeconds(30)
+    }
+}
@@ -0,0 +1,133 @@
+package com.eirsteir.coffeewithme.social.service.coffeebreak
+
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.ScheduledTimer
+import com.eirsteir.coffeewithme.social.repository.ScheduledTimerRepository
+import com.eirsteir.coffeewithme.social.scheduling.HashedTimingWheel
+import com.eirsteir.coffeewithme.social.service.afterCommit
+import io.eventuate.tram.events.publisher.DomainEventPublisher
+import mu.KotlinLogging
+import org.springframework.boot.ApplicationArguments
+import org.springframework.boot.ApplicationRunner
+import org.springframework.data.domain.PageRequest
+import org.springframework.scheduling.annotation.Scheduled
+import org.springframework.transaction.support.TransactionOperations
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.util.*
+import java.util.concurrent.Executor
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Publishes a reminder [reminderLead] before each coffee break starts, and its expiry when it
+ * starts. The timers are kept on a [HashedTimingWheel] of the node creating them and stored as
+ * [ScheduledTimer] rows, which are put back on the wheel when the application starts. Every
+ * node also polls for rows past due, so a timer held only by a node that went down fires
+ * within a poll interval, without waiting for a restart.
+ *
+ * A timer fires by deleting its row and publishing its event in one transaction, on
+ * [executor] rather than the wheel's thread. The delete claims the timer: when several nodes
+ * fire the same timer only the one deleting the row publishes, and the others wait for its
+ * transaction and then delete nothing. A timer failing to fire is put back on the wheel with
+ * an exponential backoff, and stays stored until it fires.
+ *
+ * A reminder is stale once its coffee break has started, which happens when the application
+ * was down or a retry ran late. Stale reminders are deleted without being published, so the
+ * coffee break only expires.
+ */
+class CoffeeBreakScheduler(
+    private val timingWheel: HashedTimingWheel,
+    private val scheduledTimerRepository: ScheduledTimerRepository,
+    private val domainEventPublisher: DomainEventPublisher,
+    private val transactionOperations: TransactionOperations,
+    private val executor: Executor,
+    private val reminderLead: Duration,
+    private val clock: Clock = Clock.systemUTC()
+) : ApplicationRunner {
+
+    override fun run(args: ApplicationArguments?) {
+        val (stale, timers) = scheduledTimerRepository.findAll().partition { isStale(it) }
+        if (stale.isNotEmpty())
+            scheduledTimerRepository.deleteInBatch(stale)
+
+        timers.forEach { add(it) }
+        logger.info("[x] Scheduled {} stored coffee break timers, dropped {} stale reminders", timers.size, stale.size)
+    }
+
+    /**
+     * Fires the timers past due on any node, oldest first.
+     */
+    @Scheduled(
+        initialDelayString = "\${social.coffee-break.timer.poll-ms:30000}",
+        fixedDelayString = "\${social.coffee-break.timer.poll-ms:30000}"
+    )
+    fun pollDue() {
+        val due = scheduledTimerRepository.findByFireAtLessThanEqualOrderByFireAt(
+            Date.from(clock.instant()), PageRequest.of(0, POLL_BATCH_SIZE)
+        )
+        if (due.isNotEmpty())
+            logger.debug("[x] Firing {} coffee break timers past due", due.size)
+        due.forEach { executor.execute { fire(it, 0) } }
+    }
+
+    /**
+     * Stores the reminder and expiry of the coffee break starting at [startsAt], and puts them
+     * on the wheel once the surrounding transaction commits. There is no reminder when the
+     * coffee break starts within [reminderLead].
+     */
+    fun schedule(coffeeBreakId: Long, startsAt: Instant) {
+        val remindAt = startsAt.minus(reminderLead)
+        val timers = listOfNotNull(
+            ScheduledTimer(coffeeBreakId = coffeeBreakId, type = ScheduledTimer.Type.REMINDER, fireAt = Date.from(remindAt))
+                .takeIf { remindAt.isAfter(clock.instant()) },
+            ScheduledTimer(coffeeBreakId = coffeeBreakId, type = ScheduledTimer.Type.EXPIRY, fireAt = Date.from(startsAt))
+        )
+
+        val stored = scheduledTimerRepository.saveAll(timers)
+        afterCommit { stored.forEach { add(it) } }
+    }
+
+    private fun add(timer: ScheduledTimer, attempt: Int = 0) {
+        val delay =
+            if (attempt == 0) Duration.between(clock.instant(), timer.fireAt!!.toInstant())
+            else backoff(attempt)
+        timingWheel.schedule(delay) { executor.execute { fire(timer, attempt) } }
+    }
+
+    private fun fire(timer: ScheduledTimer, attempt: Int) {
+        try {
+            transactionOperations.executeWithoutResult {
+                if (scheduledTimerRepository.deleteFired(timer.id!!) == 0)
+                    return@executeWithoutResult
+
+                if (isStale(timer)) {
+                    logger.debug("[x] Dropping stale {}", timer)
+                    return@executeWithoutResult
+                }
+
+                logger.debug("[x] Firing {}", timer)
+                domainEventPublisher.publish(CoffeeBreak::class.java, timer.coffeeBreakId!!, listOf(timer.toEvent()))
+            }
+        } catch (e: Exception) {
+            logger.error(e) { "[x] Failed to fire $timer, retrying in ${backoff(attempt + 1)}" }
+            add(timer, attempt + 1)
+        }
+    }
+
+    private fun isStale(timer: ScheduledTimer) =
+        timer.type == ScheduledTimer.Type.REMINDER
+                && !timer.fireAt!!.toInstant().plus(reminderLead).isAfter(clock.instant())
+
+    private fun backoff(attempt: Int): Duration =
+        INITIAL_BACKOFF.multipliedBy(1L shl (attempt - 1).coerceAtMost(MAX_BACKOFF_DOUBLINGS))
+            .coerceAtMost(MAX_BACKOFF)
+
+    companion object {
+        private const val POLL_BATCH_SIZE = 500
+        private const val MAX_BACKOFF_DOUBLINGS = 10
+        private val INITIAL_BACKOFF = Duration.ofSeconds(5)
+        private val MAX_BACKOFF = Duration.ofMinutes(5)
+    }
+}
@@ -3,9 +3,45 @@ package com.eirsteir.coffeewithme.social.service.coffeebreak
 import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.web.request.CoffeeBreakRequest
+import java.time.Duration
+import java.time.LocalDateTime
+import java.util.*
 
 interface CoffeeBreakService {
     fun registerCoffeeBreak(
         coffeeBreakRequest: CoffeeBreakRequest, currentUser: UserDetailsImpl
     ): CoffeeBreakDetails
-}
\ No newline at end of file
+
+    /**
+     * Lists the coffee breaks at the campus that the user requested or is invited to, scheduled
+     * from [from], by default now, until [to], by default [DEFAULT_WINDOW] later.
+     *
+     * @throws IllegalArgumentException when [to] is not after [from] or more than [MAX_WINDOW] later
+     */
+    fun findCoffeeBreaksAtCampus(
+        userId: Long, campusId: Long, from: LocalDateTime?, to: LocalDateTime?, limit: Int
+    ): List<CoffeeBreakDetails>
+
+    /**
+     * Lists the coffee breaks the user is invited to, scheduled from [from], by default now,
+     * until [to], by default [DEFAULT_WINDOW] later.
+     *
+     * @throws IllegalArgumentException when [to] is not after [from] or more than [MAX_WINDOW] later
+     */
+    fun findCoffeeBreaksInvitedTo(
+        userId: Long, from: LocalDateTime?, to: LocalDateTime?, limit: Int
+    ): List<CoffeeBreakDetails>
+
+    /**
+     * Lists the coffee breaks at the campus starting within [within] that the user requested or
+     * is invited to, from the in-memory index.
+     */
+    fun findUpcomingCoffeeBreaksAtCampus(userId: Long, campusId: Long, within: Duration): List<CoffeeBreakDetails>
+
+    fun findUpcomingCoffeeBreaksCreatedSince(createdSince: Date): List<CoffeeBreakDetails>
+
+    companion object {
+        val DEFAULT_WINDOW: Duration = Duration.ofDays(1)
+        val MAX_WINDOW: Duration = Duration.ofDays(31)
+    }
+}
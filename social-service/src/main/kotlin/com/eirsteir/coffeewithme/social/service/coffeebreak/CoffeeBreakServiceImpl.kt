@@ -1,22 +1,30 @@
 package com.eirsteir.coffeewithme.social.service.coffeebreak
 
 import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
 import com.eirsteir.coffeewithme.commons.exception.APIException
 import com.eirsteir.coffeewithme.commons.exception.EntityType
 import com.eirsteir.coffeewithme.commons.exception.ExceptionType
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.Invitation
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
 import com.eirsteir.coffeewithme.social.repository.CampusRepository
 import com.eirsteir.coffeewithme.social.repository.CoffeeBreakRepository
 import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.service.afterCommit
 import com.eirsteir.coffeewithme.social.web.request.CoffeeBreakRequest
 import io.eventuate.tram.events.publisher.DomainEventPublisher
 import io.eventuate.tram.events.publisher.ResultWithEvents
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
+import org.springframework.data.domain.PageRequest
 import org.springframework.stereotype.Service
-import java.time.LocalTime
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.util.*
 import javax.transaction.Transactional
 
 private val logger = KotlinLogging.logger {  }
@@ -29,40 +37,121 @@ class CoffeeBreakServiceImpl(
     private val coffeeBreakRepository: CoffeeBreakRepository,
     private val userRepository: UserRepository,
     private val campusRepository: CampusRepository,
-    private val modelMapper: ModelMapper
+    private val friendGraph: FriendGraph,
+    private val coffeeBreakScheduler: CoffeeBreakScheduler,
+    private val upcomingCoffeeBreaks: UpcomingCoffeeBreaks,
+    private val clock: Clock = Clock.systemDefaultZone()
 ) : CoffeeBreakService {
 
     override fun registerCoffeeBreak(
         coffeeBreakRequest: CoffeeBreakRequest, currentUser: UserDetailsImpl
     ): CoffeeBreakDetails {
-        var coffeeBreak: CoffeeBreak = createCoffeeBreak(coffeeBreakRequest, currentUser.id)
+        val addressees = findAddressees(currentUser.id)
+        val startsAt = clock.instant().plus(Duration.ofMinutes(coffeeBreakRequest.scheduledToInMinutes))
+        var coffeeBreak: CoffeeBreak = createCoffeeBreak(coffeeBreakRequest, currentUser.id, addressees, startsAt)
         coffeeBreak = coffeeBreakRepository.save(coffeeBreak)
+        coffeeBreakScheduler.schedule(coffeeBreak.id!!, startsAt)
         logger.info("[x] Registered coffee break: {}", coffeeBreak)
 
         // TODO: 29.05.2020 notify addressees
-        val coffeeBreakDetails: CoffeeBreakDetails = getCoffeeBreakDetails(coffeeBreak)
+        val coffeeBreakDetails: CoffeeBreakDetails = coffeeBreak.toCoffeeBreakDetails(addressees)
         val coffeeBreakWithEvents = CoffeeBreak.createCoffeeBreak(coffeeBreakDetails)
         publish(coffeeBreakWithEvents)
+        afterCommit { upcomingCoffeeBreaks.put(coffeeBreakDetails) }
 
-        return modelMapper.map(coffeeBreak, CoffeeBreakDetails::class.java)
+        return coffeeBreakDetails
     }
 
-    private fun createCoffeeBreak(coffeeBreakRequest: CoffeeBreakRequest, currentUserId: Long): CoffeeBreak {
+    override fun findCoffeeBreaksAtCampus(
+        userId: Long, campusId: Long, from: LocalDateTime?, to: LocalDateTime?, limit: Int
+    ): List<CoffeeBreakDetails> {
+        val (start, end) = rangeOf(from, to)
+        return toCoffeeBreakDetails(
+            coffeeBreakRepository.findScheduledAtCampus(userId, campusId, start, end, PageRequest.of(0, limit))
+        )
+    }
+
+    override fun findCoffeeBreaksInvitedTo(
+        userId: Long, from: LocalDateTime?, to: LocalDateTime?, limit: Int
+    ): List<CoffeeBreakDetails> {
+        val (start, end) = rangeOf(from, to)
+        return toCoffeeBreakDetails(coffeeBreakRepository.findInvitedTo(userId, start, end, PageRequest.of(0, limit)))
+    }
+
+    override fun findUpcomingCoffeeBreaksAtCampus(
+        userId: Long, campusId: Long, within: Duration
+    ): List<CoffeeBreakDetails> =
+        upcomingCoffeeBreaks.scheduledAt(campusId, within)
+            .filter { coffeeBreak -> coffeeBreak.requester.id == userId || coffeeBreak.addressees.any { it.id == userId } }
+
+    override fun findUpcomingCoffeeBreaksCreatedSince(createdSince: Date): List<CoffeeBreakDetails> =
+        toCoffeeBreakDetails(
+            coffeeBreakRepository.findScheduledFromCreatedSince(LocalDateTime.now(clock), createdSince)
+        )
+
+    /**
+     * Resolves the requested range against [clock], the same clock the upcoming coffee breaks
+     * are bucketed by.
+     */
+    private fun rangeOf(from: LocalDateTime?, to: LocalDateTime?): Pair<LocalDateTime, LocalDateTime> {
+        val start = from ?: LocalDateTime.now(clock)
+        val end = to ?: start.plus(CoffeeBreakService.DEFAULT_WINDOW)
+        require(end.isAfter(start) && Duration.between(start, end) <= CoffeeBreakService.MAX_WINDOW) {
+            "To must be after from and at most ${CoffeeBreakService.MAX_WINDOW.toDays()} days later"
+        }
+        return start to end
+    }
+
+    /**
+     * Reads the addressees of all the coffee breaks in two statements, rather than loading the
+     * invitations of each.
+     */
+    private fun toCoffeeBreakDetails(coffeeBreaks: List<CoffeeBreak>): List<CoffeeBreakDetails> {
+        if (coffeeBreaks.isEmpty())
+            return listOf()
+
+        val addresseeIds = coffeeBreakRepository.findAddressees(coffeeBreaks.map { it.id!! })
+            .groupBy({ it.getCoffeeBreakId() }, { it.getAddresseeId() })
+        val addressees = addresseeIds.values.flatten().toSet()
+            .takeIf { it.isNotEmpty() }
+            ?.let { ids -> userRepository.findAllUserDetailsByIdIn(ids).associateBy { it.id } }
+            ?: mapOf()
+
+        return coffeeBreaks.map { coffeeBreak ->
+            coffeeBreak.toCoffeeBreakDetails(
+                addresseeIds[coffeeBreak.id!!].orEmpty().mapNotNullTo(HashSet()) { addressees[it] }
+            )
+        }
+    }
+
+    /**
+     * Resolves the friends at the requester's university from the friend graph, and reads only
+     * their display fields.
+     */
+    private fun findAddressees(currentUserId: Long): Set<UserDetails> {
+        val friendIds = friendGraph.friendsAtUniversity(currentUserId)
+        if (friendIds.isEmpty())
+            return setOf()
+        return userRepository.findAllUserDetailsByIdIn(friendIds.asList()).toSet()
+    }
+
+    private fun createCoffeeBreak(
+        coffeeBreakRequest: CoffeeBreakRequest, currentUserId: Long, addressees: Set<UserDetails>, startsAt: Instant
+    ): CoffeeBreak {
         val requester = getUser(currentUserId)
-        val addressees = requester.getFiendsAtUniversity()
-        val campus = campusRepository.findById(coffeeBreakRequest.campusId).orElse(null)
-        val scheduledTo = getScheduledToFromNow(coffeeBreakRequest.scheduledToInMinutes)
+        val campus = campusRepository.findById(coffeeBreakRequest.campusId)
+            .orElseThrow {
+                APIException.of(EntityType.CAMPUS, ExceptionType.ENTITY_NOT_FOUND, coffeeBreakRequest.campusId.toString())
+            }
+        val scheduledTo = LocalDateTime.ofInstant(startsAt, clock.zone)
 
         return CoffeeBreak(
             requester = requester,
-            addressees = addressees,
+            invitations = addressees.mapTo(HashSet(addressees.size)) { Invitation(it.id, scheduledTo) },
             campus = campus,
             scheduledTo = scheduledTo)
     }
 
-    private fun getCoffeeBreakDetails(coffeeBreak: CoffeeBreak): CoffeeBreakDetails =
-        modelMapper.map(coffeeBreak, CoffeeBreakDetails::class.java)
-
     private fun getUser(userId: Long): User =
         userRepository.findById(userId)
             .orElseThrow {
@@ -73,9 +162,6 @@ class CoffeeBreakServiceImpl(
                 )
             }
 
-    private fun getScheduledToFromNow(scheduledToInMinutes: Long): LocalTime =
-        LocalTime.now().plusMinutes(scheduledToInMinutes)
-
     private fun publish(coffeeBreakWithEvents: ResultWithEvents<CoffeeBreakDetails>) {
         logger.info("[x] Publishing {} to {}", coffeeBreakWithEvents, CoffeeBreak::class.java)
         domainEventPublisher.publish(
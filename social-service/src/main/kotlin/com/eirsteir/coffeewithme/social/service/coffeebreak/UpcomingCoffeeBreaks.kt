@@ -0,0 +1,95 @@
+package com.eirsteir.coffeewithme.social.service.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
+import java.time.Clock
+import java.time.Duration
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * In-memory index of the coffee breaks not yet started at each campus, in buckets of
+ * [bucketDuration] by the time they are scheduled to. Lists the breaks happening soon at a
+ * campus by reading only the buckets in range, and [expire] drops whole buckets once passed.
+ *
+ * Breaks are keyed by id within their bucket, so putting a break again replaces it.
+ */
+class UpcomingCoffeeBreaks(
+    private val bucketDuration: Duration,
+    private val clock: Clock = Clock.systemDefaultZone()
+) {
+
+    private val campuses = ConcurrentHashMap<Long, CampusBreaks>()
+
+    init {
+        require(bucketDuration.seconds > 0) { "Bucket duration must be at least a second: $bucketDuration" }
+    }
+
+    val size: Int
+        get() = campuses.values.sumOf { it.size }
+
+    /**
+     * Adds the coffee break unless it has already started or has no campus.
+     */
+    fun put(coffeeBreak: CoffeeBreakDetails) {
+        val campusId = coffeeBreak.campus.id ?: return
+        if (coffeeBreak.scheduledTo.isBefore(LocalDateTime.now(clock)))
+            return
+        campuses.computeIfAbsent(campusId) { CampusBreaks() }.put(coffeeBreak)
+    }
+
+    /**
+     * Returns the coffee breaks at the campus starting within [within] from now, in time order.
+     */
+    fun scheduledAt(campusId: Long, within: Duration): List<CoffeeBreakDetails> {
+        val from = LocalDateTime.now(clock)
+        return campuses[campusId]?.scheduledBetween(from, from.plus(within)) ?: listOf()
+    }
+
+    /**
+     * Drops the buckets that have passed, returning how many coffee breaks were dropped.
+     */
+    fun expire(): Int {
+        val now = LocalDateTime.now(clock)
+        return campuses.values.sumOf { it.expire(now) }
+    }
+
+    private fun bucketOf(scheduledTo: LocalDateTime) =
+        scheduledTo.toEpochSecond(ZoneOffset.UTC) / bucketDuration.seconds
+
+    private inner class CampusBreaks {
+        private val buckets = TreeMap<Long, HashMap<Long, CoffeeBreakDetails>>()
+
+        @get:Synchronized
+        var size = 0
+            private set
+
+        @Synchronized
+        fun put(coffeeBreak: CoffeeBreakDetails) {
+            val bucket = buckets.getOrPut(bucketOf(coffeeBreak.scheduledTo)) { HashMap() }
+            if (bucket.put(coffeeBreak.id!!, coffeeBreak) == null)
+                size++
+        }
+
+        @Synchronized
+        fun scheduledBetween(from: LocalDateTime, to: LocalDateTime): List<CoffeeBreakDetails> =
+            buckets.subMap(bucketOf(from), true, bucketOf(to), true).values
+                .flatMap { it.values }
+                .filter { !it.scheduledTo.isBefore(from) && !it.scheduledTo.isAfter(to) }
+                .sortedWith(compareBy({ it.scheduledTo }, { it.id }))
+
+        /**
+         * Drops the buckets ending at or before [now]. Breaks started within the current bucket
+         * are left to the next call, and filtered out of listings until then.
+         */
+        @Synchronized
+        fun expire(now: LocalDateTime): Int {
+            val passed = buckets.headMap(bucketOf(now))
+            val expired = passed.values.sumOf { it.size }
+            passed.clear()
+            size -= expired
+            return expired
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.eirsteir.coffeewithme.social.service.coffeebreak
+
+import mu.KotlinLogging
+import org.springframework.boot.ApplicationArguments
+import org.springframework.boot.ApplicationRunner
+import org.springframework.scheduling.annotation.Scheduled
+import java.util.*
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Fills the [UpcomingCoffeeBreaks] with the coffee breaks not yet started when the application
+ * starts. Breaks registered here are added as they commit, and the breaks registered by other
+ * nodes are picked up by periodically reading those created since the previous refresh.
+ */
+class UpcomingCoffeeBreaksLoader(
+    private val upcomingCoffeeBreaks: UpcomingCoffeeBreaks,
+    private val coffeeBreakService: CoffeeBreakService,
+    private val refreshIntervalMs: Long
+) : ApplicationRunner {
+
+    @Volatile
+    private var refreshedAt: Long? = null
+
+    override fun run(args: ApplicationArguments?) {
+        val started = System.currentTimeMillis()
+        val coffeeBreaks = coffeeBreakService.findUpcomingCoffeeBreaksCreatedSince(Date(0))
+        coffeeBreaks.forEach { upcomingCoffeeBreaks.put(it) }
+        refreshedAt = started
+
+        logger.info("[x] Loaded {} upcoming coffee breaks in {} ms", coffeeBreaks.size, System.currentTimeMillis() - started)
+    }
+
+    /**
+     * Adds the coffee breaks created since shortly before the previous refresh, overlapping it
+     * by one interval to allow for transactions still committing then, and drops those started.
+     */
+    @Scheduled(
+        initialDelayString = "\${social.coffee-break.upcoming.refresh-ms:30000}",
+        fixedDelayString = "\${social.coffee-break.upcoming.refresh-ms:30000}"
+    )
+    fun refresh() {
+        val previous = refreshedAt ?: return
+        val started = System.currentTimeMillis()
+        coffeeBreakService.findUpcomingCoffeeBreaksCreatedSince(Date(previous - refreshIntervalMs))
+            .forEach { upcomingCoffeeBreaks.put(it) }
+        refreshedAt = started
+
+        val expired = upcomingCoffeeBreaks.expire()
+        logger.debug("[x] Refreshed upcoming coffee breaks, {} expired, {} upcoming", expired, upcomingCoffeeBreaks.size)
+    }
+}
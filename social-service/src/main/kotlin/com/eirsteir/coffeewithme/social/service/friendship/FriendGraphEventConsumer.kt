@@ -0,0 +1,57 @@
+package com.eirsteir.coffeewithme.social.service.friendship
+
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipChangedEvent
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.UserUniversityChangedEvent
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import io.eventuate.tram.events.subscriber.DomainEventEnvelope
+import io.eventuate.tram.events.subscriber.DomainEventHandlers
+import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
+import mu.KotlinLogging
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Applies the friendship and university changes committed by any node to the [FriendGraph] of
+ * this node. It is subscribed under an id of its own per node, so every node receives every
+ * change, including the node that made it and has already applied it.
+ */
+class FriendGraphEventConsumer(private val friendGraph: FriendGraph) {
+
+    fun domainEventHandlers(): DomainEventHandlers {
+        return DomainEventHandlersBuilder.forAggregateType(Friendship::class.java.name)
+            .onEvent(
+                FriendshipChangedEvent::class.java
+            ) { domainEventEnvelope: DomainEventEnvelope<FriendshipChangedEvent> ->
+                handleFriendshipChangedEvent(domainEventEnvelope)
+            }
+            .andForAggregateType(User::class.java.name)
+            .onEvent(
+                UserUniversityChangedEvent::class.java
+            ) { domainEventEnvelope: DomainEventEnvelope<UserUniversityChangedEvent> ->
+                handleUserUniversityChangedEvent(domainEventEnvelope)
+            }
+            .build()
+    }
+
+    private fun handleFriendshipChangedEvent(domainEventEnvelope: DomainEventEnvelope<FriendshipChangedEvent>) {
+        val friendshipChangedEvent = domainEventEnvelope.event
+        val requesterId = friendshipChangedEvent.requesterId
+        val addresseeId = friendshipChangedEvent.addresseeId
+        val status = friendshipChangedEvent.status
+
+        logger.debug("[x] Changing friendship from {} to {} in the friend graph to {}", requesterId, addresseeId, status)
+        if (status == null)
+            friendGraph.removeEdge(requesterId, addresseeId)
+        else
+            friendGraph.putEdge(requesterId, addresseeId, status)
+    }
+
+    private fun handleUserUniversityChangedEvent(domainEventEnvelope: DomainEventEnvelope<UserUniversityChangedEvent>) {
+        val userUniversityChangedEvent = domainEventEnvelope.event
+
+        logger.debug("[x] Changing university of user {} in the friend graph", userUniversityChangedEvent.userId)
+        friendGraph.putUniversity(userUniversityChangedEvent.userId, userUniversityChangedEvent.universityId)
+    }
+}
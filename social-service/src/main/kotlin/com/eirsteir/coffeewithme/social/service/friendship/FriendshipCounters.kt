@@ -0,0 +1,124 @@
+package com.eirsteir.coffeewithme.social.service.friendship
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipCounter
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.dto.FriendshipCounts
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.FriendshipCounterRepository
+import com.eirsteir.coffeewithme.social.service.afterCommit
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import java.time.Duration
+
+/**
+ * Per-user friendship counters. Changes are written to the [FriendshipCounter] table in the
+ * caller's transaction, after the friendship itself, and evict the user's cached counts once it
+ * commits. Cached counts expire after [expireAfterWrite], which bounds how long a change
+ * committed on another node goes unseen.
+ */
+class FriendshipCounters(
+    private val counterRepository: FriendshipCounterRepository,
+    private val friendGraph: FriendGraph,
+    maxCachedUsers: Long = DEFAULT_MAX_CACHED_USERS,
+    expireAfterWrite: Duration = DEFAULT_EXPIRE_AFTER_WRITE
+) {
+
+    private val counts: Cache<Long, FriendshipCounts> = Caffeine.newBuilder()
+        .maximumSize(maxCachedUsers)
+        .expireAfterWrite(expireAfterWrite)
+        .build()
+
+    /**
+     * Loads inside the cache's atomic computation, so an eviction from a commit that lands while
+     * the row is being read waits for the load and then discards it.
+     */
+    fun countsOf(userId: Long): FriendshipCounts = counts.get(userId) { load(it) }!!
+
+    fun friendshipAdded(requesterId: Long, addresseeId: Long, status: FriendshipStatus) =
+        adjust(requesterId, addresseeId, null, status)
+
+    fun friendshipRemoved(requesterId: Long, addresseeId: Long, status: FriendshipStatus) =
+        adjust(requesterId, addresseeId, status, null)
+
+    fun statusChanged(
+        requesterId: Long, addresseeId: Long, oldStatus: FriendshipStatus, newStatus: FriendshipStatus
+    ) = adjust(requesterId, addresseeId, oldStatus, newStatus)
+
+    /**
+     * Counts friend requests from [requesterId] to each of [addresseeIds] with one update per side.
+     */
+    fun friendRequestsAdded(requesterId: Long, addresseeIds: Collection<Long>) {
+        if (addresseeIds.isEmpty())
+            return
+        increment(requesterId, outgoingRequests = addresseeIds.size)
+        incrementAll(addresseeIds, incomingRequests = 1)
+    }
+
+    /**
+     * Counts the friend requests from each of [requesterIds] to [addresseeId] leaving the
+     * requested state for [status], with one update per side.
+     */
+    fun friendRequestsAnswered(addresseeId: Long, requesterIds: Collection<Long>, status: FriendshipStatus) {
+        if (requesterIds.isEmpty())
+            return
+        val friends = if (status == FriendshipStatus.ACCEPTED) 1 else 0
+        increment(addresseeId, friends = friends * requesterIds.size, incomingRequests = -requesterIds.size)
+        incrementAll(requesterIds, friends = friends, outgoingRequests = -1)
+    }
+
+    fun evictAll() = counts.invalidateAll()
+
+    /**
+     * Counts the friendship between [requesterId] and [addresseeId] going from [oldStatus] to
+     * [newStatus], with one update per user so a counter created by the first is not adjusted again.
+     */
+    private fun adjust(
+        requesterId: Long, addresseeId: Long, oldStatus: FriendshipStatus?, newStatus: FriendshipStatus?
+    ) {
+        val friends = countOf(newStatus, FriendshipStatus.ACCEPTED) - countOf(oldStatus, FriendshipStatus.ACCEPTED)
+        val requests = countOf(newStatus, FriendshipStatus.REQUESTED) - countOf(oldStatus, FriendshipStatus.REQUESTED)
+        if (friends == 0 && requests == 0)
+            return
+
+        increment(requesterId, friends = friends, outgoingRequests = requests)
+        increment(addresseeId, friends = friends, incomingRequests = requests)
+    }
+
+    private fun countOf(status: FriendshipStatus?, counted: FriendshipStatus) = if (status == counted) 1 else 0
+
+    private fun increment(userId: Long, friends: Int = 0, incomingRequests: Int = 0, outgoingRequests: Int = 0) =
+        incrementAll(listOf(userId), friends, incomingRequests, outgoingRequests)
+
+    private fun incrementAll(
+        userIds: Collection<Long>, friends: Int = 0, incomingRequests: Int = 0, outgoingRequests: Int = 0
+    ) {
+        counterRepository.incrementAll(userIds, friends, incomingRequests, outgoingRequests)
+        afterCommit { counts.invalidateAll(userIds) }
+    }
+
+    /**
+     * Users without a counter row are counted from the graph without writing one; the row is
+     * created from the friendship table by the first change to their counts.
+     */
+    private fun load(userId: Long): FriendshipCounts =
+        counterRepository.findById(userId)
+            .map {
+                FriendshipCounts(
+                    friends = it.friendsCount,
+                    incomingRequests = it.incomingRequestsCount,
+                    outgoingRequests = it.outgoingRequestsCount
+                )
+            }
+            .orElseGet {
+                FriendshipCounts(
+                    friends = friendGraph.friendsOf(userId).size,
+                    incomingRequests = friendGraph.incomingRequestsOf(userId).size,
+                    outgoingRequests = friendGraph.outgoingRequestsOf(userId).size
+                )
+            }
+
+    companion object {
+        private const val DEFAULT_MAX_CACHED_USERS = 50_000L
+        private val DEFAULT_EXPIRE_AFTER_WRITE = Duration.ofSeconds(30)
+    }
+}
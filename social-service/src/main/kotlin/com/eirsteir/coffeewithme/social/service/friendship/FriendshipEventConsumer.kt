@@ -0,0 +1,37 @@
+package com.eirsteir.coffeewithme.social.service.friendship
+
+import com.eirsteir.coffeewithme.commons.domain.friendship.FriendRequestEvent
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.graph.FriendshipFilter
+import io.eventuate.tram.events.subscriber.DomainEventEnvelope
+import io.eventuate.tram.events.subscriber.DomainEventHandlers
+import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
+import mu.KotlinLogging
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Puts the friendships registered by any node into the [FriendshipFilter] of this node. It is
+ * subscribed under an id of its own per node, so every node receives every friend request.
+ */
+class FriendshipEventConsumer(private val friendshipFilter: FriendshipFilter) {
+
+    fun domainEventHandlers(): DomainEventHandlers {
+        return DomainEventHandlersBuilder.forAggregateType(Friendship::class.java.name)
+            .onEvent(
+                FriendRequestEvent::class.java
+            ) { domainEventEnvelope: DomainEventEnvelope<FriendRequestEvent> ->
+                handleFriendRequestEvent(domainEventEnvelope)
+            }
+            .build()
+    }
+
+    private fun handleFriendRequestEvent(domainEventEnvelope: DomainEventEnvelope<FriendRequestEvent>) {
+        val friendRequestEvent = domainEventEnvelope.event
+        val requesterId = friendRequestEvent.user!!.id
+        val addresseeId = friendRequestEvent.subjectId!!
+
+        logger.debug("[x] Adding friend request from {} to {} to the friendship filter", requesterId, addresseeId)
+        friendshipFilter.put(requesterId, addresseeId)
+    }
+}
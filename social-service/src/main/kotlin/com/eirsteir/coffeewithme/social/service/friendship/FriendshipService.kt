@@ -4,23 +4,38 @@ import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipId
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.dto.FriendshipCounts
+import com.eirsteir.coffeewithme.social.dto.FriendshipCursor
 import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.FriendshipPage
+import com.eirsteir.coffeewithme.social.dto.FriendRequestResult
+import com.eirsteir.coffeewithme.social.dto.FriendshipUpdateResult
 import com.eirsteir.coffeewithme.social.web.request.FriendRequest
 
 interface FriendshipService {
 
     fun findFriendshipsOf(id: Long, status: FriendshipStatus): List<FriendshipDto>
 
+    fun findFriendshipPage(
+        userId: Long, status: FriendshipStatus, cursor: FriendshipCursor?, limit: Int
+    ): FriendshipPage
+
     fun findFriendshipsAtUniversity(user: User): List<FriendshipDto>
 
     fun registerFriendship(friendRequest: FriendRequest): FriendshipDto
 
+    fun registerFriendships(requesterId: Long, addresseeIds: List<Long>): List<FriendRequestResult>
+
     fun friendshipExists(friendshipId: FriendshipId): Boolean
 
     fun removeFriendship(friendshipDto: FriendshipDto)
 
     fun updateFriendship(friendshipDto: FriendshipDto): FriendshipDto
 
+    fun updateFriendRequests(
+        addresseeId: Long, requesterIds: List<Long>, status: FriendshipStatus
+    ): List<FriendshipUpdateResult>
+
     fun findFriendshipsOf(user: UserDetailsDto): List<FriendshipDto>
 
     fun findAllFriendshipsWithStatus(
@@ -29,4 +44,6 @@ interface FriendshipService {
     ): List<FriendshipDto>
 
     fun getFriendsCount(userId: Long): Int
+
+    fun getFriendshipCounts(userId: Long): FriendshipCounts
 }
\ No newline at end of file
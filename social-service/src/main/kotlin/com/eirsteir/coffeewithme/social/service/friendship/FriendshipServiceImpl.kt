@@ -1,23 +1,39 @@
 package com.eirsteir.coffeewithme.social.service.friendship
 
+import com.eirsteir.coffeewithme.commons.domain.friendship.FriendRequestAcceptedEvent
+import com.eirsteir.coffeewithme.commons.domain.friendship.FriendRequestEvent
 import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.commons.exception.APIException
 import com.eirsteir.coffeewithme.commons.exception.EntityType
 import com.eirsteir.coffeewithme.commons.exception.ExceptionType
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipChangedEvent
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipId
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipRemoval
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
 import com.eirsteir.coffeewithme.social.domain.user.User
 import com.eirsteir.coffeewithme.social.domain.user.toUserDetails
+import com.eirsteir.coffeewithme.social.dto.FriendshipCursor
 import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.FriendshipPage
+import com.eirsteir.coffeewithme.social.dto.FriendRequestResult
+import com.eirsteir.coffeewithme.social.dto.FriendRequestResult.Outcome
+import com.eirsteir.coffeewithme.social.dto.FriendshipUpdateResult
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.graph.FriendshipFilter
+import com.eirsteir.coffeewithme.social.repository.FriendshipRemovalRepository
 import com.eirsteir.coffeewithme.social.repository.FriendshipRepository
+import com.eirsteir.coffeewithme.social.service.afterCommit
 import com.eirsteir.coffeewithme.social.service.user.UserService
 import com.eirsteir.coffeewithme.social.web.request.FriendRequest
 import io.eventuate.tram.events.publisher.DomainEventPublisher
 import io.eventuate.tram.events.publisher.ResultWithEvents
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.data.domain.PageRequest
 import org.springframework.stereotype.Service
+import java.util.*
 import javax.transaction.Transactional
 
 private val logger = KotlinLogging.logger {  }
@@ -28,27 +44,88 @@ class FriendshipServiceImpl(
     private val domainEventPublisher: DomainEventPublisher,
     private val userService: UserService,
     private val friendshipRepository: FriendshipRepository,
-    private val modelMapper: ModelMapper,
+    private val friendshipRemovalRepository: FriendshipRemovalRepository,
+    private val friendGraph: FriendGraph,
+    private val friendshipCounters: FriendshipCounters,
+    private val friendshipFilter: FriendshipFilter,
+    private val dtoMapper: DtoMapper,
 ) : FriendshipService {
 
     override fun findFriendshipsOf(user: UserDetailsDto) =
         findAllFriendshipsWithStatus(user, FriendshipStatus.ACCEPTED)
 
     override fun findAllFriendshipsWithStatus(user: UserDetailsDto, status: FriendshipStatus) =
-        friendshipRepository.findByUserAndStatus(user.id!!, status)
-            .map { modelMapper.map(it, FriendshipDto::class.java) }
+        findFriendshipsOf(user.id!!, status)
 
-    override fun findFriendshipsOf(id: Long, status: FriendshipStatus) =
-        friendshipRepository.findByUserAndStatus(id, status)
-            .map { modelMapper.map(it, FriendshipDto::class.java) }
+    override fun findFriendshipsOf(id: Long, status: FriendshipStatus): List<FriendshipDto> {
+        val edges = friendGraph.edgesOf(id, status)
+            ?: return friendshipRepository.findByUserAndStatus(id, status)
+                .map { dtoMapper.map(it, FriendshipDto::class.java) }
 
-    override fun getFriendsCount(userId: Long)=
-        friendshipRepository.countByUserId(userId)
+        return toFriendshipDtos(edges)
+    }
+
+    /**
+     * Reads at most `limit + 1` friendships from each direction of the friendship, newest first,
+     * and merges them. The extra row tells whether there is a next page.
+     */
+    override fun findFriendshipPage(
+        userId: Long, status: FriendshipStatus, cursor: FriendshipCursor?, limit: Int
+    ): FriendshipPage {
+        val after = cursor ?: FriendshipCursor.FIRST
+        val pageable = PageRequest.of(0, limit + 1)
+        val requestedByUser = friendshipRepository.findRequestedByUserBefore(
+            userId, status, after.createdDateTime, after.otherUserId, pageable
+        )
+        val requestedOfUser = friendshipRepository.findRequestedOfUserBefore(
+            userId, status, after.createdDateTime, after.otherUserId, pageable
+        )
+
+        val friendships = (requestedByUser + requestedOfUser)
+            .sortedWith(compareByDescending<Friendship> { it.createdDateTime }.thenByDescending { otherUserId(it, userId) })
+            .take(limit + 1)
+
+        val items = friendships.take(limit)
+        val next = if (friendships.size > limit)
+            items.last().let { FriendshipCursor(it.createdDateTime!!, otherUserId(it, userId)).encode() }
+        else
+            null
+
+        return FriendshipPage(items = items.map { dtoMapper.map(it, FriendshipDto::class.java) }, next = next)
+    }
 
-    override fun findFriendshipsAtUniversity(user: User) =
-        friendshipRepository.findByUserAndStatusAndUniversity(
-            user.id!!, FriendshipStatus.ACCEPTED, user.university!!
-        ).map { modelMapper.map(it, FriendshipDto::class.java) }
+    private fun otherUserId(friendship: Friendship, userId: Long) =
+        if (friendship.requester!!.id == userId) friendship.addressee!!.id!! else friendship.requester!!.id!!
+
+    override fun getFriendsCount(userId: Long) =
+        friendshipCounters.countsOf(userId).friends
+
+    override fun getFriendshipCounts(userId: Long) =
+        friendshipCounters.countsOf(userId)
+
+    override fun findFriendshipsAtUniversity(user: User): List<FriendshipDto> {
+        val universityId = user.university!!.id
+        val edges = friendGraph.edgesOf(user.id!!, FriendshipStatus.ACCEPTED)!!
+            .filter {
+                friendGraph.universityOf(it.requesterId) == universityId
+                        && friendGraph.universityOf(it.addresseeId) == universityId
+            }
+        return toFriendshipDtos(edges)
+    }
+
+    private fun toFriendshipDtos(edges: List<FriendGraph.Edge>): List<FriendshipDto> {
+        if (edges.isEmpty())
+            return listOf()
+
+        val userIds = edges.flatMap { listOf(it.requesterId, it.addresseeId) }.distinct()
+        val users = userService.findDetailsByIdIn(userIds).associateBy { it.id!! }
+
+        return edges.mapNotNull { edge ->
+            val requester = users[edge.requesterId] ?: return@mapNotNull null
+            val addressee = users[edge.addresseeId] ?: return@mapNotNull null
+            FriendshipDto(requester = requester, addressee = addressee, status = edge.status)
+        }
+    }
 
 
     override fun registerFriendship(friendRequest: FriendRequest): FriendshipDto {
@@ -64,17 +141,84 @@ class FriendshipServiceImpl(
                 friendRequest.addresseeId.toString()
         )
 
-        val friendship = requester.addFriend(addressee, FriendshipStatus.REQUESTED)
+        friendshipFilter.put(requester.id!!, addressee.id!!)
+        val friendship = try {
+            friendshipRepository.insert(requester.addFriend(addressee, FriendshipStatus.REQUESTED))
+        } catch (e: DataIntegrityViolationException) {
+            throw APIException.of(
+                EntityType.FRIENDSHIP,
+                ExceptionType.DUPLICATE_ENTITY,
+                friendRequest.requesterId.toString(),
+                friendRequest.addresseeId.toString()
+            )
+        }
         logger.info("[x] Registered friendship: {}", friendship)
+        friendshipCounters.friendshipAdded(requester.id!!, addressee.id!!, FriendshipStatus.REQUESTED)
+        afterCommit { friendGraph.putEdge(requester.id!!, addressee.id!!, FriendshipStatus.REQUESTED) }
+        publishChanges(listOf(FriendshipChangedEvent(requester.id!!, addressee.id!!, FriendshipStatus.REQUESTED)))
 
         val user = friendship.requester!!.toUserDetails()
         publish(Friendship.createFriendRequest(friendship, user))
 
-        return modelMapper.map(friendship, FriendshipDto::class.java)
+        return dtoMapper.map(friendship, FriendshipDto::class.java)
+    }
+
+    /**
+     * Registers friend requests to several users at once. Users are resolved and existing
+     * friendships checked with one query each, the new friendships are inserted in one batch and
+     * their events published together.
+     */
+    override fun registerFriendships(requesterId: Long, addresseeIds: List<Long>): List<FriendRequestResult> {
+        val requester = userService.findUserById(requesterId)
+        val candidateIds = addresseeIds.distinct().filter { it != requesterId }
+        val addressees = userService.findByIdIn(candidateIds).associateBy { it.id!! }
+        val possiblyRelatedIds = addressees.keys.filter {
+            friendshipFilter.mightContain(requesterId, it) || friendshipFilter.mightContain(it, requesterId)
+        }
+        val relatedIds = if (possiblyRelatedIds.isEmpty())
+            setOf()
+        else
+            friendshipRepository.findRelatedUserIds(requesterId, possiblyRelatedIds).map { it.toLong() }.toSet()
+
+        val outcomes = addresseeIds.distinct().associateWith {
+            when {
+                it == requesterId -> Outcome.SELF_REQUEST
+                it !in addressees -> Outcome.USER_NOT_FOUND
+                it in relatedIds -> Outcome.ALREADY_EXISTS
+                else -> Outcome.CREATED
+            }
+        }
+
+        val createdIds = outcomes.filterValues { it == Outcome.CREATED }.keys
+        if (createdIds.isNotEmpty()) {
+            val friendships = createdIds.map {
+                Friendship(requester = requester, addressee = addressees.getValue(it), status = FriendshipStatus.REQUESTED)
+            }
+            createdIds.forEach { friendshipFilter.put(requesterId, it) }
+            friendshipRepository.insertAll(friendships)
+            friendshipCounters.friendRequestsAdded(requesterId, createdIds)
+            afterCommit { createdIds.forEach { friendGraph.putEdge(requesterId, it, FriendshipStatus.REQUESTED) } }
+            publishChanges(createdIds.map { FriendshipChangedEvent(requesterId, it, FriendshipStatus.REQUESTED) })
+
+            val user = requester.toUserDetails()
+            val events = createdIds.map { FriendRequestEvent(it, user) }
+            logger.info("[x] Publishing {} friend requests from user {}", events.size, requesterId)
+            domainEventPublisher.publish(Friendship::class.java, requesterId, events)
+        }
+
+        logger.info("[x] Registered {} of {} friend requests from user {}", createdIds.size, outcomes.size, requesterId)
+        return outcomes.map { (addresseeId, outcome) -> FriendRequestResult(addresseeId, outcome) }
     }
 
-    override fun friendshipExists(friendshipId: FriendshipId) =
-        friendshipRepository.existsById(friendshipId)
+    override fun friendshipExists(friendshipId: FriendshipId): Boolean {
+        if (!friendshipFilter.mightContain(friendshipId.requester!!.id!!, friendshipId.addressee!!.id!!))
+            return false
+
+        val exists = friendshipRepository.existsById(friendshipId)
+        if (!exists)
+            friendshipFilter.falsePositive()
+        return exists
+    }
 
     override fun removeFriendship(friendshipDto: FriendshipDto) {
         val friendship = friendshipRepository
@@ -89,6 +233,16 @@ class FriendshipServiceImpl(
                 )
             }
         friendshipRepository.delete(friendship)
+        friendshipRemovalRepository.save(
+            FriendshipRemoval(requesterId = friendshipDto.requester.id, addresseeId = friendshipDto.addressee.id)
+        )
+        friendshipCounters.friendshipRemoved(
+            friendshipDto.requester.id!!, friendshipDto.addressee.id!!, friendship.status!!
+        )
+        afterCommit { friendGraph.removeEdge(friendshipDto.requester.id!!, friendshipDto.addressee.id!!) }
+        publishChanges(
+            listOf(FriendshipChangedEvent(friendshipDto.requester.id!!, friendshipDto.addressee.id!!, null))
+        )
         logger.info("[x] Removed friendship: {}", friendshipDto)
     }
 
@@ -105,6 +259,44 @@ class FriendshipServiceImpl(
         )
     }
 
+    /**
+     * Answers many pending friend requests to [addresseeId] with one conditional update. The
+     * pending rows are locked first, so the events and counters match the rows that changed.
+     */
+    override fun updateFriendRequests(
+        addresseeId: Long, requesterIds: List<Long>, status: FriendshipStatus
+    ): List<FriendshipUpdateResult> {
+        val addressee = userService.findUserById(addresseeId)
+        val distinctIds = requesterIds.distinct()
+        val pendingIds = friendshipRepository.lockPendingRequesterIds(addresseeId, distinctIds)
+            .map { it.toLong() }
+            .toSet()
+
+        if (pendingIds.isNotEmpty()) {
+            val updated = friendshipRepository.updatePendingRequests(addresseeId, pendingIds, status, Date())
+            check(updated == pendingIds.size) { "Updated $updated of ${pendingIds.size} locked friend requests" }
+
+            friendshipCounters.friendRequestsAnswered(addresseeId, pendingIds, status)
+            afterCommit { pendingIds.forEach { friendGraph.putEdge(it, addresseeId, status) } }
+            publishChanges(pendingIds.map { FriendshipChangedEvent(it, addresseeId, status) })
+
+            if (status === FriendshipStatus.ACCEPTED) {
+                val user = addressee.toUserDetails()
+                val events = pendingIds.map { FriendRequestAcceptedEvent(it, user) }
+                logger.info("[x] Publishing {} accepted friend requests to user {}", events.size, addresseeId)
+                domainEventPublisher.publish(Friendship::class.java, addresseeId, events)
+            }
+        }
+
+        logger.info("[x] Updated {} of {} friend requests to {}", pendingIds.size, distinctIds.size, status)
+        return distinctIds.map {
+            FriendshipUpdateResult(
+                it,
+                if (it in pendingIds) FriendshipUpdateResult.Outcome.UPDATED else FriendshipUpdateResult.Outcome.NOT_PENDING
+            )
+        }
+    }
+
     private fun findFriendship(friendshipDto: FriendshipDto): Friendship {
         val requesterId = friendshipDto.requester.id!!
         val addresseeId = friendshipDto.addressee.id!!
@@ -127,8 +319,24 @@ class FriendshipServiceImpl(
     private fun updateFriendship(
         friendshipDto: FriendshipDto, friendshipToUpdate: Friendship
     ): FriendshipDto {
+        val oldStatus = friendshipToUpdate.status!!
         friendshipToUpdate.status = friendshipDto.status
         val updatedFriendship = friendshipRepository.save(friendshipToUpdate)
+        friendshipCounters.statusChanged(
+            friendshipDto.requester.id!!, friendshipDto.addressee.id!!, oldStatus, updatedFriendship.status!!
+        )
+        afterCommit {
+            friendGraph.putEdge(
+                friendshipDto.requester.id!!, friendshipDto.addressee.id!!, updatedFriendship.status!!
+            )
+        }
+        publishChanges(
+            listOf(
+                FriendshipChangedEvent(
+                    friendshipDto.requester.id!!, friendshipDto.addressee.id!!, updatedFriendship.status
+                )
+            )
+        )
 
         if (updatedFriendship.status === FriendshipStatus.ACCEPTED) {
             val addressee = updatedFriendship.addressee!!.toUserDetails()
@@ -137,9 +345,15 @@ class FriendshipServiceImpl(
         }
 
         logger.info("[x] Friendship was updated to ${friendshipDto.status}: $friendshipToUpdate")
-        return modelMapper.map(updatedFriendship, FriendshipDto::class.java)
+        return dtoMapper.map(updatedFriendship, FriendshipDto::class.java)
     }
 
+    /**
+     * Publishes [changes] for the friend graph of every node, each under the id of its pair.
+     */
+    private fun publishChanges(changes: List<FriendshipChangedEvent>) =
+        changes.forEach { domainEventPublisher.publish(Friendship::class.java, it.aggregateId(), listOf(it)) }
+
     private fun publish(friendshipWithEvents: ResultWithEvents<Friendship>) {
         logger.info("[x] Publishing {} to {}", friendshipWithEvents, Friendship::class.java)
         domainEventPublisher.publish(
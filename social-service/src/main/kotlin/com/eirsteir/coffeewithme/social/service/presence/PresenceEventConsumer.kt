@@ -0,0 +1,43 @@
+package com.eirsteir.coffeewithme.social.service.presence
+
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.UserPresenceChangedEvent
+import com.eirsteir.coffeewithme.social.presence.PresenceIndex
+import io.eventuate.tram.events.subscriber.DomainEventEnvelope
+import io.eventuate.tram.events.subscriber.DomainEventHandlers
+import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
+import mu.KotlinLogging
+import java.time.Instant
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Applies the presence heartbeats taken by any node to the [PresenceIndex] of this node. It is
+ * subscribed under an id of its own per node, so every node receives every heartbeat, including
+ * the node that took it and has already applied it.
+ */
+class PresenceEventConsumer(private val presenceIndex: PresenceIndex) {
+
+    fun domainEventHandlers(): DomainEventHandlers {
+        return DomainEventHandlersBuilder.forAggregateType(User::class.java.name)
+            .onEvent(
+                UserPresenceChangedEvent::class.java
+            ) { domainEventEnvelope: DomainEventEnvelope<UserPresenceChangedEvent> ->
+                handleUserPresenceChangedEvent(domainEventEnvelope)
+            }
+            .build()
+    }
+
+    private fun handleUserPresenceChangedEvent(domainEventEnvelope: DomainEventEnvelope<UserPresenceChangedEvent>) {
+        val userPresenceChangedEvent = domainEventEnvelope.event
+        val userId = userPresenceChangedEvent.userId
+        val campusId = userPresenceChangedEvent.campusId
+        val availableUntil = userPresenceChangedEvent.availableUntil
+
+        logger.debug("[x] Changing presence of user {} to campus {} until {}", userId, campusId, availableUntil)
+        if (campusId == null || availableUntil == null)
+            presenceIndex.markUnavailable(userId)
+        else
+            presenceIndex.markAvailable(userId, campusId, Instant.ofEpochMilli(availableUntil))
+    }
+}
@@ -0,0 +1,17 @@
+package com.eirsteir.coffeewithme.social.service.presence
+
+import com.eirsteir.coffeewithme.social.dto.AvailableFriend
+import com.eirsteir.coffeewithme.social.web.request.PresenceRequest
+
+interface PresenceService {
+
+    /**
+     * @throws IllegalArgumentException when the user would not be available for between one
+     * minute and [PresenceRequest.MAX_AVAILABLE_MINUTES]
+     */
+    fun markAvailable(userId: Long, presenceRequest: PresenceRequest)
+
+    fun markUnavailable(userId: Long)
+
+    fun findAvailableFriends(userId: Long, campusId: Long): List<AvailableFriend>
+}
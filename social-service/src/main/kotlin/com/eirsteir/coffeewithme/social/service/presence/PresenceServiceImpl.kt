@@ -0,0 +1,91 @@
+package com.eirsteir.coffeewithme.social.service.presence
+
+import com.eirsteir.coffeewithme.commons.exception.APIException
+import com.eirsteir.coffeewithme.commons.exception.EntityType
+import com.eirsteir.coffeewithme.commons.exception.ExceptionType
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.UserPresenceChangedEvent
+import com.eirsteir.coffeewithme.social.dto.AvailableFriend
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.presence.PresenceIndex
+import com.eirsteir.coffeewithme.social.repository.CampusRepository
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.web.request.PresenceRequest
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import io.eventuate.tram.events.publisher.DomainEventPublisher
+import mu.KotlinLogging
+import org.springframework.scheduling.annotation.Scheduled
+import java.time.Clock
+import java.time.Duration
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Keeps presence in the [PresenceIndex] only. Heartbeats check the campus against a cache of
+ * known campuses, so they neither query the database nor open a transaction, and only listing
+ * available friends reads their names. Each heartbeat is applied here and published as a
+ * [UserPresenceChangedEvent], which [PresenceEventConsumer] applies on every other node, so any
+ * node behind the gateway can list available friends.
+ */
+class PresenceServiceImpl(
+    private val domainEventPublisher: DomainEventPublisher,
+    private val presenceIndex: PresenceIndex,
+    private val friendBitmaps: FriendBitmaps,
+    private val campusRepository: CampusRepository,
+    private val userRepository: UserRepository,
+    private val clock: Clock = Clock.systemUTC()
+) : PresenceService {
+
+    private val knownCampuses: Cache<Long, Boolean> = Caffeine.newBuilder()
+        .maximumSize(MAX_KNOWN_CAMPUSES)
+        .expireAfterWrite(KNOWN_CAMPUS_TTL)
+        .build()
+
+    override fun markAvailable(userId: Long, presenceRequest: PresenceRequest) {
+        val availableForMinutes = presenceRequest.availableForMinutes
+        require(availableForMinutes in 1..PresenceRequest.MAX_AVAILABLE_MINUTES) {
+            "Must be available for between 1 and ${PresenceRequest.MAX_AVAILABLE_MINUTES} minutes: $availableForMinutes"
+        }
+
+        val campusId = presenceRequest.campusId
+        if (!knownCampuses.get(campusId) { campusRepository.existsById(it) }!!)
+            throw APIException.of(EntityType.CAMPUS, ExceptionType.ENTITY_NOT_FOUND, campusId.toString())
+
+        val until = clock.instant().plus(Duration.ofMinutes(availableForMinutes))
+        presenceIndex.markAvailable(userId, campusId, until)
+        publish(UserPresenceChangedEvent(userId, campusId, until.toEpochMilli()))
+    }
+
+    override fun markUnavailable(userId: Long) {
+        presenceIndex.markUnavailable(userId)
+        publish(UserPresenceChangedEvent(userId, null, null))
+    }
+
+    override fun findAvailableFriends(userId: Long, campusId: Long): List<AvailableFriend> {
+        val available = presenceIndex.availableAt(campusId, friendBitmaps.friendsOf(userId))
+        if (available.isEmpty())
+            return listOf()
+
+        return userRepository.findAllUserDetailsByIdIn(available.keys)
+            .map { AvailableFriend(it, available.getValue(it.id)) }
+            .sortedByDescending { it.availableUntil }
+    }
+
+    private fun publish(userPresenceChangedEvent: UserPresenceChangedEvent) =
+        domainEventPublisher.publish(
+            User::class.java, userPresenceChangedEvent.userId, listOf(userPresenceChangedEvent)
+        )
+
+    @Scheduled(fixedDelayString = "\${social.presence.bucket-ms:60000}")
+    fun expire() {
+        val expired = presenceIndex.expire()
+        if (expired > 0)
+            logger.debug("[x] Expired {} presences, {} users still available", expired, presenceIndex.size)
+    }
+
+    companion object {
+        private const val MAX_KNOWN_CAMPUSES = 10_000L
+        private val KNOWN_CAMPUS_TTL = Duration.ofMinutes(10)
+    }
+}
@@ -0,0 +1,11 @@
+package com.eirsteir.coffeewithme.social.service.suggestion
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.social.dto.FriendSuggestion
+
+interface SuggestionService {
+
+    fun findMutualFriends(userId: Long, otherUserId: Long): List<UserDetailsDto>
+
+    fun findSuggestions(userId: Long, limit: Int): List<FriendSuggestion>
+}
@@ -0,0 +1,129 @@
+package com.eirsteir.coffeewithme.social.service.suggestion
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
+import com.eirsteir.coffeewithme.social.dto.FriendSuggestion
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.graph.FriendGraphListener
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import mu.KotlinLogging
+import org.roaringbitmap.FastAggregation
+import org.roaringbitmap.RoaringBitmap
+import org.springframework.stereotype.Service
+import java.time.Duration
+import java.util.*
+import javax.transaction.Transactional
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Ranks friends of friends at the user's university by their number of mutual friends, using
+ * bitmap intersections over the [FriendBitmaps].
+ *
+ * Rankings are cached per user and dropped when an edge touching the user or one of their
+ * friends changes. University changes only drop the user and their friends, so users two hops
+ * away may see a stale ranking until it expires.
+ */
+@Service
+@Transactional
+class SuggestionServiceImpl(
+    private val friendGraph: FriendGraph,
+    private val friendBitmaps: FriendBitmaps,
+    private val userRepository: UserRepository,
+    private val dtoMapper: DtoMapper,
+) : SuggestionService, FriendGraphListener {
+
+    private val rankings: Cache<Long, List<Ranking>> = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_RANKINGS)
+        .expireAfterWrite(RANKING_TTL)
+        .build()
+
+    override fun findMutualFriends(userId: Long, otherUserId: Long): List<UserDetailsDto> {
+        val mutualFriends = RoaringBitmap.and(friendBitmaps.friendsOf(userId), friendBitmaps.friendsOf(otherUserId))
+        val ids = mutualFriends.toArray().map { it.toLong() }
+
+        return userRepository.findWithUniversityByIdIn(ids)
+            .sortedBy { it.id }
+            .map { dtoMapper.map(it, UserDetailsDto::class.java).copy(isFriend = true) }
+    }
+
+    override fun findSuggestions(userId: Long, limit: Int): List<FriendSuggestion> {
+        val ranked = rankings.get(userId) { rank(it) }!!.take(limit)
+        if (ranked.isEmpty())
+            return listOf()
+
+        val users = userRepository.findWithUniversityByIdIn(ranked.map { it.userId }).associateBy { it.id }
+        return ranked.mapNotNull { ranking ->
+            val user = users[ranking.userId] ?: return@mapNotNull null
+            FriendSuggestion(
+                user = dtoMapper.map(user, UserDetailsDto::class.java).copy(isFriend = false),
+                mutualFriendsCount = ranking.mutualFriendsCount
+            )
+        }
+    }
+
+    private fun rank(userId: Long): List<Ranking> {
+        val started = System.nanoTime()
+        val universityId = friendGraph.universityOf(userId) ?: return listOf()
+        val friends = friendBitmaps.friendsOf(userId)
+        if (friends.isEmpty)
+            return listOf()
+
+        val candidates = FastAggregation.or(friends.toArray().map { friendBitmaps.friendsOf(it.toLong()) }.iterator())
+        candidates.and(friendBitmaps.membersOf(universityId))
+        candidates.andNot(friends)
+        candidates.andNot(FriendBitmaps.toBitmap(friendGraph.incomingRequestsOf(userId)))
+        candidates.andNot(FriendBitmaps.toBitmap(friendGraph.outgoingRequestsOf(userId)))
+        candidates.remove(FriendBitmaps.toInt(userId))
+
+        // Min-heap of the best rankings so far, the weakest on top
+        val top = PriorityQueue(MAX_SUGGESTIONS + 1, WEAKEST_FIRST)
+        val iterator = candidates.intIterator
+        while (iterator.hasNext()) {
+            val candidateId = iterator.next().toLong()
+            val ranking = Ranking(
+                candidateId, RoaringBitmap.andCardinality(friends, friendBitmaps.friendsOf(candidateId))
+            )
+            if (top.size < MAX_SUGGESTIONS) {
+                top.add(ranking)
+            } else if (WEAKEST_FIRST.compare(ranking, top.peek()) > 0) {
+                top.poll()
+                top.add(ranking)
+            }
+        }
+
+        logger.debug(
+            "[x] Ranked {} suggestion candidates for user {} in {} µs",
+            candidates.cardinality, userId, (System.nanoTime() - started) / 1000
+        )
+        return top.sortedWith(WEAKEST_FIRST.reversed())
+    }
+
+    override fun onEdgeChanged(requesterId: Long, addresseeId: Long) {
+        invalidateUserAndFriends(requesterId)
+        invalidateUserAndFriends(addresseeId)
+    }
+
+    override fun onUniversityChanged(userId: Long, oldUniversityId: Long?, newUniversityId: Long?) =
+        invalidateUserAndFriends(userId)
+
+    override fun onReset() = rankings.invalidateAll()
+
+    private fun invalidateUserAndFriends(userId: Long) {
+        rankings.invalidate(userId)
+        friendGraph.friendsOf(userId).forEach { rankings.invalidate(it) }
+    }
+
+    private data class Ranking(val userId: Long, val mutualFriendsCount: Int)
+
+    companion object {
+        const val MAX_SUGGESTIONS = 50
+        private const val MAX_CACHED_RANKINGS = 10_000L
+        private val RANKING_TTL = Duration.ofMinutes(10)
+
+        private val WEAKEST_FIRST = compareBy<Ranking> { it.mutualFriendsCount }.thenByDescending { it.userId }
+    }
+}
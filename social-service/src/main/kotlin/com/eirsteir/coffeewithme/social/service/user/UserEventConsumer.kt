@@ -0,0 +1,35 @@
+package com.eirsteir.coffeewithme.social.service.user
+
+import com.eirsteir.coffeewithme.commons.domain.user.UserNamesChangedEvent
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import io.eventuate.tram.events.subscriber.DomainEventEnvelope
+import io.eventuate.tram.events.subscriber.DomainEventHandlers
+import io.eventuate.tram.events.subscriber.DomainEventHandlersBuilder
+import mu.KotlinLogging
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Puts the names set on any node into the [UserNameIndex] of this node. It is subscribed under
+ * an id of its own per node, so every node receives every change.
+ */
+class UserEventConsumer(private val userNameIndex: UserNameIndex) {
+
+    fun domainEventHandlers(): DomainEventHandlers {
+        return DomainEventHandlersBuilder.forAggregateType(User::class.java.name)
+            .onEvent(
+                UserNamesChangedEvent::class.java
+            ) { domainEventEnvelope: DomainEventEnvelope<UserNamesChangedEvent> ->
+                handleUserNamesChangedEvent(domainEventEnvelope)
+            }
+            .build()
+    }
+
+    private fun handleUserNamesChangedEvent(domainEventEnvelope: DomainEventEnvelope<UserNamesChangedEvent>) {
+        val userNamesChangedEvent = domainEventEnvelope.event
+
+        logger.debug("[x] Indexing names of user {}", userNamesChangedEvent.userId)
+        userNameIndex.put(userNamesChangedEvent.userId, userNamesChangedEvent.name, userNamesChangedEvent.nickname)
+    }
+}
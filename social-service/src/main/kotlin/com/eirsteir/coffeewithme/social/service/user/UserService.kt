@@ -5,6 +5,8 @@ import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.user.User
 import com.eirsteir.coffeewithme.social.dto.UserProfile
 import com.eirsteir.coffeewithme.social.web.request.UpdateProfileRequest
+import org.springframework.data.domain.Pageable
+import org.springframework.data.domain.Slice
 import org.springframework.data.jpa.domain.Specification
 
 interface UserService {
@@ -15,9 +17,13 @@ interface UserService {
 
     fun findUserById(id: Long): User
 
-    fun searchUsers(spec: Specification<User>): List<UserDetailsDto>
+    fun findUserProfile(id: Long): UserProfile
+
+    fun searchUsers(spec: Specification<User>, viewerId: Long, pageable: Pageable): Slice<UserDetailsDto>
 
     fun findUserById(id: Long, viewerId: Long): UserDetailsDto
 
     fun findByIdIn(friendsIds: List<Long>): List<User>
+
+    fun findDetailsByIdIn(ids: List<Long>): List<UserDetailsDto>
 }
\ No newline at end of file
@@ -1,21 +1,31 @@
 package com.eirsteir.coffeewithme.social.service.user
 
+import com.eirsteir.coffeewithme.commons.domain.user.UserNamesChangedEvent
 import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.commons.exception.APIException
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.UserUniversityChangedEvent
 import com.eirsteir.coffeewithme.social.dto.UserProfile
 import com.eirsteir.coffeewithme.social.web.request.UpdateProfileRequest
 import com.eirsteir.coffeewithme.commons.exception.EntityType
 import com.eirsteir.coffeewithme.commons.exception.ExceptionType
-import com.eirsteir.coffeewithme.social.repository.FriendshipRepository
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
 import com.eirsteir.coffeewithme.social.repository.UniversityRepository
 import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.search.SocialDistanceRanker
+import com.eirsteir.coffeewithme.social.search.SocialDistanceRanker.Distance
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import com.eirsteir.coffeewithme.social.service.afterCommit
+import com.eirsteir.coffeewithme.social.service.friendship.FriendshipCounters
+import io.eventuate.tram.events.publisher.DomainEventPublisher
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
+import org.springframework.data.domain.Pageable
+import org.springframework.data.domain.Slice
+import org.springframework.data.domain.SliceImpl
 import org.springframework.data.jpa.domain.Specification
 import org.springframework.stereotype.Service
-import java.util.stream.Collectors
 import javax.transaction.Transactional
 
 
@@ -24,17 +34,21 @@ private val logger = KotlinLogging.logger {  }
 @Service
 @Transactional
 class UserServiceImpl(
+    private val domainEventPublisher: DomainEventPublisher,
     private val userRepository: UserRepository,
     private val universityRepository: UniversityRepository,
-    private val friendshipRepository: FriendshipRepository,
-    private val modelMapper: ModelMapper,
+    private val friendshipCounters: FriendshipCounters,
+    private val friendGraph: FriendGraph,
+    private val userNameIndex: UserNameIndex,
+    private val socialDistanceRanker: SocialDistanceRanker,
+    private val dtoMapper: DtoMapper,
 ) : UserService {
 
     override fun findUserByEmail(email: String): UserDetailsDto {
         val userModel: User = userRepository
             .findByEmail(email)
             .orElseThrow { APIException.of(EntityType.USER, ExceptionType.ENTITY_NOT_FOUND, email) }
-        return modelMapper.map(userModel, UserDetailsDto::class.java)
+        return dtoMapper.map(userModel, UserDetailsDto::class.java)
     }
 
     override fun findUserById(id: Long): User {
@@ -43,19 +57,25 @@ class UserServiceImpl(
             .orElseThrow { APIException.of(EntityType.USER, ExceptionType.ENTITY_NOT_FOUND, id.toString()) }
     }
 
+    override fun findUserProfile(id: Long): UserProfile {
+        val user = userRepository
+            .findProfileById(id)
+            .orElseThrow { APIException.of(EntityType.USER, ExceptionType.ENTITY_NOT_FOUND, id.toString()) }
+        return dtoMapper.map(user, UserProfile::class.java)
+    }
+
     override fun findUserById(id: Long, viewerId: Long): UserDetailsDto {
         val user= findUserById(id)
-        val currentUser= findUserById(id)
-        val userDetails = modelMapper.map(user, UserDetailsDto::class.java)
-        return includeFriendshipProperties(userDetails, user, currentUser)
+        val userDetails = dtoMapper.map(user, UserDetailsDto::class.java)
+        return includeFriendshipProperties(userDetails, id, viewerId)
     }
 
     // TODO: clearly separate this from retrieving other users
     private fun includeFriendshipProperties(
-        userDetails: UserDetailsDto, otherUser: User, currentUser: User
+        userDetails: UserDetailsDto, otherUserId: Long, currentUserId: Long
     ): UserDetailsDto {
-        val areFriends = getAreFriends(otherUser, currentUser)
-        val friendshipCount = friendshipRepository.countByUserId(currentUser.id!!)
+        val areFriends = getAreFriends(otherUserId, currentUserId)
+        val friendshipCount = friendshipCounters.countsOf(otherUserId).friends
 
         return userDetails.copy(
             isFriend = areFriends,
@@ -63,19 +83,38 @@ class UserServiceImpl(
         )
     }
 
-    private fun getAreFriends(otherUser: User, currentUser: User) =
-        otherUser in currentUser.getFriends()
-
-    // TODO: add friends properties
-    override fun searchUsers(spec: Specification<User>): List<UserDetailsDto> =
-        userRepository.findAll(spec).stream()
-            .map { user -> modelMapper.map(user, UserDetailsDto::class.java) }
-            .collect(Collectors.toList())
+    private fun getAreFriends(otherUserId: Long, currentUserId: Long) =
+        friendGraph.isFriend(currentUserId, otherUserId)
+
+    /**
+     * Searches users one slice at a time, ranked by their social distance to the viewer. Only
+     * the first [MAX_SEARCH_RESULTS] matches are ranked however broad the query is, together
+     * with the viewer's matching friends, so friends with high ids are never cut off.
+     */
+    override fun searchUsers(spec: Specification<User>, viewerId: Long, pageable: Pageable): Slice<UserDetailsDto> {
+        if (pageable.offset >= MAX_SEARCH_RESULTS)
+            return SliceImpl(listOf(), pageable, false)
+
+        val matches = LinkedHashSet<Long>()
+        matches.addAll(userRepository.findUserIdsAmong(spec, friendGraph.friendsOf(viewerId).asList()))
+        matches.addAll(userRepository.findUserIds(spec, MAX_SEARCH_RESULTS.toInt()))
+        // One extra ranking tells whether another slice follows
+        val ranked = socialDistanceRanker.rank(viewerId, matches, (pageable.offset + pageable.pageSize + 1).toInt())
+        val page = ranked.drop(pageable.offset.toInt()).take(pageable.pageSize)
+
+        val users = userRepository.findAllDetailsByIdIn(page.map { it.userId }).associateBy { it.id }
+        val results = page.mapNotNull { ranking ->
+            users[ranking.userId]?.copy(isFriend = ranking.distance == Distance.FRIEND)
+        }
+        return SliceImpl(results, pageable, ranked.size > pageable.offset + pageable.pageSize)
+    }
 
     override fun updateProfile(
         updateProfileRequest: UpdateProfileRequest, currentUser: UserDetailsImpl
     ): UserProfile {
         var userToUpdate = findUserById(currentUser.id)
+        val oldNickname = userToUpdate.nickname
+        val oldUniversityId = userToUpdate.university?.id
         universityRepository.findById(updateProfileRequest.universityId)
             .ifPresent { userToUpdate = userToUpdate.copy(university = it) }
 
@@ -83,10 +122,34 @@ class UserServiceImpl(
 
         logger.info("[x] Updated user profile: {}", userToUpdate)
 
-        return modelMapper.map(userRepository.save(userToUpdate), UserProfile::class.java)
+        val updatedUser = userRepository.save(userToUpdate)
+        afterCommit {
+            friendGraph.putUniversity(updatedUser.id!!, updatedUser.university?.id)
+            userNameIndex.put(updatedUser.id!!, updatedUser.name, updatedUser.nickname)
+        }
+        if (updatedUser.nickname != oldNickname)
+            domainEventPublisher.publish(
+                User::class.java,
+                updatedUser.id,
+                listOf(UserNamesChangedEvent(updatedUser.id!!, updatedUser.name, updatedUser.nickname))
+            )
+        if (updatedUser.university?.id != oldUniversityId)
+            domainEventPublisher.publish(
+                User::class.java,
+                updatedUser.id,
+                listOf(UserUniversityChangedEvent(updatedUser.id!!, updatedUser.university?.id))
+            )
+
+        return dtoMapper.map(updatedUser, UserProfile::class.java)
     }
 
     override fun findByIdIn(friendsIds: List<Long>): List<User> =
-        userRepository.findAllById(friendsIds)
+        userRepository.findWithUniversityByIdIn(friendsIds)
+
+    override fun findDetailsByIdIn(ids: List<Long>): List<UserDetailsDto> =
+        userRepository.findAllDetailsByIdIn(ids)
 
+    companion object {
+        const val MAX_SEARCH_RESULTS = 1_000L
+    }
 }
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.eirsteir.coffeewithme.social.web.actuator
+
+import mu.KotlinLogging
+import org.hibernate.SessionFactory
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation
+import org.springframework.boot.actuate.endpoint.annotation.Selector
+import javax.persistence.EntityManagerFactory
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Lists and evicts the Hibernate second-level cache regions, for when reference data has been
+ * changed directly in the database. Hit and miss counts are only collected when
+ * `hibernate.generate_statistics` is on, as in the dev profile, and are then also published as
+ * the `hibernate.second.level.cache.requests` metric.
+ *
+ * [onEvict] is run after every eviction, to drop state derived from the evicted data.
+ */
+@Endpoint(id = "entitycache")
+class EntityCacheEndpoint(
+    entityManagerFactory: EntityManagerFactory,
+    private val onEvict: () -> Unit = {}
+) {
+
+    private val sessionFactory = entityManagerFactory.unwrap(SessionFactory::class.java)
+
+    @ReadOperation
+    fun regions(): Map<String, RegionStatistics> {
+        val statistics = sessionFactory.statistics
+        return statistics.secondLevelCacheRegionNames.associateWith { region ->
+            statistics.getCacheRegionStatistics(region)
+                ?.let { RegionStatistics(it.hitCount, it.missCount, it.putCount, it.elementCountInMemory) }
+                ?: RegionStatistics()
+        }
+    }
+
+    @DeleteOperation
+    fun evictAll() {
+        logger.info("[x] Evicting all second-level cache regions")
+        sessionFactory.cache.evictAllRegions()
+        onEvict()
+    }
+
+    @DeleteOperation
+    fun evict(@Selector region: String): Boolean {
+        if (region !in sessionFactory.statistics.secondLevelCacheRegionNames)
+            return false
+
+        logger.info("[x] Evicting second-level cache region {}", region)
+        sessionFactory.cache.evictRegion(region)
+        onEvict()
+        return true
+    }
+
+    data class RegionStatistics(
+        val hitCount: Long = 0,
+        val missCount: Long = 0,
+        val putCount: Long = 0,
+        val elementCountInMemory: Long = 0
+    )
+}
@@ -5,11 +5,13 @@ import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.service.coffeebreak.CoffeeBreakService
 import com.eirsteir.coffeewithme.social.web.request.CoffeeBreakRequest
 import mu.KotlinLogging
+import org.springframework.format.annotation.DateTimeFormat
+import org.springframework.http.HttpStatus
 import org.springframework.security.core.annotation.AuthenticationPrincipal
-import org.springframework.web.bind.annotation.PostMapping
-import org.springframework.web.bind.annotation.RequestBody
-import org.springframework.web.bind.annotation.RequestMapping
-import org.springframework.web.bind.annotation.RestController
+import org.springframework.web.bind.annotation.*
+import org.springframework.web.server.ResponseStatusException
+import java.time.Duration
+import java.time.LocalDateTime
 import javax.validation.Valid
 
 
@@ -24,4 +26,98 @@ class CoffeeBreakController(private val coffeeBreakService: CoffeeBreakService)
         @RequestBody coffeeBreakRequest: @Valid CoffeeBreakRequest,
         @AuthenticationPrincipal principal: UserDetailsImpl
     ) = coffeeBreakService.registerCoffeeBreak(coffeeBreakRequest, principal)
-}
\ No newline at end of file
+
+    /**
+     * Lists the coffee breaks at a campus the user requested or is invited to, scheduled from
+     * [from] until [to], defaulting as in [CoffeeBreakService.findCoffeeBreaksAtCampus].
+     */
+    @GetMapping
+    fun coffeeBreaks(
+        @RequestParam campus: Long,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) from: LocalDateTime?,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) to: LocalDateTime?,
+        @RequestParam(defaultValue = DEFAULT_LIMIT) limit: Int,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<CoffeeBreakDetails> {
+        validateLimit(limit)
+
+        val coffeeBreaks = inRange {
+            coffeeBreakService.findCoffeeBreaksAtCampus(principal.id, campus, from, to, limit)
+        }
+        if (coffeeBreaks.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "No coffee breaks at campus with id $campus in the requested period"
+            )
+        return coffeeBreaks
+    }
+
+    /**
+     * Lists the coffee breaks the user is invited to, scheduled from [from] until [to],
+     * defaulting as in [CoffeeBreakService.findCoffeeBreaksInvitedTo].
+     */
+    @GetMapping("/invited")
+    fun invitedTo(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) from: LocalDateTime?,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) to: LocalDateTime?,
+        @RequestParam(defaultValue = DEFAULT_LIMIT) limit: Int,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<CoffeeBreakDetails> {
+        validateLimit(limit)
+
+        val coffeeBreaks = inRange { coffeeBreakService.findCoffeeBreaksInvitedTo(principal.id, from, to, limit) }
+        if (coffeeBreaks.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "User with email - ${principal.email} is not invited to any coffee breaks"
+            )
+        return coffeeBreaks
+    }
+
+    /**
+     * Lists the coffee breaks at a campus the user requested or is invited to, starting within
+     * [withinMinutes].
+     */
+    @GetMapping("/upcoming")
+    fun upcoming(
+        @RequestParam campus: Long,
+        @RequestParam(name = "within_minutes", defaultValue = DEFAULT_UPCOMING_MINUTES) withinMinutes: Long,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<CoffeeBreakDetails> {
+        if (withinMinutes < 1 || withinMinutes > MAX_UPCOMING_MINUTES)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Minutes must be between 1 and $MAX_UPCOMING_MINUTES"
+            )
+
+        val coffeeBreaks = coffeeBreakService.findUpcomingCoffeeBreaksAtCampus(
+            principal.id, campus, Duration.ofMinutes(withinMinutes)
+        )
+        if (coffeeBreaks.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "No coffee breaks at campus with id $campus within $withinMinutes minutes"
+            )
+        return coffeeBreaks
+    }
+
+    /**
+     * Answers a period rejected by the service with a bad request.
+     */
+    private fun <T> inRange(find: () -> T): T =
+        try {
+            find()
+        } catch (e: IllegalArgumentException) {
+            throw ResponseStatusException(HttpStatus.BAD_REQUEST, e.message, e)
+        }
+
+    private fun validateLimit(limit: Int) {
+        if (limit < 1 || limit > MAX_LIMIT)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Limit must be between 1 and $MAX_LIMIT"
+            )
+    }
+
+    companion object {
+        private const val DEFAULT_LIMIT = "20"
+        private const val MAX_LIMIT = 100
+        private const val DEFAULT_UPCOMING_MINUTES = "120"
+        private const val MAX_UPCOMING_MINUTES = 60L * 2
+    }
+}
@@ -1,14 +1,18 @@
 package com.eirsteir.coffeewithme.social.web.api.friendship
 
-import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.dto.FriendshipCursor
 import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.FriendshipPage
+import com.eirsteir.coffeewithme.social.dto.FriendRequestResult
+import com.eirsteir.coffeewithme.social.dto.FriendshipUpdateResult
 import com.eirsteir.coffeewithme.social.service.friendship.FriendshipService
 import com.eirsteir.coffeewithme.social.service.user.UserService
+import com.eirsteir.coffeewithme.social.web.request.BatchFriendRequest
+import com.eirsteir.coffeewithme.social.web.request.BatchFriendshipUpdateRequest
 import com.eirsteir.coffeewithme.social.web.request.FriendRequest
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
 import org.springframework.http.HttpStatus
 import org.springframework.security.core.annotation.AuthenticationPrincipal
 import org.springframework.web.bind.annotation.*
@@ -21,20 +25,23 @@ private val logger = KotlinLogging.logger {  }
 @RestController
 class FriendshipController(
     private val friendshipService: FriendshipService,
-    private val userService: UserService,
-    private val modelMapper: ModelMapper
+    private val userService: UserService
 ) {
 
     @GetMapping
     @ResponseBody
-    fun getFriends(@AuthenticationPrincipal principal: UserDetailsImpl): Collection<FriendshipDto> {
-        val userDetailsDto: UserDetailsDto =
-            modelMapper.map(userService.findUserById(principal.id), UserDetailsDto::class.java)
-        val friendships: List<FriendshipDto> = friendshipService.findFriendshipsOf(userDetailsDto)
-        if (friendships.isEmpty())
+    fun getFriends(
+        @RequestParam(defaultValue = DEFAULT_LIMIT) limit: Int,
+        @RequestParam(required = false) cursor: String?,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): FriendshipPage {
+        val friendships = friendshipService.findFriendshipPage(
+            principal.id, FriendshipStatus.ACCEPTED, decodeCursor(cursor), validateLimit(limit)
+        )
+        if (friendships.items.isEmpty() && cursor == null)
             throw ResponseStatusException(
             HttpStatus.NO_CONTENT,
-            "User with email - " + userDetailsDto.email + " has no friends"
+            "User with email - " + principal.email + " has no friends"
         )
         return friendships
     }
@@ -56,6 +63,15 @@ class FriendshipController(
         return friendshipService.registerFriendship(friendRequest)
     }
 
+    @PostMapping("/batch")
+    fun addFriends(
+        @RequestBody batchFriendRequest: @Valid BatchFriendRequest,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<FriendRequestResult> {
+        logger.debug("[x] Request to /friends/batch for {} users", batchFriendRequest.addresseeIds.size)
+        return friendshipService.registerFriendships(principal.id, batchFriendRequest.addresseeIds)
+    }
+
     @PutMapping
     fun updateFriendship(
         @RequestBody friendshipDto: @Valid FriendshipDto,
@@ -65,6 +81,20 @@ class FriendshipController(
         return friendshipService.updateFriendship(friendshipDto)
     }
 
+    @PutMapping("/batch")
+    fun updateFriendRequests(
+        @RequestBody batchUpdateRequest: @Valid BatchFriendshipUpdateRequest,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<FriendshipUpdateResult> {
+        if (batchUpdateRequest.status !in ANSWERED_STATUSES)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Friend requests can only be updated to $ANSWERED_STATUSES"
+            )
+        return friendshipService.updateFriendRequests(
+            principal.id, batchUpdateRequest.requesterIds, batchUpdateRequest.status
+        )
+    }
+
     @DeleteMapping
     fun deleteFriendship(
         @RequestBody friendshipDto: @Valid FriendshipDto,
@@ -72,18 +102,37 @@ class FriendshipController(
     ): Nothing = throw ResponseStatusException(HttpStatus.NOT_IMPLEMENTED)
 
     @GetMapping("/requests")
-    fun getFriendRequests(@AuthenticationPrincipal principal: UserDetailsImpl): List<FriendshipDto> {
-        val userDto: UserDetailsDto = modelMapper.map(principal, UserDetailsDto::class.java)
-        val friendRequests = friendshipService.findFriendshipsOf(userDto.id!!, FriendshipStatus.REQUESTED)
+    fun getFriendRequests(
+        @RequestParam(defaultValue = DEFAULT_LIMIT) limit: Int,
+        @RequestParam(required = false) cursor: String?,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): FriendshipPage {
+        val friendRequests = friendshipService.findFriendshipPage(
+            principal.id, FriendshipStatus.REQUESTED, decodeCursor(cursor), validateLimit(limit)
+        )
 
-        if (friendRequests.isEmpty())
+        if (friendRequests.items.isEmpty() && cursor == null)
             throw ResponseStatusException(
             HttpStatus.NO_CONTENT,
-            "User with email - " + userDto.email + " has no friend requests"
+            "User with email - " + principal.email + " has no friend requests"
         )
         return friendRequests
     }
 
+    private fun decodeCursor(cursor: String?) =
+        cursor?.let {
+            FriendshipCursor.decode(it)
+                ?: throw ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: $it")
+        }
+
+    private fun validateLimit(limit: Int): Int {
+        if (limit < 1 || limit > MAX_LIMIT)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Limit must be between 1 and $MAX_LIMIT"
+            )
+        return limit
+    }
+
     private fun validateFriendshipDto(friendshipDto: FriendshipDto, principal: UserDetailsImpl) {
         val requesterId = friendshipDto.requester.id!!
         val addresseeId = friendshipDto.addressee.id!!
@@ -99,4 +148,10 @@ class FriendshipController(
             HttpStatus.BAD_REQUEST, "Friendship does not belong to current user"
         )
     }
+
+    companion object {
+        private const val DEFAULT_LIMIT = "20"
+        private const val MAX_LIMIT = 100
+        private val ANSWERED_STATUSES = setOf(FriendshipStatus.ACCEPTED, FriendshipStatus.DECLINED)
+    }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.eirsteir.coffeewithme.social.web.api.presence
+
+import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import com.eirsteir.coffeewithme.social.dto.AvailableFriend
+import com.eirsteir.coffeewithme.social.service.presence.PresenceService
+import com.eirsteir.coffeewithme.social.web.request.PresenceRequest
+import org.springframework.http.HttpStatus
+import org.springframework.security.core.annotation.AuthenticationPrincipal
+import org.springframework.web.bind.annotation.*
+import org.springframework.web.server.ResponseStatusException
+import javax.validation.Valid
+
+@RequestMapping("/presence")
+@RestController
+class PresenceController(private val presenceService: PresenceService) {
+
+    /**
+     * Marks the user available at a campus. Clients repeat the request to stay available.
+     */
+    @PutMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    fun markAvailable(
+        @Valid @RequestBody presenceRequest: PresenceRequest,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ) {
+        try {
+            presenceService.markAvailable(principal.id, presenceRequest)
+        } catch (e: IllegalArgumentException) {
+            throw ResponseStatusException(HttpStatus.BAD_REQUEST, e.message, e)
+        }
+    }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    fun markUnavailable(@AuthenticationPrincipal principal: UserDetailsImpl) =
+        presenceService.markUnavailable(principal.id)
+
+    @GetMapping("/friends")
+    fun availableFriends(
+        @RequestParam("campus_id") campusId: Long,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<AvailableFriend> {
+        val availableFriends = presenceService.findAvailableFriends(principal.id, campusId)
+
+        if (availableFriends.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "No friends are available at campus with id $campusId"
+            )
+        return availableFriends
+    }
+}
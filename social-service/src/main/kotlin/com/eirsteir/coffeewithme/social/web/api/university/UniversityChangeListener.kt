@@ -0,0 +1,19 @@
+package com.eirsteir.coffeewithme.social.web.api.university
+
+import com.eirsteir.coffeewithme.social.service.afterCommit
+import org.springframework.beans.factory.ObjectProvider
+import javax.persistence.PostPersist
+import javax.persistence.PostRemove
+import javax.persistence.PostUpdate
+
+/**
+ * Invalidates the serialized [UniversityResponses] once a change to a university or campus
+ * has been committed. Instantiated by Hibernate through the Spring bean container.
+ */
+class UniversityChangeListener(private val universityResponses: ObjectProvider<UniversityResponses>) {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    fun onChange(entity: Any) = afterCommit { universityResponses.ifAvailable { it.invalidate() } }
+}
@@ -1,19 +1,52 @@
 package com.eirsteir.coffeewithme.social.web.api.university
 
-import com.eirsteir.coffeewithme.social.repository.UniversityRepository
+import org.springframework.http.CacheControl
+import org.springframework.http.HttpHeaders
+import org.springframework.http.HttpStatus
+import org.springframework.http.MediaType
 import org.springframework.http.ResponseEntity
 import org.springframework.web.bind.annotation.*
 
 @RestController
 @RequestMapping("/universities")
-class UniversityController(private val universityRepository: UniversityRepository) {
+class UniversityController(private val universityResponses: UniversityResponses) {
 
+    /**
+     * Serves the pre-serialized list of universities, gzipped when the client accepts it. Clients
+     * revalidate with `If-None-Match` and get `304 Not Modified` while the data is unchanged.
+     */
     @GetMapping
-    @ResponseBody
-    fun all(@RequestParam includeCampuses: Boolean): ResponseEntity<List<*>> =
-        if (includeCampuses)
-            ResponseEntity.ok(universityRepository.findAll())
-        else ResponseEntity.ok(
-            universityRepository.findAllExcludeCampuses()
-        )
-}
\ No newline at end of file
+    fun all(
+        @RequestParam includeCampuses: Boolean,
+        @RequestHeader(HttpHeaders.ACCEPT_ENCODING, required = false) acceptEncoding: String?,
+        @RequestHeader(HttpHeaders.IF_NONE_MATCH, required = false) ifNoneMatch: String?
+    ): ResponseEntity<ByteArray> {
+        val response = universityResponses.get(includeCampuses)
+        val gzip = acceptEncoding?.contains(GZIP) == true
+        val etag = if (gzip) response.gzippedEtag else response.etag
+
+        val notModified = matches(ifNoneMatch, etag)
+        val builder = ResponseEntity.status(if (notModified) HttpStatus.NOT_MODIFIED else HttpStatus.OK)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT_ENCODING)
+        if (notModified)
+            return builder.build()
+
+        if (gzip)
+            builder.header(HttpHeaders.CONTENT_ENCODING, GZIP)
+        return builder
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(if (gzip) response.gzipped else response.json)
+    }
+
+    private fun matches(ifNoneMatch: String?, etag: String) =
+        ifNoneMatch != null && ifNoneMatch.split(',').any {
+            val tag = it.trim()
+            tag == "*" || tag.removePrefix("W/") == etag
+        }
+
+    companion object {
+        private const val GZIP = "gzip"
+    }
+}
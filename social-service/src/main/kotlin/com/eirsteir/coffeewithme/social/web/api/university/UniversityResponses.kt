@@ -0,0 +1,71 @@
+package com.eirsteir.coffeewithme.social.web.api.university
+
+import com.eirsteir.coffeewithme.social.repository.UniversityRepository
+import com.fasterxml.jackson.databind.ObjectMapper
+import mu.KotlinLogging
+import org.springframework.util.DigestUtils
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+import java.util.zip.GZIPOutputStream
+
+private val logger = KotlinLogging.logger {  }
+
+/**
+ * Keeps both variants of the `GET /universities` response serialized and gzipped, so the
+ * university picker is answered without querying the database or serializing. A variant is
+ * rebuilt on the first request after [invalidate], which is called whenever university data
+ * changes.
+ */
+class UniversityResponses(
+    private val universityRepository: UniversityRepository,
+    private val objectMapper: ObjectMapper
+) {
+    private val generation = AtomicLong()
+    private val withCampuses = AtomicReference<SerializedResponse?>()
+    private val withoutCampuses = AtomicReference<SerializedResponse?>()
+
+    fun get(includeCampuses: Boolean): SerializedResponse {
+        val cached = if (includeCampuses) withCampuses else withoutCampuses
+        cached.get()?.let { return it }
+
+        val builtAt = generation.get()
+        val response = build(includeCampuses)
+        if (cached.compareAndSet(null, response) && generation.get() != builtAt)
+            // Invalidated while building, so the data read may already be stale
+            cached.compareAndSet(response, null)
+        return response
+    }
+
+    fun invalidate() {
+        generation.incrementAndGet()
+        withCampuses.set(null)
+        withoutCampuses.set(null)
+    }
+
+    private fun build(includeCampuses: Boolean): SerializedResponse {
+        val universities =
+            if (includeCampuses) universityRepository.findAllWithCampuses()
+            else universityRepository.findAllExcludeCampuses()
+        logger.debug("[x] Serializing {} universities, including campuses: {}", universities.size, includeCampuses)
+        return SerializedResponse(objectMapper.writeValueAsBytes(universities))
+    }
+
+    /**
+     * A response body, both as is and gzipped. The representations carry distinct strong ETags,
+     * as their bytes differ.
+     */
+    class SerializedResponse(val json: ByteArray) {
+        val gzipped: ByteArray = gzip(json)
+
+        private val digest = DigestUtils.md5DigestAsHex(json)
+        val etag = "\"$digest\""
+        val gzippedEtag = "\"$digest-gzip\""
+
+        private fun gzip(bytes: ByteArray): ByteArray {
+            val out = ByteArrayOutputStream(bytes.size / 4)
+            GZIPOutputStream(out).use { it.write(bytes) }
+            return out.toByteArray()
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package com.eirsteir.coffeewithme.social.web.api.user
 
+import com.eirsteir.coffeewithme.commons.mapping.DtoMapper
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import com.eirsteir.coffeewithme.social.dto.FriendSuggestion
 import com.eirsteir.coffeewithme.social.dto.UserProfile
 import com.eirsteir.coffeewithme.social.service.friendship.FriendshipService
+import com.eirsteir.coffeewithme.social.service.suggestion.SuggestionService
+import com.eirsteir.coffeewithme.social.service.suggestion.SuggestionServiceImpl
 import com.eirsteir.coffeewithme.social.service.user.UserService
 import com.eirsteir.coffeewithme.social.web.request.UpdateProfileRequest
 import mu.KotlinLogging
-import org.modelmapper.ModelMapper
+import org.springframework.http.HttpStatus
 import org.springframework.security.core.annotation.AuthenticationPrincipal
 import org.springframework.web.bind.annotation.*
+import org.springframework.web.server.ResponseStatusException
 import javax.validation.Valid
 
 @RestController
@@ -16,15 +21,14 @@ import javax.validation.Valid
 class ProfileController(
     private val userService: UserService,
     private val friendshipService: FriendshipService,
-    private val modelMapper: ModelMapper
+    private val suggestionService: SuggestionService,
+    private val dtoMapper: DtoMapper
 ) {
 
     @GetMapping
     fun me(@AuthenticationPrincipal principal: UserDetailsImpl): UserProfile {
-        val profile = modelMapper.map(userService.findUserById(principal.id), UserProfile::class.java)
-        val friendsCount = friendshipService.getFriendsCount(profile.id)
-        profile.friendsCount = friendsCount
-        return profile
+        val profile = userService.findUserProfile(principal.id)
+        return includeFriendshipCounts(profile)
     }
 
     @PutMapping
@@ -33,8 +37,28 @@ class ProfileController(
         @AuthenticationPrincipal principal: UserDetailsImpl
     ): UserProfile {
         val profile: UserProfile = userService.updateProfile(updateProfileRequest, principal)
-        val friendsCount: Int = friendshipService.getFriendsCount(profile.id)
-        profile.friendsCount = friendsCount
+        return includeFriendshipCounts(profile)
+    }
+
+    @GetMapping("/suggestions")
+    fun suggestions(
+        @RequestParam(defaultValue = "10") limit: Int,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<FriendSuggestion> {
+        val suggestions = suggestionService.findSuggestions(
+            principal.id, limit.coerceIn(1, SuggestionServiceImpl.MAX_SUGGESTIONS)
+        )
+
+        if (suggestions.isEmpty())
+            throw ResponseStatusException(HttpStatus.NO_CONTENT, "No suggestions found")
+        return suggestions
+    }
+
+    private fun includeFriendshipCounts(profile: UserProfile): UserProfile {
+        val counts = friendshipService.getFriendshipCounts(profile.id)
+        profile.friendsCount = counts.friends
+        profile.incomingRequestsCount = counts.incomingRequests
+        profile.outgoingRequestsCount = counts.outgoingRequests
         return profile
     }
 }
\ No newline at end of file
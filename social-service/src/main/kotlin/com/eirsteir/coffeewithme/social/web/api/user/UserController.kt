@@ -3,12 +3,15 @@ package com.eirsteir.coffeewithme.social.web.api.user
 import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
 import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
 import com.eirsteir.coffeewithme.social.domain.user.User
-import com.eirsteir.coffeewithme.social.repository.rsql.RqslVisitorImpl
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSpecificationCache
+import com.eirsteir.coffeewithme.social.service.autocomplete.AutocompleteService
+import com.eirsteir.coffeewithme.social.service.suggestion.SuggestionService
 import com.eirsteir.coffeewithme.social.service.user.UserService
-import cz.jirutka.rsql.parser.RSQLParser
-import cz.jirutka.rsql.parser.ast.Node
+import cz.jirutka.rsql.parser.RSQLParserException
 import mu.KotlinLogging
-import org.springframework.data.jpa.domain.Specification
+import org.springframework.dao.QueryTimeoutException
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.domain.Slice
 import org.springframework.http.HttpStatus
 import org.springframework.security.core.annotation.AuthenticationPrincipal
 import org.springframework.web.bind.annotation.*
@@ -18,23 +21,91 @@ private val logger = KotlinLogging.logger { }
 
 @RestController
 @RequestMapping("/users")
-class UserController(private val userService: UserService) {
+class UserController(
+    private val userService: UserService,
+    private val suggestionService: SuggestionService,
+    private val userSearchSpecifications: RsqlSpecificationCache<User>,
+    private val autocompleteService: AutocompleteService
+) {
 
     @GetMapping("/{id}")
     @ResponseBody
     fun user(@PathVariable id: Long, @AuthenticationPrincipal principal: UserDetailsImpl) =
         userService.findUserById(id, principal.id)
 
+    @GetMapping("/{id}/mutual-friends")
+    fun mutualFriends(
+        @PathVariable id: Long, @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<UserDetailsDto> {
+        val mutualFriends = suggestionService.findMutualFriends(principal.id, id)
+
+        if (mutualFriends.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "User with id $id has no mutual friends"
+            )
+        return mutualFriends
+    }
+
+    @GetMapping("/autocomplete")
+    fun autocomplete(
+        @RequestParam q: String,
+        @RequestParam(defaultValue = DEFAULT_COMPLETIONS) limit: Int,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): List<UserDetailsDto> {
+        if (q.length > MAX_QUERY_LENGTH || limit < 1 || limit > MAX_COMPLETIONS)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Query must be at most $MAX_QUERY_LENGTH characters and limit between 1 and $MAX_COMPLETIONS"
+            )
+
+        val completions = autocompleteService.completeUsers(principal.id, q, limit)
+
+        if (completions.isEmpty())
+            throw ResponseStatusException(
+                HttpStatus.NO_CONTENT, "No users match '$q'"
+            )
+        return completions
+    }
+
     @GetMapping
-    fun search(@RequestParam search: String): List<UserDetailsDto> {
-        val rootNode: Node = RSQLParser().parse(search)
-        val spec: Specification<User> = rootNode.accept(RqslVisitorImpl())
-        val results = userService.searchUsers(spec)
+    fun search(
+        @RequestParam search: String,
+        @RequestParam(defaultValue = "0") page: Int,
+        @RequestParam(defaultValue = DEFAULT_LIMIT) limit: Int,
+        @AuthenticationPrincipal principal: UserDetailsImpl
+    ): Slice<UserDetailsDto> {
+        if (page < 0 || limit < 1 || limit > MAX_LIMIT)
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Page must not be negative and limit must be between 1 and $MAX_LIMIT"
+            )
 
-        if (results.isEmpty())
+        val spec = try {
+            userSearchSpecifications.specificationFor(search)
+        } catch (e: RSQLParserException) {
+            throw ResponseStatusException(HttpStatus.BAD_REQUEST, "Search query '$search' is malformed", e)
+        } catch (e: IllegalArgumentException) {
+            throw ResponseStatusException(
+                HttpStatus.BAD_REQUEST, "Search query '$search' is not supported: ${e.message}", e
+            )
+        }
+        val results = try {
+            userService.searchUsers(spec, principal.id, PageRequest.of(page, limit))
+        } catch (e: QueryTimeoutException) {
+            throw ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search query '$search' timed out", e)
+        }
+
+        if (results.isEmpty && page == 0)
             throw ResponseStatusException(
             HttpStatus.NO_CONTENT, "Search query '$search' yielded no results"
         )
         return results
     }
-}
\ No newline at end of file
+
+    companion object {
+        private const val DEFAULT_LIMIT = "20"
+        private const val MAX_LIMIT = 100
+        private const val DEFAULT_COMPLETIONS = "10"
+        private const val MAX_COMPLETIONS = 20
+        private const val MAX_QUERY_LENGTH = 50
+    }
+}
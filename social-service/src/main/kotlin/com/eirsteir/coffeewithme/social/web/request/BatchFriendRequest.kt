@@ -0,0 +1,10 @@
+package com.eirsteir.coffeewithme.social.web.request
+
+import javax.validation.constraints.NotEmpty
+import javax.validation.constraints.Size
+
+data class BatchFriendRequest(
+    @get:NotEmpty(message = "Must contain at least one id")
+    @get:Size(max = 100, message = "Cannot send more than 100 friend requests at once")
+    val addresseeIds: List<Long>
+)
@@ -0,0 +1,14 @@
+package com.eirsteir.coffeewithme.social.web.request
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import javax.validation.constraints.NotEmpty
+import javax.validation.constraints.NotNull
+import javax.validation.constraints.Size
+
+data class BatchFriendshipUpdateRequest(
+    @get:NotEmpty(message = "Must contain at least one id")
+    @get:Size(max = 500, message = "Cannot update more than 500 friend requests at once")
+    val requesterIds: List<Long>,
+    @get:NotNull(message = "Field is required")
+    val status: FriendshipStatus
+)
@@ -0,0 +1,20 @@
+package com.eirsteir.coffeewithme.social.web.request
+
+import javax.validation.constraints.Max
+import javax.validation.constraints.Positive
+
+
+data class PresenceRequest(
+    @get:Max(
+        value = PresenceRequest.MAX_AVAILABLE_MINUTES,
+        message = "Cannot be available for more than 4 hours"
+    )
+    @get:Positive(message = "Must be a positive number")
+    val availableForMinutes: Long,
+    val campusId: Long
+) {
+
+    companion object {
+        const val MAX_AVAILABLE_MINUTES = 60L * 4
+    }
+}
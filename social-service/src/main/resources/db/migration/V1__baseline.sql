@@ -0,0 +1,76 @@
+-- Schema of social-service as previously generated by Hibernate (ddl-auto). The database is shared
+-- with the other services and may already hold these tables, so every statement is idempotent.
+
+create table if not exists hibernate_sequence (
+    next_val bigint
+) engine = InnoDB;
+
+insert into hibernate_sequence (next_val)
+select 1 from dual where not exists (select * from hibernate_sequence);
+
+create table if not exists university (
+    id   bigint not null,
+    name varchar(255),
+    primary key (id)
+) engine = InnoDB;
+
+create table if not exists campus (
+    id            bigint not null,
+    name          varchar(255),
+    university_id bigint,
+    primary key (id),
+    constraint fk_campus_university foreign key (university_id) references university (id)
+) engine = InnoDB;
+
+create table if not exists user (
+    id                bigint not null,
+    created_date_time datetime(6),
+    updated_date_time datetime(6),
+    email             varchar(255),
+    last_login        datetime(6),
+    name              varchar(255),
+    nickname          varchar(255),
+    university_id     bigint,
+    primary key (id),
+    constraint uk_user_email unique (email),
+    constraint fk_user_university foreign key (university_id) references university (id)
+) engine = InnoDB;
+
+create table if not exists friendship (
+    requester_id      bigint not null,
+    addressee_id      bigint not null,
+    status            integer,
+    created_date_time datetime(6),
+    updated_date_time datetime(6),
+    primary key (requester_id, addressee_id),
+    constraint fk_friendship_requester foreign key (requester_id) references user (id),
+    constraint fk_friendship_addressee foreign key (addressee_id) references user (id)
+) engine = InnoDB;
+
+create table if not exists friendship_counter (
+    user_id                 bigint  not null,
+    friends_count           integer not null,
+    incoming_requests_count integer not null,
+    outgoing_requests_count integer not null,
+    primary key (user_id)
+) engine = InnoDB;
+
+create table if not exists coffee_break (
+    id                bigint not null,
+    created_date_time datetime(6),
+    updated_date_time datetime(6),
+    scheduled_to      time,
+    requester_id      bigint,
+    campus_id         bigint,
+    primary key (id),
+    constraint fk_coffee_break_requester foreign key (requester_id) references user (id),
+    constraint fk_coffee_break_campus foreign key (campus_id) references campus (id)
+) engine = InnoDB;
+
+create table if not exists coffee_break_addressees (
+    coffee_break_id bigint not null,
+    addressees_id   bigint not null,
+    primary key (coffee_break_id, addressees_id),
+    constraint fk_coffee_break_addressees_coffee_break foreign key (coffee_break_id) references coffee_break (id),
+    constraint fk_coffee_break_addressees_user foreign key (addressees_id) references user (id)
+) engine = InnoDB;
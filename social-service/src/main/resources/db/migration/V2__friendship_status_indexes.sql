@@ -0,0 +1,31 @@
+-- Lets each side of a friendship be looked up by user and status without scanning the primary key.
+-- The trailing columns serve the keyset pagination of friend listings.
+--
+-- MySQL 5.7 has no "create index if not exists", so each index is only created when the shared
+-- database does not hold it yet.
+
+set @create_index = if(
+    exists(select * from information_schema.statistics
+           where table_schema = database()
+             and table_name = 'friendship'
+             and index_name = 'ix_friendship_requester_status_created'),
+    'do 0',
+    'create index ix_friendship_requester_status_created
+         on friendship (requester_id, status, created_date_time, addressee_id)'
+);
+prepare create_index from @create_index;
+execute create_index;
+deallocate prepare create_index;
+
+set @create_index = if(
+    exists(select * from information_schema.statistics
+           where table_schema = database()
+             and table_name = 'friendship'
+             and index_name = 'ix_friendship_addressee_status_created'),
+    'do 0',
+    'create index ix_friendship_addressee_status_created
+         on friendship (addressee_id, status, created_date_time, requester_id)'
+);
+prepare create_index from @create_index;
+execute create_index;
+deallocate prepare create_index;
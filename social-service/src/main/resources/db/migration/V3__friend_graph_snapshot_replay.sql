@@ -0,0 +1,16 @@
+-- Lets a friend graph restored from a snapshot replay the friendships and university memberships
+-- changed since, and the friendships removed since, without scanning the tables.
+
+create index ix_friendship_updated on friendship (updated_date_time);
+
+create index ix_user_updated on user (updated_date_time);
+
+create table friendship_removal (
+    id                bigint not null,
+    requester_id      bigint,
+    addressee_id      bigint,
+    removed_date_time datetime(6),
+    primary key (id)
+) engine = InnoDB;
+
+create index ix_friendship_removal_removed on friendship_removal (removed_date_time);
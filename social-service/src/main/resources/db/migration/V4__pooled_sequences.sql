@@ -0,0 +1,32 @@
+-- Gives every entity with a generated identifier its own sequence, allocated in blocks by the
+-- pooled-lo optimizer, instead of a round trip to the shared hibernate_sequence per insert.
+-- Each sequence starts after the last identifier handed out by hibernate_sequence, which
+-- nodes from before this migration keep using, so they must be stopped before it runs.
+
+create table university_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into university_seq (next_val)
+select next_val from hibernate_sequence;
+
+create table campus_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into campus_seq (next_val)
+select next_val from hibernate_sequence;
+
+create table coffee_break_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into coffee_break_seq (next_val)
+select next_val from hibernate_sequence;
+
+create table friendship_removal_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into friendship_removal_seq (next_val)
+select next_val from hibernate_sequence;
@@ -0,0 +1,18 @@
+-- Pending reminders and expiries of coffee breaks, put on the in-process timing wheel at startup
+-- and deleted once fired.
+
+create table scheduled_timer (
+    id              bigint not null,
+    coffee_break_id bigint,
+    type            varchar(255),
+    fire_at         datetime(6),
+    primary key (id),
+    constraint fk_scheduled_timer_coffee_break foreign key (coffee_break_id) references coffee_break (id)
+) engine = InnoDB;
+
+create table scheduled_timer_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into scheduled_timer_seq (next_val)
+values (1);
@@ -0,0 +1,34 @@
+-- Coffee breaks were scheduled to a time of day. Existing breaks are assumed to be scheduled to
+-- the first such time after they were created.
+
+alter table coffee_break
+    add column scheduled_at datetime(6);
+
+update coffee_break
+set scheduled_at = timestamp(date(created_date_time), scheduled_to)
+    + interval if(scheduled_to < time(created_date_time), 1, 0) day;
+
+alter table coffee_break
+    drop column scheduled_to,
+    change column scheduled_at scheduled_to datetime(6);
+
+create index ix_coffee_break_campus_scheduled_to
+    on coffee_break (campus_id, scheduled_to);
+
+-- The upcoming coffee breaks are refreshed from those created since the last refresh.
+
+create index ix_coffee_break_created
+    on coffee_break (created_date_time);
+
+-- Each invitation carries the time of its coffee break, so the breaks a user is invited to can
+-- be listed in time order without reading coffee_break first.
+
+alter table coffee_break_addressees
+    add column scheduled_to datetime(6);
+
+update coffee_break_addressees a
+    join coffee_break c on c.id = a.coffee_break_id
+set a.scheduled_to = c.scheduled_to;
+
+create index ix_coffee_break_addressees_addressee_scheduled_to
+    on coffee_break_addressees (addressees_id, scheduled_to);
@@ -0,0 +1,5 @@
+-- Every node polls for timers past due, so that timers held on the wheel of a node that went
+-- down still fire.
+
+create index ix_scheduled_timer_fire_at
+    on scheduled_timer (fire_at);
@@ -0,0 +1,52 @@
+package com.eirsteir.coffeewithme.social.config
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.commons.mapping.TypedDtoMapper
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.dto.FriendshipDto
+import com.eirsteir.coffeewithme.social.dto.UserProfile
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+internal class ModelMapperConfigTest {
+    private val modelMapperConfig = ModelMapperConfig()
+    private val dtoMapper = modelMapperConfig.dtoMapper(modelMapperConfig.modelMapper())
+
+    private val requester = User(id = 1L, email = "requester@test.com", name = "Requester", nickname = "req")
+    private val addressee = User(id = 2L, email = "addressee@test.com", name = "Addressee")
+
+    @Test
+    fun testMapFriendship_thenMapsUsersWithoutReflection() {
+        val friendship = Friendship(requester, addressee, FriendshipStatus.ACCEPTED)
+
+        val friendshipDto = dtoMapper.map(friendship, FriendshipDto::class.java)
+
+        assertThat(friendshipDto).isEqualTo(
+            FriendshipDto(
+                requester = UserDetailsDto(1L, "requester@test.com", "req", "Requester"),
+                addressee = UserDetailsDto(2L, "addressee@test.com", null, "Addressee"),
+                status = FriendshipStatus.ACCEPTED
+            )
+        )
+        assertThat((dtoMapper as TypedDtoMapper).hasMapping(User::class.java, UserDetailsDto::class.java)).isTrue
+    }
+
+    @Test
+    fun testMapUserWithoutUniversity_thenProfileHasNoUniversity() {
+        val profile = dtoMapper.map(addressee, UserProfile::class.java)
+
+        assertThat(profile.id).isEqualTo(2L)
+        assertThat(profile.nickname).isNull()
+        assertThat(profile.university).isNull()
+    }
+
+    @Test
+    fun testMapUnregisteredType_thenFallsBackToModelMapper() {
+        val campus = dtoMapper.map(Campus(id = 1L, name = "Gløshaugen"), Campus::class.java)
+
+        assertThat(campus.name).isEqualTo("Gløshaugen")
+    }
+}
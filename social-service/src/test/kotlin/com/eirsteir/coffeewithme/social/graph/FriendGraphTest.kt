@@ -0,0 +1,153 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+
+internal class FriendGraphTest {
+    private lateinit var friendGraph: FriendGraph
+
+    @BeforeEach
+    fun setUp() {
+        friendGraph = FriendGraph()
+        friendGraph.putEdge(REQUESTER_ID, ADDRESSEE_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(OTHER_USER_ID, REQUESTER_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.REQUESTED)
+    }
+
+    @Test
+    fun testFriendsOfIncludesBothDirections() {
+        assertThat(friendGraph.friendsOf(REQUESTER_ID)).containsExactlyInAnyOrder(ADDRESSEE_ID, OTHER_USER_ID)
+        assertThat(friendGraph.friendsOf(ADDRESSEE_ID)).containsExactly(REQUESTER_ID)
+    }
+
+    @Test
+    fun testIsFriendIsSymmetric() {
+        assertThat(friendGraph.isFriend(REQUESTER_ID, ADDRESSEE_ID)).isTrue
+        assertThat(friendGraph.isFriend(ADDRESSEE_ID, REQUESTER_ID)).isTrue
+        assertThat(friendGraph.isFriend(REQUESTER_ID, PENDING_USER_ID)).isFalse
+    }
+
+    @Test
+    fun testPendingRequestsAreDirected() {
+        assertThat(friendGraph.outgoingRequestsOf(REQUESTER_ID)).containsExactly(PENDING_USER_ID)
+        assertThat(friendGraph.incomingRequestsOf(PENDING_USER_ID)).containsExactly(REQUESTER_ID)
+        assertThat(friendGraph.incomingRequestsOf(REQUESTER_ID)).isEmpty()
+    }
+
+    @Test
+    fun testPutEdgeWhenAccepted_thenMovesEdgeFromRequested() {
+        friendGraph.putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.ACCEPTED)
+
+        assertThat(friendGraph.isFriend(REQUESTER_ID, PENDING_USER_ID)).isTrue
+        assertThat(friendGraph.outgoingRequestsOf(REQUESTER_ID)).isEmpty()
+    }
+
+    @Test
+    fun testPutEdgeWhenDeclined_thenEdgeIsNotHeld() {
+        friendGraph.putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.DECLINED)
+
+        assertThat(friendGraph.outgoingRequestsOf(REQUESTER_ID)).isEmpty()
+        assertThat(friendGraph.edgesOf(REQUESTER_ID, FriendshipStatus.DECLINED)).isNull()
+    }
+
+    @Test
+    fun testRemoveEdge() {
+        friendGraph.removeEdge(REQUESTER_ID, ADDRESSEE_ID)
+
+        assertThat(friendGraph.isFriend(REQUESTER_ID, ADDRESSEE_ID)).isFalse
+        assertThat(friendGraph.friendsOf(ADDRESSEE_ID)).isEmpty()
+    }
+
+    @Test
+    fun testFriendsAtUniversity() {
+        friendGraph.putUniversity(REQUESTER_ID, UNIVERSITY_ID)
+        friendGraph.putUniversity(ADDRESSEE_ID, UNIVERSITY_ID)
+        friendGraph.putUniversity(OTHER_USER_ID, OTHER_UNIVERSITY_ID)
+
+        assertThat(friendGraph.friendsAtUniversity(REQUESTER_ID)).containsExactly(ADDRESSEE_ID)
+    }
+
+    @Test
+    fun testEdgesOfKeepsRequesterAndAddressee() {
+        val edges = friendGraph.edgesOf(REQUESTER_ID, FriendshipStatus.ACCEPTED)
+
+        assertThat(edges).containsExactlyInAnyOrder(
+            FriendGraph.Edge(REQUESTER_ID, ADDRESSEE_ID, FriendshipStatus.ACCEPTED),
+            FriendGraph.Edge(OTHER_USER_ID, REQUESTER_ID, FriendshipStatus.ACCEPTED)
+        )
+    }
+
+    @Test
+    fun testSnapshotWhenWrittenAndRead_thenRestoresGraph(@TempDir directory: Path) {
+        friendGraph.putUniversity(REQUESTER_ID, UNIVERSITY_ID)
+        friendGraph.putUniversity(OTHER_USER_ID, OTHER_UNIVERSITY_ID)
+        friendGraph.snapshot(TAKEN_AT).writeTo(directory.resolve("friend-graph.snapshot"))
+
+        val snapshot = FriendGraphSnapshot.read(directory.resolve("friend-graph.snapshot"))
+        val restored = FriendGraph()
+        restored.load(snapshot)
+
+        assertThat(snapshot.takenAt).isEqualTo(TAKEN_AT)
+        assertThat(snapshot.edgeCount).isEqualTo(3)
+        assertThat(restored.friendsOf(REQUESTER_ID)).containsExactlyInAnyOrder(ADDRESSEE_ID, OTHER_USER_ID)
+        assertThat(restored.isFriend(ADDRESSEE_ID, REQUESTER_ID)).isTrue
+        assertThat(restored.incomingRequestsOf(PENDING_USER_ID)).containsExactly(REQUESTER_ID)
+        assertThat(restored.universityOf(REQUESTER_ID)).isEqualTo(UNIVERSITY_ID)
+        assertThat(restored.universityOf(OTHER_USER_ID)).isEqualTo(OTHER_UNIVERSITY_ID)
+    }
+
+    @Test
+    fun testChangesWhileLoading_thenAppliedAfterLoad() {
+        friendGraph.putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.removeEdge(REQUESTER_ID, ADDRESSEE_ID)
+        friendGraph.putUniversity(REQUESTER_ID, UNIVERSITY_ID)
+
+        friendGraph.load(
+            FriendGraph().apply {
+                putEdge(REQUESTER_ID, ADDRESSEE_ID, FriendshipStatus.ACCEPTED)
+                putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.REQUESTED)
+            }.snapshot(TAKEN_AT)
+        )
+        friendGraph.markLoaded()
+
+        assertThat(friendGraph.isLoaded).isTrue
+        assertThat(friendGraph.friendsOf(REQUESTER_ID)).containsExactly(PENDING_USER_ID)
+        assertThat(friendGraph.outgoingRequestsOf(REQUESTER_ID)).isEmpty()
+        assertThat(friendGraph.universityOf(REQUESTER_ID)).isEqualTo(UNIVERSITY_ID)
+    }
+
+    @Test
+    fun testChangesAfterLoaded_thenNotAppliedAgainOnReload() {
+        friendGraph.markLoaded()
+        friendGraph.putEdge(REQUESTER_ID, PENDING_USER_ID, FriendshipStatus.ACCEPTED)
+
+        friendGraph.load(FriendGraph().snapshot(TAKEN_AT))
+
+        assertThat(friendGraph.friendsOf(REQUESTER_ID)).isEmpty()
+    }
+
+    @Test
+    fun testLongHashSetWhenManyValuesAddedAndRemoved() {
+        val set = LongHashSet()
+        (1L..1000L).forEach { set.add(it * 31) }
+        (1L..1000L step 2).forEach { set.remove(it * 31) }
+
+        assertThat(set.size).isEqualTo(500)
+        assertThat(set.contains(2L * 31)).isTrue
+        assertThat(set.contains(31L)).isFalse
+    }
+
+    companion object {
+        private const val REQUESTER_ID = 1L
+        private const val ADDRESSEE_ID = 2L
+        private const val OTHER_USER_ID = 3L
+        private const val PENDING_USER_ID = 4L
+        private const val UNIVERSITY_ID = 10L
+        private const val OTHER_UNIVERSITY_ID = 20L
+        private const val TAKEN_AT = 1_600_000_000_000L
+    }
+}
@@ -0,0 +1,98 @@
+package com.eirsteir.coffeewithme.social.graph
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.dto.FriendshipEdge
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.io.TempDir
+import java.nio.file.Path
+
+internal class FriendshipFilterTest {
+    private lateinit var meterRegistry: SimpleMeterRegistry
+    private lateinit var friendshipFilter: FriendshipFilter
+
+    @BeforeEach
+    fun setUp() {
+        meterRegistry = SimpleMeterRegistry()
+        friendshipFilter = FriendshipFilter(meterRegistry)
+        friendshipFilter.markLoaded()
+    }
+
+    @Test
+    fun testMightContainWhenPut_thenTrue() {
+        friendshipFilter.put(1L, 2L)
+
+        assertThat(friendshipFilter.mightContain(1L, 2L)).isTrue
+    }
+
+    @Test
+    fun testMightContainWhenAbsent_thenMostlyFalse() {
+        (1L..1_000L).forEach { friendshipFilter.put(it, it + 1) }
+
+        val falsePositives = (1L..1_000L).count { friendshipFilter.mightContain(it + 1, it) }
+
+        assertThat(falsePositives).isLessThan(50)
+    }
+
+    @Test
+    fun testRebuild_thenContainsEdges() {
+        friendshipFilter.put(5L, 6L)
+        friendshipFilter.rebuild(listOf(edge(1L, 2L), edge(3L, 4L)))
+
+        assertThat(friendshipFilter.mightContain(1L, 2L)).isTrue
+        assertThat(friendshipFilter.mightContain(3L, 4L)).isTrue
+        assertThat(meterRegistry.get("friendship.filter.insertions").gauge().value()).isEqualTo(2.0)
+    }
+
+    @Test
+    fun testRestoreWhenWritten_thenContainsPairs(@TempDir directory: Path) {
+        friendshipFilter.put(1L, 2L)
+        friendshipFilter.writeTo(directory.resolve("friendship-filter.snapshot"))
+
+        val restored = FriendshipFilter(SimpleMeterRegistry())
+        restored.restore(directory.resolve("friendship-filter.snapshot"))
+        restored.markLoaded()
+
+        assertThat(restored.mightContain(1L, 2L)).isTrue
+        assertThat(restored.mightContain(2L, 1L)).isFalse
+    }
+
+    @Test
+    fun testMightContain_thenLookupsAreCounted() {
+        friendshipFilter.put(1L, 2L)
+
+        friendshipFilter.mightContain(1L, 2L)
+        friendshipFilter.falsePositive()
+
+        assertThat(meterRegistry.get("friendship.filter.lookups").tag("result", "possible-hit").counter().count())
+            .isEqualTo(1.0)
+        assertThat(meterRegistry.get("friendship.filter.false-positives").counter().count()).isEqualTo(1.0)
+    }
+
+    @Test
+    fun testMightContainWhenNotLoaded_thenAlwaysPossibleHit() {
+        val loading = FriendshipFilter(SimpleMeterRegistry())
+
+        assertThat(loading.mightContain(1L, 2L)).isTrue
+    }
+
+    @Test
+    fun testPutWhileLoading_thenKeptAcrossRebuild() {
+        val loading = FriendshipFilter(SimpleMeterRegistry())
+        loading.put(5L, 6L)
+
+        loading.rebuild(listOf(edge(1L, 2L)))
+        loading.markLoaded()
+
+        assertThat(loading.mightContain(1L, 2L)).isTrue
+        assertThat(loading.mightContain(5L, 6L)).isTrue
+    }
+
+    private fun edge(requesterId: Long, addresseeId: Long) = object : FriendshipEdge {
+        override fun getRequesterId() = requesterId
+        override fun getAddresseeId() = addresseeId
+        override fun getStatus() = FriendshipStatus.ACCEPTED
+    }
+}
@@ -0,0 +1,86 @@
+package com.eirsteir.coffeewithme.social.presence
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.roaringbitmap.RoaringBitmap
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+internal class PresenceIndexTest {
+    private val clock = MutableClock(NOW)
+    private val presenceIndex = PresenceIndex(Duration.ofMinutes(1), clock)
+    private val friends = RoaringBitmap.bitmapOf(FRIEND_ID.toInt(), OTHER_FRIEND_ID.toInt())
+
+    @Test
+    fun testAvailableAt_thenOnlyIncludesFriendsAtCampus() {
+        presenceIndex.markAvailable(FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+        presenceIndex.markAvailable(OTHER_FRIEND_ID, OTHER_CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+        presenceIndex.markAvailable(STRANGER_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+
+        assertThat(presenceIndex.availableAt(CAMPUS_ID, friends))
+            .containsOnlyKeys(FRIEND_ID)
+            .containsEntry(FRIEND_ID, NOW.plus(Duration.ofMinutes(30)))
+    }
+
+    @Test
+    fun testAvailableAtWhenWindowPassed_thenNotIncludedBeforeExpiry() {
+        presenceIndex.markAvailable(FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(10)))
+
+        clock.instant = NOW.plus(Duration.ofMinutes(10))
+
+        assertThat(presenceIndex.availableAt(CAMPUS_ID, friends)).isEmpty()
+    }
+
+    @Test
+    fun testMarkAvailableAtOtherCampus_thenMovesUser() {
+        presenceIndex.markAvailable(FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+        presenceIndex.markAvailable(FRIEND_ID, OTHER_CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+
+        assertThat(presenceIndex.availableAt(CAMPUS_ID, friends)).isEmpty()
+        assertThat(presenceIndex.availableAt(OTHER_CAMPUS_ID, friends)).containsOnlyKeys(FRIEND_ID)
+        assertThat(presenceIndex.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testMarkUnavailable_thenNotIncluded() {
+        presenceIndex.markAvailable(FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(30)))
+
+        presenceIndex.markUnavailable(FRIEND_ID)
+
+        assertThat(presenceIndex.availableAt(CAMPUS_ID, friends)).isEmpty()
+        assertThat(presenceIndex.size).isZero
+    }
+
+    @Test
+    fun testExpire_thenRemovesOnlyUsersPastTheirLatestWindow() {
+        presenceIndex.markAvailable(FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(5)))
+        presenceIndex.markAvailable(OTHER_FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(5)))
+        presenceIndex.markAvailable(OTHER_FRIEND_ID, CAMPUS_ID, NOW.plus(Duration.ofMinutes(20)))
+
+        clock.instant = NOW.plus(Duration.ofMinutes(10))
+
+        assertThat(presenceIndex.expire()).isEqualTo(1)
+        assertThat(presenceIndex.size).isEqualTo(1)
+        assertThat(presenceIndex.availableAt(CAMPUS_ID, friends)).containsOnlyKeys(OTHER_FRIEND_ID)
+    }
+
+    private class MutableClock(var instant: Instant) : Clock() {
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId): Clock = this
+
+        override fun instant(): Instant = instant
+    }
+
+    companion object {
+        val NOW: Instant = Instant.parse("2021-05-01T12:00:00Z")
+        const val CAMPUS_ID = 1L
+        const val OTHER_CAMPUS_ID = 2L
+        const val FRIEND_ID = 10L
+        const val OTHER_FRIEND_ID = 11L
+        const val STRANGER_ID = 12L
+    }
+}
@@ -0,0 +1,125 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.config.EventuateTestConfig
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.Invitation
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.domain.user.User
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.context.annotation.Import
+import org.springframework.data.domain.PageRequest
+import org.springframework.test.context.ActiveProfiles
+import java.time.LocalDateTime
+import java.util.*
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EventuateTestConfig::class)
+internal class CoffeeBreakRepositoryTest {
+
+    @Autowired
+    private lateinit var entityManager: TestEntityManager
+
+    @Autowired
+    private lateinit var coffeeBreakRepository: CoffeeBreakRepository
+
+    private lateinit var campus: Campus
+    private lateinit var otherCampus: Campus
+    private lateinit var requester: User
+
+    @BeforeEach
+    fun setUp() {
+        val university = entityManager.persistAndFlush(University(name = "NTNU"))
+        campus = entityManager.persistAndFlush(Campus(name = "Gløshaugen", university = university))
+        otherCampus = entityManager.persistAndFlush(Campus(name = "Dragvoll", university = university))
+        requester = entityManager.persistAndFlush(User(id = REQUESTER_ID, email = "requester@test.com"))
+        entityManager.persistAndFlush(User(id = ADDRESSEE_ID, email = "addressee@test.com"))
+    }
+
+    @Test
+    fun testFindScheduledAtCampus_thenReturnsBreaksInRangeInTimeOrder() {
+        val late = persistCoffeeBreak(campus, NOON.plusHours(2))
+        val early = persistCoffeeBreak(campus, NOON.plusHours(1))
+        persistCoffeeBreak(campus, NOON.plusHours(5))
+        persistCoffeeBreak(otherCampus, NOON.plusHours(1))
+
+        val coffeeBreaks = coffeeBreakRepository.findScheduledAtCampus(
+            REQUESTER_ID, campus.id!!, NOON, NOON.plusHours(3), PageRequest.of(0, 10)
+        )
+
+        assertThat(coffeeBreaks.map { it.id }).containsExactly(early.id, late.id)
+    }
+
+    @Test
+    fun testFindScheduledAtCampus_thenOnlyReturnsBreaksUserRequestedOrIsInvitedTo() {
+        val invited = persistCoffeeBreak(campus, NOON.plusHours(1), ADDRESSEE_ID)
+        persistCoffeeBreak(campus, NOON.plusHours(2))
+
+        val asAddressee = coffeeBreakRepository.findScheduledAtCampus(
+            ADDRESSEE_ID, campus.id!!, NOON, NOON.plusHours(3), PageRequest.of(0, 10)
+        )
+        val asStranger = coffeeBreakRepository.findScheduledAtCampus(
+            STRANGER_ID, campus.id!!, NOON, NOON.plusHours(3), PageRequest.of(0, 10)
+        )
+
+        assertThat(asAddressee.map { it.id }).containsExactly(invited.id)
+        assertThat(asStranger).isEmpty()
+    }
+
+    @Test
+    fun testFindInvitedTo_thenReturnsOnlyBreaksAddressedToUser() {
+        val invited = persistCoffeeBreak(campus, NOON.plusHours(1), ADDRESSEE_ID)
+        persistCoffeeBreak(campus, NOON.plusHours(2))
+        persistCoffeeBreak(otherCampus, NOON.plusDays(2), ADDRESSEE_ID)
+
+        val coffeeBreaks = coffeeBreakRepository.findInvitedTo(
+            ADDRESSEE_ID, NOON, NOON.plusDays(1), PageRequest.of(0, 10)
+        )
+
+        assertThat(coffeeBreaks.map { it.id }).containsExactly(invited.id)
+    }
+
+    @Test
+    fun testFindAddressees_thenReturnsAddresseeIdsPerBreak() {
+        val invited = persistCoffeeBreak(campus, NOON.plusHours(1), ADDRESSEE_ID)
+        val notInvited = persistCoffeeBreak(campus, NOON.plusHours(1))
+
+        val addressees = coffeeBreakRepository.findAddressees(listOf(invited.id!!, notInvited.id!!))
+
+        assertThat(addressees.map { it.getCoffeeBreakId() to it.getAddresseeId() })
+            .containsExactly(invited.id to ADDRESSEE_ID)
+    }
+
+    @Test
+    fun testFindScheduledFromCreatedSince_thenSkipsStartedBreaks() {
+        val upcoming = persistCoffeeBreak(campus, NOON.plusHours(1))
+        persistCoffeeBreak(campus, NOON.minusHours(1))
+
+        val coffeeBreaks = coffeeBreakRepository.findScheduledFromCreatedSince(NOON, Date(0))
+
+        assertThat(coffeeBreaks.map { it.id }).containsExactly(upcoming.id)
+    }
+
+    private fun persistCoffeeBreak(campus: Campus, scheduledTo: LocalDateTime, vararg addresseeIds: Long) =
+        entityManager.persistAndFlush(
+            CoffeeBreak(
+                scheduledTo = scheduledTo,
+                requester = requester,
+                invitations = addresseeIds.mapTo(HashSet()) { Invitation(it, scheduledTo) },
+                campus = campus
+            )
+        )
+
+    companion object {
+        const val REQUESTER_ID = 1L
+        const val ADDRESSEE_ID = 2L
+        const val STRANGER_ID = 3L
+        val NOON: LocalDateTime = LocalDateTime.of(2021, 5, 1, 12, 0)
+    }
+}
@@ -0,0 +1,155 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.config.EventuateTestConfig
+import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipCounter
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.user.User
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.context.annotation.Import
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.springframework.transaction.PlatformTransactionManager
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.springframework.transaction.support.TransactionTemplate
+import org.testcontainers.containers.MySQLContainer
+import org.testcontainers.junit.jupiter.Container
+import org.testcontainers.junit.jupiter.Testcontainers
+import org.testcontainers.utility.DockerImageName
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs against MySQL, since the counters are upserted with MySQL's ON DUPLICATE KEY UPDATE.
+ * Skipped without Docker.
+ */
+@DataJpaTest(properties = ["spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"])
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(EventuateTestConfig::class)
+@Testcontainers(disabledWithoutDocker = true)
+internal class FriendshipCounterRepositoryTest {
+
+    @Autowired
+    private lateinit var entityManager: TestEntityManager
+
+    @Autowired
+    private lateinit var friendshipCounterRepository: FriendshipCounterRepository
+
+    @Autowired
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    @Autowired
+    private lateinit var transactionManager: PlatformTransactionManager
+
+    @Test
+    fun testIncrementAllWhenCounterExists_thenAddsDeltas() {
+        entityManager.persistAndFlush(User(id = USER_ID))
+        entityManager.persistAndFlush(FriendshipCounter(userId = USER_ID, friendsCount = 2, incomingRequestsCount = 1))
+
+        friendshipCounterRepository.incrementAll(listOf(USER_ID), 1, -1, 1)
+        entityManager.clear()
+
+        assertThat(friendshipCounterRepository.findById(USER_ID)).contains(
+            FriendshipCounter(userId = USER_ID, friendsCount = 3, incomingRequestsCount = 0, outgoingRequestsCount = 1)
+        )
+    }
+
+    @Test
+    fun testIncrementAllWhenCounterMissing_thenCountsFromFriendshipTable() {
+        val user = entityManager.persistAndFlush(User(id = USER_ID))
+        val friend = entityManager.persistAndFlush(User(id = FRIEND_ID))
+        val requester = entityManager.persistAndFlush(User(id = REQUESTER_ID))
+        entityManager.persistAndFlush(Friendship(requester = user, addressee = friend, status = FriendshipStatus.ACCEPTED))
+        entityManager.persistAndFlush(
+            Friendship(requester = requester, addressee = user, status = FriendshipStatus.REQUESTED)
+        )
+
+        friendshipCounterRepository.incrementAll(listOf(USER_ID, FRIEND_ID), 0, 1, 0)
+        entityManager.clear()
+
+        assertThat(friendshipCounterRepository.findById(USER_ID)).contains(
+            FriendshipCounter(userId = USER_ID, friendsCount = 1, incomingRequestsCount = 1)
+        )
+        assertThat(friendshipCounterRepository.findById(FRIEND_ID)).contains(
+            FriendshipCounter(userId = FRIEND_ID, friendsCount = 1)
+        )
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    fun testIncrementAllWhenConcurrentFirstChanges_thenBothCounted() {
+        val transactionTemplate = TransactionTemplate(transactionManager)
+        transactionTemplate.execute {
+            listOf(USER_ID, FRIEND_ID, REQUESTER_ID).forEach { entityManager.persist(User(id = it)) }
+        }
+        val firstCounted = CountDownLatch(1)
+        val secondStarted = CountDownLatch(1)
+        val executor = Executors.newFixedThreadPool(2)
+
+        try {
+            val first = executor.submit {
+                transactionTemplate.execute {
+                    insertFriendship(USER_ID, FRIEND_ID)
+                    friendshipCounterRepository.incrementAll(listOf(USER_ID), 0, 0, 1)
+                    firstCounted.countDown()
+                    secondStarted.await(5, TimeUnit.SECONDS)
+                    // Lets the second transaction reach the counter row before this one commits
+                    Thread.sleep(200)
+                }
+            }
+            val second = executor.submit {
+                firstCounted.await(5, TimeUnit.SECONDS)
+                transactionTemplate.execute {
+                    insertFriendship(REQUESTER_ID, USER_ID)
+                    secondStarted.countDown()
+                    friendshipCounterRepository.incrementAll(listOf(USER_ID), 0, 1, 0)
+                }
+            }
+            first.get(10, TimeUnit.SECONDS)
+            second.get(10, TimeUnit.SECONDS)
+
+            assertThat(friendshipCounterRepository.findById(USER_ID)).contains(
+                FriendshipCounter(userId = USER_ID, incomingRequestsCount = 1, outgoingRequestsCount = 1)
+            )
+        } finally {
+            executor.shutdownNow()
+            jdbcTemplate.update("DELETE FROM friendship_counter")
+            jdbcTemplate.update("DELETE FROM friendship")
+            jdbcTemplate.update("DELETE FROM user")
+        }
+    }
+
+    private fun insertFriendship(requesterId: Long, addresseeId: Long) =
+        jdbcTemplate.update(
+            "INSERT INTO friendship (requester_id, addressee_id, status) VALUES (?, ?, ?)",
+            requesterId, addresseeId, FriendshipStatus.REQUESTED.getValue()
+        )
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val FRIEND_ID = 2L
+        private const val REQUESTER_ID = 3L
+
+        @Container
+        private val mysql = MySQLContainer<Nothing>(DockerImageName.parse("mysql:5.7"))
+
+        @DynamicPropertySource
+        @JvmStatic
+        fun datasourceProperties(registry: DynamicPropertyRegistry) {
+            registry.add("spring.datasource.url", mysql::getJdbcUrl)
+            registry.add("spring.datasource.username", mysql::getUsername)
+            registry.add("spring.datasource.password", mysql::getPassword)
+            registry.add("spring.datasource.driver-class-name") { "com.mysql.jdbc.Driver" }
+        }
+    }
+}
@@ -2,8 +2,12 @@ package com.eirsteir.coffeewithme.social.repository
 
 import com.eirsteir.coffeewithme.config.EventuateTestConfig
 import com.eirsteir.coffeewithme.social.domain.friendship.Friendship
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipId
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.university.University
 import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.dto.FriendshipCursor
+import com.eirsteir.coffeewithme.util.countStatements
 import org.assertj.core.api.Assertions
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
@@ -12,6 +16,8 @@ import org.springframework.beans.factory.annotation.Autowired
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
 import org.springframework.context.annotation.Import
+import org.springframework.dao.DataIntegrityViolationException
+import org.springframework.data.domain.PageRequest
 import org.springframework.test.context.ActiveProfiles
 import java.util.*
 
@@ -84,6 +90,146 @@ internal class FriendshipRepositoryTest {
         assertThat(friendshipFound).isEmpty
     }
 
+    @Test
+    fun testFindRequestedByUserBeforeWhenCursorAfterAllRows_thenReturnsNewestFirst() {
+        val otherUser = entityManager.persistFlushFind(User(id = 1002L))
+        entityManager.persistAndFlush(
+            Friendship(
+                id = FriendshipId(requester = requester, addressee = otherUser),
+                status = FriendshipStatus.ACCEPTED
+            )
+        )
+
+        val friendships = friendshipRepository.findRequestedByUserBefore(
+            requester.id!!, FriendshipStatus.ACCEPTED, FriendshipCursor.FIRST.createdDateTime,
+            FriendshipCursor.FIRST.otherUserId, PageRequest.of(0, 10)
+        )
+
+        assertThat(friendships.map { it.addressee!!.id }).containsExactly(otherUser.id, addressee.id)
+    }
+
+    @Test
+    fun testFindRequestedByUserBeforeWhenCursorAtFirstRow_thenSkipsIt() {
+        val friendship = friendshipRepository.findByIdRequesterIdAndIdAddresseeId(requester.id!!, addressee.id!!).get()
+
+        val friendships = friendshipRepository.findRequestedByUserBefore(
+            requester.id!!, FriendshipStatus.ACCEPTED, friendship.createdDateTime!!, addressee.id!!,
+            PageRequest.of(0, 10)
+        )
+
+        assertThat(friendships).isEmpty()
+    }
+
+    @Test
+    fun testFindRequestedOfUserBefore() {
+        val friendships = friendshipRepository.findRequestedOfUserBefore(
+            addressee.id!!, FriendshipStatus.ACCEPTED, FriendshipCursor.FIRST.createdDateTime,
+            FriendshipCursor.FIRST.otherUserId, PageRequest.of(0, 10)
+        )
+
+        assertThat(friendships.map { it.requester!!.id }).containsExactly(requester.id)
+    }
+
+    @Test
+    fun testFindFriendPageWhenUsersAttendUniversities_thenOneStatementPerDirection() {
+        val university = entityManager.persistAndFlush(University(name = "NTNU"))
+        val student = entityManager.persistAndFlush(User(id = 1010L, university = university))
+        (1011L..1013L).forEach {
+            val friend = entityManager.persistAndFlush(User(id = it, university = university))
+            entityManager.persistAndFlush(
+                Friendship(requester = student, addressee = friend, status = FriendshipStatus.ACCEPTED)
+            )
+            entityManager.persistAndFlush(
+                Friendship(requester = friend, addressee = student, status = FriendshipStatus.REQUESTED)
+            )
+        }
+
+        val statements = entityManager.countStatements {
+            val requestedByUser = friendshipRepository.findRequestedByUserBefore(
+                student.id!!, FriendshipStatus.ACCEPTED, FriendshipCursor.FIRST.createdDateTime,
+                FriendshipCursor.FIRST.otherUserId, PageRequest.of(0, 10)
+            )
+            val requestedOfUser = friendshipRepository.findRequestedOfUserBefore(
+                student.id!!, FriendshipStatus.REQUESTED, FriendshipCursor.FIRST.createdDateTime,
+                FriendshipCursor.FIRST.otherUserId, PageRequest.of(0, 10)
+            )
+            (requestedByUser + requestedOfUser).forEach {
+                assertThat(it.requester!!.university!!.name).isEqualTo("NTNU")
+                assertThat(it.addressee!!.university!!.name).isEqualTo("NTNU")
+            }
+            assertThat(requestedByUser).hasSize(3)
+            assertThat(requestedOfUser).hasSize(3)
+        }
+
+        assertThat(statements).isEqualTo(2)
+    }
+
+    @Test
+    fun testFindRelatedUserIdsIncludesBothDirections() {
+        val otherUser = entityManager.persistFlushFind(User(id = 1002L))
+        val unrelatedUser = entityManager.persistFlushFind(User(id = 1003L))
+        entityManager.persistAndFlush(
+            Friendship(requester = otherUser, addressee = requester, status = FriendshipStatus.REQUESTED)
+        )
+
+        val relatedIds = friendshipRepository.findRelatedUserIds(
+            requester.id!!, listOf(addressee.id!!, otherUser.id!!, unrelatedUser.id!!)
+        )
+
+        assertThat(relatedIds.map { it.toLong() }).containsExactlyInAnyOrder(addressee.id, otherUser.id)
+    }
+
+    @Test
+    fun testInsertWhenFriendshipExists_thenFailsInsteadOfOverwriting() {
+        entityManager.clear()
+        val requester = entityManager.find(User::class.java, requester.id)
+        val addressee = entityManager.find(User::class.java, addressee.id)
+
+        Assertions.assertThatExceptionOfType(DataIntegrityViolationException::class.java).isThrownBy {
+            friendshipRepository.insert(
+                Friendship(requester = requester, addressee = addressee, status = FriendshipStatus.REQUESTED)
+            )
+        }
+    }
+
+    @Test
+    fun testInsertAll() {
+        val otherUser = entityManager.persistFlushFind(User(id = 1002L))
+        val anotherUser = entityManager.persistFlushFind(User(id = 1003L))
+
+        friendshipRepository.insertAll(
+            listOf(
+                Friendship(requester = requester, addressee = otherUser, status = FriendshipStatus.REQUESTED),
+                Friendship(requester = requester, addressee = anotherUser, status = FriendshipStatus.REQUESTED)
+            )
+        )
+        entityManager.clear()
+
+        val friendsFound = friendshipRepository.findByUserAndStatus(requester.id!!, FriendshipStatus.REQUESTED)
+
+        assertThat(friendsFound.map { it.addressee!!.id }).containsExactlyInAnyOrder(otherUser.id, anotherUser.id)
+    }
+
+    @Test
+    fun testUpdatePendingRequestsOnlyUpdatesRequestedFriendships() {
+        val otherUser = entityManager.persistFlushFind(User(id = 1002L))
+        entityManager.persistAndFlush(
+            Friendship(requester = otherUser, addressee = addressee, status = FriendshipStatus.REQUESTED)
+        )
+        val requesterIds = listOf(requester.id!!, otherUser.id!!)
+
+        val pendingIds = friendshipRepository.lockPendingRequesterIds(addressee.id!!, requesterIds)
+        val updated = friendshipRepository.updatePendingRequests(
+            addressee.id!!, requesterIds, FriendshipStatus.ACCEPTED, Date()
+        )
+        entityManager.clear()
+
+        assertThat(pendingIds.map { it.toLong() }).containsExactly(otherUser.id)
+        assertThat(updated).isEqualTo(1)
+        assertThat(friendshipRepository.findByIdRequesterIdAndIdAddresseeId(otherUser.id!!, addressee.id!!).get().status)
+            .isEqualTo(FriendshipStatus.ACCEPTED)
+    }
+
     companion object {
         private val REQUESTER_NICKNAME: String = "requester"
         private val ADDRESSEE_NICKNAME: String = "addressee"
@@ -0,0 +1,98 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.config.EventuateTestConfig
+import org.assertj.core.api.Assertions.assertThat
+import org.flywaydb.core.Flyway
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.context.annotation.Import
+import org.springframework.jdbc.core.JdbcTemplate
+import org.springframework.test.context.ActiveProfiles
+import org.springframework.test.context.DynamicPropertyRegistry
+import org.springframework.test.context.DynamicPropertySource
+import org.springframework.transaction.annotation.Propagation
+import org.springframework.transaction.annotation.Transactional
+import org.testcontainers.containers.MySQLContainer
+import org.testcontainers.junit.jupiter.Container
+import org.testcontainers.junit.jupiter.Testcontainers
+import org.testcontainers.utility.DockerImageName
+
+/**
+ * Runs the Flyway migrations against MySQL and lets Hibernate validate the entities against the
+ * resulting schema, which the other tests create from the entities instead. Skipped without Docker.
+ */
+@DataJpaTest(properties = ["spring.flyway.enabled=true", "spring.jpa.hibernate.ddl-auto=validate"])
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Import(EventuateTestConfig::class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+internal class SchemaMigrationTest {
+
+    @Autowired
+    private lateinit var flyway: Flyway
+
+    @Autowired
+    private lateinit var jdbcTemplate: JdbcTemplate
+
+    @Test
+    fun testMigrate_thenAllMigrationsAppliedAndEntitiesValidate() {
+        assertThat(flyway.info().pending()).isEmpty()
+        assertThat(flyway.info().current().version.version).isEqualTo(LATEST_VERSION)
+    }
+
+    @Test
+    fun testMigrateWhenIndexesAlreadyExist_thenSucceeds() {
+        flyway.clean()
+        jdbcTemplate.execute("create table user (id bigint not null, updated_date_time datetime(6), primary key (id))")
+        jdbcTemplate.execute(
+            """
+            create table friendship (
+                requester_id      bigint not null,
+                addressee_id      bigint not null,
+                status            integer,
+                created_date_time datetime(6),
+                updated_date_time datetime(6),
+                primary key (requester_id, addressee_id)
+            )
+            """
+        )
+        jdbcTemplate.execute(
+            "create index ix_friendship_requester_status_created " +
+                    "on friendship (requester_id, status, created_date_time, addressee_id)"
+        )
+
+        flyway.migrate()
+
+        assertThat(flyway.info().current().version.version).isEqualTo(LATEST_VERSION)
+        assertThat(indexesOf("friendship")).contains(
+            "ix_friendship_requester_status_created", "ix_friendship_addressee_status_created"
+        )
+    }
+
+    private fun indexesOf(table: String) =
+        jdbcTemplate.queryForList(
+            "select distinct index_name from information_schema.statistics " +
+                    "where table_schema = database() and table_name = ?",
+            String::class.java,
+            table
+        )
+
+    companion object {
+        private const val LATEST_VERSION = "7"
+
+        @Container
+        private val mysql = MySQLContainer<Nothing>(DockerImageName.parse("mysql:5.7"))
+
+        @DynamicPropertySource
+        @JvmStatic
+        fun datasourceProperties(registry: DynamicPropertyRegistry) {
+            registry.add("spring.datasource.url", mysql::getJdbcUrl)
+            registry.add("spring.datasource.username", mysql::getUsername)
+            registry.add("spring.datasource.password", mysql::getPassword)
+            registry.add("spring.datasource.driver-class-name") { "com.mysql.jdbc.Driver" }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.eirsteir.coffeewithme.social.repository
+
+import com.eirsteir.coffeewithme.config.EventuateTestConfig
+import com.eirsteir.coffeewithme.social.config.CacheConfiguration
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
+import com.eirsteir.coffeewithme.social.web.actuator.EntityCacheEndpoint
+import com.eirsteir.coffeewithme.util.countStatements
+import org.hibernate.SessionFactory
+import org.hibernate.metamodel.spi.MetamodelImplementor
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.springframework.beans.factory.annotation.Autowired
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+import org.springframework.context.annotation.Import
+import org.springframework.test.context.ActiveProfiles
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(EventuateTestConfig::class, CacheConfiguration::class)
+internal class UniversityRepositoryTest {
+
+    @Autowired
+    private lateinit var entityManager: TestEntityManager
+
+    @Autowired
+    private lateinit var universityRepository: UniversityRepository
+
+    @Autowired
+    private lateinit var entityCacheEndpoint: EntityCacheEndpoint
+
+    @BeforeEach
+    fun setUp() {
+        val ntnu = entityManager.persistAndFlush(University(name = "NTNU"))
+        entityManager.persistAndFlush(Campus(name = "Gløshaugen", university = ntnu))
+        entityManager.persistAndFlush(Campus(name = "Dragvoll", university = ntnu))
+        val uio = entityManager.persistAndFlush(University(name = "UiO"))
+        entityManager.persistAndFlush(Campus(name = "Blindern", university = uio))
+        entityManager.persistAndFlush(University(name = "NHH"))
+    }
+
+    @Test
+    fun testFindAllWithCampuses_thenFetchesCampusesInOneStatement() {
+        val statements = entityManager.countStatements {
+            val universities = universityRepository.findAllWithCampuses()
+            assertThat(universities.associate { it.name to it.campuses.size })
+                .containsExactlyInAnyOrderEntriesOf(mapOf("NTNU" to 2, "UiO" to 1, "NHH" to 0))
+        }
+
+        assertThat(statements).isEqualTo(1)
+    }
+
+    @Test
+    fun testPersistCampuses_thenIdsComeFromAllocatedBlockAndInsertsAreBatched() {
+        val university = universityRepository.findAll().first { it.name == "NHH" }
+
+        val statements = entityManager.countStatements {
+            (1..3).forEach { entityManager.persist(Campus(name = "Campus $it", university = university)) }
+            entityManager.flush()
+        }
+
+        assertThat(statements).isEqualTo(1)
+    }
+
+    @Test
+    fun testReferenceDataIsCachedInSecondLevelCache() {
+        val metamodel = entityManager.entityManager.entityManagerFactory
+            .unwrap(SessionFactory::class.java).metamodel as MetamodelImplementor
+
+        assertThat(metamodel.entityPersister(University::class.java).hasCache()).isTrue
+        assertThat(metamodel.entityPersister(Campus::class.java).hasCache()).isTrue
+        assertThat(metamodel.collectionPersister("${University::class.java.name}.campuses").hasCache()).isTrue
+    }
+
+    @Test
+    fun testEvictRegion_thenEvictsOnlyKnownRegions() {
+        assertThat(entityCacheEndpoint.regions()).containsKeys(University::class.java.name, Campus::class.java.name)
+        assertThat(entityCacheEndpoint.evict(University::class.java.name)).isTrue
+        assertThat(entityCacheEndpoint.evict("unknown")).isFalse
+    }
+}
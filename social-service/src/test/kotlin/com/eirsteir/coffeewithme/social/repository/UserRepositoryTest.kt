@@ -1,11 +1,14 @@
 package com.eirsteir.coffeewithme.social.repository
 
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
 import com.eirsteir.coffeewithme.config.EventuateTestConfig
 import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.university.Campus
+import com.eirsteir.coffeewithme.social.domain.university.University
 import com.eirsteir.coffeewithme.social.domain.user.User
-import com.eirsteir.coffeewithme.social.repository.rsql.RqslVisitorImpl
-import cz.jirutka.rsql.parser.RSQLParser
-import cz.jirutka.rsql.parser.ast.Node
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlSpecificationCache
+import com.eirsteir.coffeewithme.util.countStatements
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
 import org.assertj.core.api.Assertions
 import org.assertj.core.api.Assertions.assertThat
 import org.junit.jupiter.api.BeforeEach
@@ -97,10 +100,18 @@ internal class UserRepositoryTest {
         assertThat(foundUser).isEmpty()
     }
 
+    @Test
+    fun testSpecificationForWhenQueriedTwice_thenReusesSpecification() {
+        val userSearchSpecifications = userSearchSpecifications()
+
+        val spec = userSearchSpecifications.specificationFor("name=='john doe'")
+
+        assertThat(userSearchSpecifications.specificationFor(" name=='john doe' ")).isSameAs(spec)
+    }
+
     @Test
     fun testFindAllGivenNameWhenGettingListOfUsers_thenReturnMatchingUsers() {
-        val rootNode = RSQLParser().parse("name=='john doe'")
-        val spec = rootNode.accept(RqslVisitorImpl<User>())
+        val spec = userSearchSpecifications().specificationFor("name=='john doe'")
         val results = userRepository.findAll(spec)
 
         assertThat(userJohn).isIn(results)
@@ -109,8 +120,7 @@ internal class UserRepositoryTest {
 
     @Test
     fun testFindAllGivenFirstNameNegation_thenReturnMatchingUsers() {
-        val rootNode = RSQLParser().parse("name!='john doe'")
-        val spec = rootNode.accept(RqslVisitorImpl<User>())
+        val spec = userSearchSpecifications().specificationFor("name!='john doe'")
         val results = userRepository.findAll(spec)
 
         assertThat(userTom).isIn(results)
@@ -119,8 +129,7 @@ internal class UserRepositoryTest {
 
     @Test
     fun testFindAllGivenNamePrefix_thenReturnMatchingUsers() {
-        val rootNode = RSQLParser().parse("name==jo*")
-        val spec = rootNode.accept(RqslVisitorImpl<User>())
+        val spec = userSearchSpecifications().specificationFor("name==jo*")
         val results = userRepository.findAll(spec)
 
         assertThat(userJohn).isIn(results)
@@ -129,14 +138,63 @@ internal class UserRepositoryTest {
 
     @Test
     fun testFindAllGivenListOfName_thenReturnMatchingUsers() {
-        val rootNode = RSQLParser().parse("name=in=('john doe',jack)")
-        val spec = rootNode.accept(RqslVisitorImpl<User>())
+        val spec = userSearchSpecifications().specificationFor("name=in=('john doe',jack)")
         val results = userRepository.findAll(spec)
 
         assertThat(userJohn).isIn(results)
         assertThat(userTom).isNotIn(results)
     }
 
+    @Test
+    fun testFindUserIdsAmongGivenNameSuffix_thenReturnsOnlyMatchesAmongIds() {
+        val spec = userSearchSpecifications().specificationFor("name==*doe")
+
+        val ids = userRepository.findUserIdsAmong(spec, listOf(userTom.id!!, userPercy.id!!))
+
+        assertThat(ids).containsExactly(userTom.id)
+    }
+
+    @Test
+    fun testFindProfileById_thenFetchesUniversityAndCampusesInOneStatement() {
+        val university = persistUniversityWithCampuses()
+        entityManager.persistAndFlush(User(id = 10L, nickname = "student", university = university))
+
+        lateinit var profile: User
+        val statements = entityManager.countStatements {
+            profile = userRepository.findProfileById(10L).get()
+            assertThat(profile.university!!.campuses.map { it.name }).containsExactlyInAnyOrder(*CAMPUS_NAMES)
+        }
+
+        assertThat(statements).isEqualTo(1)
+    }
+
+    @Test
+    fun testFindWithUniversityByIdIn_thenFetchesUniversitiesInOneStatement() {
+        val university = persistUniversityWithCampuses()
+        val otherUniversity = entityManager.persistAndFlush(University(name = "UiO"))
+        entityManager.persistAndFlush(User(id = 10L, university = university))
+        entityManager.persistAndFlush(User(id = 11L, university = otherUniversity))
+
+        val statements = entityManager.countStatements {
+            val users = userRepository.findWithUniversityByIdIn(listOf(10L, 11L, REQUESTER_ID))
+            assertThat(users.mapNotNull { it.university?.name }).containsExactlyInAnyOrder("NTNU", "UiO")
+        }
+
+        assertThat(statements).isEqualTo(1)
+    }
+
+    @Test
+    fun testFindAllUserDetailsByIdIn_thenReadsDisplayFieldsInOneStatement() {
+        entityManager.persistAndFlush(User(id = 10L, name = "Student", nickname = "student"))
+
+        val statements = entityManager.countStatements {
+            assertThat(userRepository.findAllUserDetailsByIdIn(listOf(10L, 100L)))
+                .containsExactly(UserDetails(10L, "Student", "student"))
+        }
+
+        assertThat(statements).isEqualTo(1)
+    }
+
     @Test
     fun testFindFriendsWhenUserHasFriends_thenReturnFriends() {
     }
@@ -153,6 +211,16 @@ internal class UserRepositoryTest {
     fun testFindFriendsOfWhenUserHasNoFriendsOf_thenReturnEmptyList() {
     }
 
+    private fun persistUniversityWithCampuses(): University {
+        val university = entityManager.persistAndFlush(University(name = "NTNU"))
+        CAMPUS_NAMES.forEach { entityManager.persistAndFlush(Campus(name = it, university = university)) }
+        return university
+    }
+
+    private fun userSearchSpecifications() = RsqlSpecificationCache(
+        entityManager.entityManager.metamodel.entity(User::class.java), SimpleMeterRegistry()
+    )
+
     companion object {
         private val EMAIL_ALEX: String = "alex@mail.com"
         private val REQUESTER_EMAIL: String = "requester@test.com"
@@ -161,5 +229,6 @@ internal class UserRepositoryTest {
         private val ADDRESSEE_NICKNAME: String = "addressee"
         private val OTHER_USER_EMAIL: String = "other-user@test.com"
         private val OTHER_USER_NICKNAME: String = "other-user"
+        private val CAMPUS_NAMES = arrayOf("Gløshaugen", "Dragvoll")
     }
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.eirsteir.coffeewithme.social.repository.rsql
+
+import com.eirsteir.coffeewithme.social.repository.rsql.RsqlCostEstimator.Selector
+import cz.jirutka.rsql.parser.RSQLParser
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+
+internal class RsqlCostEstimatorTest {
+    private val parser = RSQLParser()
+    private val costEstimator = RsqlCostEstimator(
+        mapOf(
+            "id" to Selector.KEY,
+            "name" to Selector.TEXT_INDEXED,
+            "lastLogin" to Selector.UNINDEXED
+        )
+    )
+
+    @Test
+    fun testCheckGivenIndexedInfix_thenAccepted() {
+        costEstimator.check(parser.parse("name==*doe*"))
+    }
+
+    @Test
+    fun testCheckGivenLeadingWildcardWithoutTrigram_thenRejected() {
+        assertThatThrownBy { costEstimator.check(parser.parse("name==*o*")) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+            .hasMessageContaining("too expensive")
+    }
+
+    @Test
+    fun testCheckGivenUnknownSelector_thenRejected() {
+        assertThatThrownBy { costEstimator.check(parser.parse("password==secret")) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+            .hasMessageContaining("not searchable")
+    }
+
+    @Test
+    fun testEstimateGivenConjunction_thenDrivenByCheapestBranch() {
+        assertThat(costEstimator.estimate(parser.parse("id==1;lastLogin==2021*"))).isEqualTo(2)
+        costEstimator.check(parser.parse("id==1;name!=john"))
+    }
+
+    @Test
+    fun testEstimateGivenDisjunction_thenSumsBranches() {
+        assertThat(costEstimator.estimate(parser.parse("id==1,name==john,name==jo*"))).isEqualTo(11)
+        assertThatThrownBy { costEstimator.check(parser.parse("id==1,name!=john")) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+    }
+
+    @Test
+    fun testEstimateGivenInList_thenGrowsWithArguments() {
+        assertThat(costEstimator.estimate(parser.parse("id=in=(1,2,3)"))).isEqualTo(3)
+        assertThatThrownBy { costEstimator.check(parser.parse("id=in=(${(1..51).joinToString(",")})")) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+    }
+}
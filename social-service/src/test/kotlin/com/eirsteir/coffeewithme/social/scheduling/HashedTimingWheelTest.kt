@@ -0,0 +1,98 @@
+package com.eirsteir.coffeewithme.social.scheduling
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.Duration
+
+internal class HashedTimingWheelTest {
+    private var now = 0L
+    private val timingWheel = HashedTimingWheel(TICK, WHEEL_SIZE) { now }
+    private val fired = mutableListOf<String>()
+
+    @Test
+    fun testScheduleWhenDeadlineNotReached_thenNotFired() {
+        timingWheel.schedule(Duration.ofMillis(25)) { fired.add("a") }
+
+        advanceTo(Duration.ofMillis(25))
+
+        assertThat(fired).isEmpty()
+        assertThat(timingWheel.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testScheduleWhenTickAfterDeadlinePassed_thenFired() {
+        timingWheel.schedule(Duration.ofMillis(25)) { fired.add("a") }
+
+        advanceTo(Duration.ofMillis(30))
+
+        assertThat(fired).containsExactly("a")
+        assertThat(timingWheel.size).isZero
+    }
+
+    @Test
+    fun testScheduleBeyondOneTurn_thenFiredAfterRemainingRounds() {
+        val delay = TICK.multipliedBy(WHEEL_SIZE * 2L + 3)
+        val timeout = timingWheel.schedule(delay) { fired.add("a") }
+
+        advanceTo(delay.minus(TICK))
+        assertThat(fired).isEmpty()
+
+        advanceTo(delay.plus(TICK))
+        assertThat(fired).containsExactly("a")
+        assertThat(timeout.isExpired).isTrue
+    }
+
+    @Test
+    fun testScheduleWhenOverdue_thenFiredOnNextTick() {
+        advanceTo(Duration.ofMillis(100))
+
+        timingWheel.schedule(Duration.ofMillis(-50)) { fired.add("a") }
+        advanceTo(Duration.ofMillis(110))
+
+        assertThat(fired).containsExactly("a")
+    }
+
+    @Test
+    fun testCancel_thenNotFired() {
+        val timeout = timingWheel.schedule(Duration.ofMillis(25)) { fired.add("a") }
+        timingWheel.schedule(Duration.ofMillis(25)) { fired.add("b") }
+        advanceTo(Duration.ofMillis(10))
+
+        assertThat(timeout.cancel()).isTrue
+        assertThat(timingWheel.size).isEqualTo(1)
+        advanceTo(Duration.ofMillis(30))
+
+        assertThat(fired).containsExactly("b")
+        assertThat(timeout.isCancelled).isTrue
+        assertThat(timeout.cancel()).isFalse
+    }
+
+    @Test
+    fun testCancelWhenExpired_thenReturnsFalse() {
+        val timeout = timingWheel.schedule(Duration.ofMillis(5)) { fired.add("a") }
+        advanceTo(Duration.ofMillis(10))
+
+        assertThat(timeout.cancel()).isFalse
+        assertThat(timeout.isExpired).isTrue
+    }
+
+    @Test
+    fun testAdvanceWhenTaskThrows_thenOtherTimeoutsStillFire() {
+        timingWheel.schedule(Duration.ofMillis(5)) { throw IllegalStateException() }
+        timingWheel.schedule(Duration.ofMillis(5)) { fired.add("b") }
+
+        advanceTo(Duration.ofMillis(10))
+
+        assertThat(fired).containsExactly("b")
+    }
+
+    private fun advanceTo(elapsed: Duration) {
+        now = elapsed.toNanos()
+        timingWheel.advance()
+    }
+
+    companion object {
+        val TICK: Duration = Duration.ofMillis(10)
+        const val WHEEL_SIZE = 8
+    }
+}
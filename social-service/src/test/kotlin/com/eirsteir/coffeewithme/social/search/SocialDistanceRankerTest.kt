@@ -0,0 +1,54 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.search.SocialDistanceRanker.Distance
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+internal class SocialDistanceRankerTest {
+    private lateinit var ranker: SocialDistanceRanker
+
+    @BeforeEach
+    fun setUp() {
+        val friendGraph = FriendGraph()
+        ranker = SocialDistanceRanker(friendGraph, FriendBitmaps(friendGraph))
+
+        // Viewer 1 is friends with 2 and 3, user 4 shares both of them and user 5 only user 2
+        friendGraph.putEdge(VIEWER_ID, 2L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(3L, VIEWER_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(2L, 4L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(3L, 4L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(2L, 5L, FriendshipStatus.ACCEPTED)
+        friendGraph.putUniversity(VIEWER_ID, UNIVERSITY_ID)
+        friendGraph.putUniversity(7L, UNIVERSITY_ID)
+    }
+
+    @Test
+    fun testRank_thenOrderedBySocialDistance() {
+        val rankings = ranker.rank(VIEWER_ID, listOf(8L, 7L, 6L, 5L, 4L, 3L, 2L, VIEWER_ID), 10)
+
+        assertThat(rankings.map { it.userId }).containsExactly(2L, 3L, 4L, 5L, 7L, 6L, 8L)
+        assertThat(rankings.map { it.distance }).containsExactly(
+            Distance.FRIEND, Distance.FRIEND,
+            Distance.FRIEND_OF_FRIEND, Distance.FRIEND_OF_FRIEND,
+            Distance.SAME_UNIVERSITY,
+            Distance.OTHER, Distance.OTHER
+        )
+        assertThat(rankings[2].mutualFriendsCount).isEqualTo(2)
+    }
+
+    @Test
+    fun testRankWhenLimited_thenKeepsBest() {
+        val rankings = ranker.rank(VIEWER_ID, listOf(8L, 7L, 5L, 4L), 2)
+
+        assertThat(rankings.map { it.userId }).containsExactly(4L, 5L)
+    }
+
+    companion object {
+        private const val VIEWER_ID = 1L
+        private const val UNIVERSITY_ID = 10L
+    }
+}
@@ -0,0 +1,93 @@
+package com.eirsteir.coffeewithme.social.search
+
+import com.eirsteir.coffeewithme.social.dto.UserNames
+import com.eirsteir.coffeewithme.social.search.UserNameIndex.Field
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+internal class UserNameIndexTest {
+    private lateinit var userNameIndex: UserNameIndex
+
+    @BeforeEach
+    fun setUp() {
+        userNameIndex = UserNameIndex()
+        userNameIndex.put(JOHN_ID, "John Doe", "johnny")
+        userNameIndex.put(TOM_ID, "tom doe", null)
+        userNameIndex.put(PERCY_ID, "percy blackney", "perce")
+    }
+
+    @Test
+    fun testMatchGivenExactValue_thenIgnoresCase() {
+        assertThat(userNameIndex.match(Field.NAME, "john doe")).containsExactly(JOHN_ID)
+        assertThat(userNameIndex.match(Field.NAME, "john")).isEmpty()
+    }
+
+    @Test
+    fun testMatchGivenInfix_thenUsesTrigrams() {
+        assertThat(userNameIndex.match(Field.NAME, "*doe")).containsExactlyInAnyOrder(JOHN_ID, TOM_ID)
+        assertThat(userNameIndex.match(Field.NAME, "*ack*")).containsExactly(PERCY_ID)
+        assertThat(userNameIndex.match(Field.NAME, "*xyz*")).isEmpty()
+    }
+
+    @Test
+    fun testMatchGivenShortPrefix_thenUsesSortedValues() {
+        assertThat(userNameIndex.match(Field.NICKNAME, "pe*")).containsExactly(PERCY_ID)
+        assertThat(userNameIndex.match(Field.NAME, "j_hn*")).containsExactly(JOHN_ID)
+    }
+
+    @Test
+    fun testMatchGivenNoLiteralToLookUp_thenReturnsNull() {
+        assertThat(userNameIndex.match(Field.NAME, "*o*")).isNull()
+        assertThat(userNameIndex.match(Field.NAME, "*")).isNull()
+    }
+
+    @Test
+    fun testPutWhenValueChanges_thenOldValueIsUnindexed() {
+        userNameIndex.put(JOHN_ID, "John Doe", "jd")
+
+        assertThat(userNameIndex.match(Field.NICKNAME, "joh*")).isEmpty()
+        assertThat(userNameIndex.match(Field.NICKNAME, "jd")).containsExactly(JOHN_ID)
+    }
+
+    @Test
+    fun testStartingWith_thenOrderedByValueAndLimited() {
+        userNameIndex.put(4L, "tom adams", null)
+
+        assertThat(userNameIndex.startingWith(Field.NAME, "TOM", 10)).containsExactly(4L, TOM_ID)
+        assertThat(userNameIndex.startingWith(Field.NAME, "tom", 1)).containsExactly(4L)
+    }
+
+    @Test
+    fun testLoad_thenReplacesNamesAndKeepsThosePutWhileLoading() {
+        assertThat(userNameIndex.isLoaded).isFalse
+
+        userNameIndex.load(listOf(names(JOHN_ID, "John Doe", "johnny"), names(4L, "tom adams", null)))
+
+        assertThat(userNameIndex.isLoaded).isTrue
+        assertThat(userNameIndex.match(Field.NAME, "tom doe")).containsExactly(TOM_ID)
+        assertThat(userNameIndex.match(Field.NAME, "tom adams")).containsExactly(4L)
+    }
+
+    @Test
+    fun testPutAfterLoad_thenNotReplayedByLaterLoad() {
+        userNameIndex.load(listOf())
+        userNameIndex.put(4L, "tom adams", null)
+
+        userNameIndex.load(listOf())
+
+        assertThat(userNameIndex.match(Field.NAME, "tom adams")).isEmpty()
+    }
+
+    private fun names(userId: Long, name: String?, nickname: String?) = object : UserNames {
+        override fun getUserId() = userId
+        override fun getName() = name
+        override fun getNickname() = nickname
+    }
+
+    companion object {
+        private const val JOHN_ID = 1L
+        private const val TOM_ID = 2L
+        private const val PERCY_ID = 3L
+    }
+}
@@ -0,0 +1,49 @@
+package com.eirsteir.coffeewithme.social.security
+
+import com.eirsteir.coffeewithme.commons.security.JwtConfig
+import com.eirsteir.coffeewithme.commons.security.JwtUtils
+import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.springframework.mock.web.MockFilterChain
+import org.springframework.mock.web.MockHttpServletRequest
+import org.springframework.mock.web.MockHttpServletResponse
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.authority.SimpleGrantedAuthority
+import org.springframework.security.core.context.SecurityContextHolder
+
+internal class JwtTokenAuthenticationFilterTest {
+    private val jwtConfig = JwtConfig("/auth", "Authorization", "Bearer ", 60, "JwtSecretKey")
+    private val filter = JwtTokenAuthenticationFilter(jwtConfig)
+
+    @AfterEach
+    fun tearDown() = SecurityContextHolder.clearContext()
+
+    @Test
+    fun testDoFilterGivenTokenIssuedByAuthService_thenAuthenticatesWithItsNickname() {
+        val principal = UserDetailsImpl(
+            id = USER_ID,
+            email = "alex@email.com",
+            nickname = "alex",
+            roles = listOf(SimpleGrantedAuthority("ROLE_USER"))
+        )
+        // Tokens are issued through JwtUtils by the auth service
+        val token = JwtUtils.createJwtToken(
+            jwtConfig, UsernamePasswordAuthenticationToken(principal, null, principal.roles), principal
+        )
+        val request = MockHttpServletRequest()
+        request.addHeader(jwtConfig.header, jwtConfig.prefix + token)
+
+        filter.doFilter(request, MockHttpServletResponse(), MockFilterChain())
+
+        val authenticated = SecurityContextHolder.getContext().authentication.principal as UserDetailsImpl
+        assertThat(authenticated.id).isEqualTo(USER_ID)
+        assertThat(authenticated.email).isEqualTo("alex@email.com")
+        assertThat(authenticated.nickname).isEqualTo("alex")
+    }
+
+    companion object {
+        private const val USER_ID = 1L
+    }
+}
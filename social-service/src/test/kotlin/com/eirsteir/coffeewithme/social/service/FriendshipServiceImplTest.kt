@@ -49,7 +49,7 @@ internal class FriendshipServiceImplTest : BaseUnitTest() {
             .addresseeId(addressee.getId())
             .build()
         requesterDto = modelMapper.map(requester, UserDetailsDto::class.java)
-        Mockito.`when`(friendshipRepository.save(Mockito.any(Friendship::class.java))).thenReturn(friendshipRequested)
+        Mockito.`when`(friendshipRepository.insert(Mockito.any(Friendship::class.java))).thenReturn(friendshipRequested)
         Mockito.`when`(userService.findUserById(requester.getId())).thenReturn(requester)
         Mockito.`when`(userService.findUserById(addressee.getId())).thenReturn(addressee)
     }
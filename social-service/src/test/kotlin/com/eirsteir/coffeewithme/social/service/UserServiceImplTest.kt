@@ -5,6 +5,10 @@ import org.assertj.core.api.Assertions
 import org.junit.jupiter.api.Test
 import org.modelmapper.ModelMapper
 import org.springframework.context.annotation.Import
+import org.springframework.data.domain.PageRequest
+import org.springframework.data.domain.Pageable
+import org.springframework.data.domain.Slice
+import org.springframework.data.domain.SliceImpl
 import org.springframework.data.jpa.domain.Specification
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder
 import java.util.*
@@ -60,11 +64,20 @@ internal class UserServiceImplTest : BaseUnitTest() {
     private val spec: Specification<User?>? = null
     @Test
     fun testSearchUsersWithMatch_thenReturnListOfUserDto() {
-        Mockito.`when`(userRepository.findAll(Mockito.any(Specification::class.java)))
-            .thenReturn(listOf(user))
-        val results: MutableList<UserDetailsDto?> = userService.searchUsers(spec)
-        Assertions.assertThat<UserDetailsDto?>(results).hasSize(1)
-        Assertions.assertThat<UserDetailsDto?>(userDetailsDto).isIn(results)
+        Mockito.`when`(userRepository.findUserIds(Mockito.any(Specification::class.java), Mockito.anyInt()))
+            .thenReturn(listOf(user.getId()))
+        Mockito.`when`(userRepository.findAllDetailsByIdIn(Mockito.anyCollection()))
+            .thenReturn(listOf(userDetailsDto))
+        val results: Slice<UserDetailsDto> = userService.searchUsers(spec, 100L, PageRequest.of(0, 20))
+        Assertions.assertThat<UserDetailsDto?>(results.content).hasSize(1)
+        Assertions.assertThat(results.content[0].isFriend).isFalse
+    }
+
+    @Test
+    fun testSearchUsersBeyondResultCap_thenReturnEmptySlice() {
+        val results: Slice<UserDetailsDto> = userService.searchUsers(spec, 100L, PageRequest.of(50, 20))
+        Assertions.assertThat<UserDetailsDto?>(results.content).isEmpty()
+        Assertions.assertThat(results.hasNext()).isFalse
     }
 
     @Test
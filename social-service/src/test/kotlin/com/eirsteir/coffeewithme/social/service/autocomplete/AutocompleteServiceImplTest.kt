@@ -0,0 +1,85 @@
+package com.eirsteir.coffeewithme.social.service.autocomplete
+
+import com.eirsteir.coffeewithme.commons.dto.UserDetailsDto
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.search.UserNameIndex
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers
+import org.mockito.Mockito
+import org.springframework.data.domain.Pageable
+
+internal class AutocompleteServiceImplTest {
+    private lateinit var userRepository: UserRepository
+    private lateinit var autocompleteService: AutocompleteServiceImpl
+
+    @BeforeEach
+    fun setUp() {
+        val friendGraph = FriendGraph()
+        val userNameIndex = UserNameIndex()
+        userRepository = Mockito.mock(UserRepository::class.java)
+        autocompleteService = AutocompleteServiceImpl(
+            userNameIndex, friendGraph, FriendBitmaps(friendGraph), userRepository
+        )
+
+        val names = mapOf(
+            USER_ID to "anna smith",
+            2L to "andrew jones",
+            3L to "anders berg",
+            4L to "andy at another university"
+        )
+        userNameIndex.load(listOf())
+        names.forEach { (id, name) -> userNameIndex.put(id, name, null) }
+        (1L..3L).forEach { friendGraph.putUniversity(it, UNIVERSITY_ID) }
+        friendGraph.putUniversity(4L, OTHER_UNIVERSITY_ID)
+
+        Mockito.`when`(userRepository.findAllDetailsByIdIn(ArgumentMatchers.anyCollection()))
+            .thenAnswer { invocation ->
+                invocation.getArgument<Collection<Long>>(0).map { UserDetailsDto(id = it, name = names[it]) }
+            }
+    }
+
+    @Test
+    fun testCompleteUsers_thenScopedToUniversityAndExcludesCaller() {
+        val completions = autocompleteService.completeUsers(USER_ID, "An", 10)
+
+        assertThat(completions.map { it.id }).containsExactly(3L, 2L)
+    }
+
+    @Test
+    fun testCompleteUsersWhenPrefixExtended_thenAnsweredFromCache() {
+        autocompleteService.completeUsers(USER_ID, "an", 10)
+
+        val completions = autocompleteService.completeUsers(USER_ID, "andr", 10)
+
+        assertThat(completions.map { it.id }).containsExactly(2L)
+        Mockito.verify(userRepository, Mockito.times(1)).findAllDetailsByIdIn(ArgumentMatchers.anyCollection())
+    }
+
+    @Test
+    fun testCompleteUsersWhenIndexNotLoaded_thenReadsFromDatabase() {
+        val friendGraph = FriendGraph()
+        friendGraph.putUniversity(USER_ID, UNIVERSITY_ID)
+        autocompleteService = AutocompleteServiceImpl(
+            UserNameIndex(), friendGraph, FriendBitmaps(friendGraph), userRepository
+        )
+        Mockito.`when`(
+            userRepository.findAllDetailsByNameStartingWith(
+                Mockito.eq("an!_"), Mockito.eq(UNIVERSITY_ID), Mockito.any(Pageable::class.java)
+            )
+        ).thenReturn(listOf(UserDetailsDto(id = 2L, name = "an_drew jones")))
+
+        val completions = autocompleteService.completeUsers(USER_ID, "An_", 10)
+
+        assertThat(completions.map { it.id }).containsExactly(2L)
+    }
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val UNIVERSITY_ID = 10L
+        private const val OTHER_UNIVERSITY_ID = 20L
+    }
+}
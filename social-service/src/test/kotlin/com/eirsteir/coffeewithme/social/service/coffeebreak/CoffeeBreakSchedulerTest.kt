@@ -0,0 +1,151 @@
+package com.eirsteir.coffeewithme.social.service.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakExpiredEvent
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakReminderEvent
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.CoffeeBreak
+import com.eirsteir.coffeewithme.social.domain.coffeebreak.ScheduledTimer
+import com.eirsteir.coffeewithme.social.repository.ScheduledTimerRepository
+import com.eirsteir.coffeewithme.social.scheduling.HashedTimingWheel
+import io.eventuate.tram.events.common.DomainEvent
+import io.eventuate.tram.events.publisher.DomainEventPublisher
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentCaptor
+import org.mockito.Mockito
+import org.springframework.data.domain.Pageable
+import org.springframework.transaction.support.TransactionOperations
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+import java.util.*
+
+internal class CoffeeBreakSchedulerTest {
+    private var elapsed = Duration.ZERO
+    private val timingWheel = HashedTimingWheel(TICK, 64) { elapsed.toNanos() }
+    private val scheduledTimerRepository = Mockito.mock(ScheduledTimerRepository::class.java)
+    private val domainEventPublisher = Mockito.mock(DomainEventPublisher::class.java)
+
+    private val coffeeBreakScheduler = CoffeeBreakScheduler(
+        timingWheel,
+        scheduledTimerRepository,
+        domainEventPublisher,
+        TransactionOperations.withoutTransaction(),
+        { it.run() },
+        REMINDER_LEAD,
+        Clock.fixed(NOW, ZoneOffset.UTC)
+    )
+
+    @BeforeEach
+    fun setUp() {
+        Mockito.`when`(scheduledTimerRepository.saveAll(Mockito.anyIterable<ScheduledTimer>()))
+            .thenAnswer { invocation ->
+                invocation.getArgument<Iterable<ScheduledTimer>>(0).mapIndexed { i, timer -> timer.copy(id = i + 1L) }
+            }
+        Mockito.`when`(scheduledTimerRepository.deleteFired(Mockito.anyLong())).thenReturn(1)
+    }
+
+    @Test
+    fun testSchedule_thenPublishesReminderAndExpiryWhenDue() {
+        coffeeBreakScheduler.schedule(COFFEE_BREAK_ID, NOW.plus(Duration.ofMinutes(30)))
+
+        advanceTo(Duration.ofMinutes(25).plus(TICK))
+        assertThat(publishedEvents()).hasSize(1).allMatch { it is CoffeeBreakReminderEvent }
+
+        advanceTo(Duration.ofMinutes(30).plus(TICK))
+        assertThat(publishedEvents()).hasSize(2).last().isInstanceOf(CoffeeBreakExpiredEvent::class.java)
+    }
+
+    @Test
+    fun testScheduleWhenStartingWithinReminderLead_thenOnlyExpiryIsStored() {
+        coffeeBreakScheduler.schedule(COFFEE_BREAK_ID, NOW.plus(Duration.ofMinutes(2)))
+
+        assertThat(timingWheel.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testFireWhenAlreadyFiredByAnotherNode_thenNotPublished() {
+        Mockito.`when`(scheduledTimerRepository.deleteFired(Mockito.anyLong())).thenReturn(0)
+        coffeeBreakScheduler.schedule(COFFEE_BREAK_ID, NOW.plus(Duration.ofMinutes(2)))
+
+        advanceTo(Duration.ofMinutes(3))
+
+        Mockito.verifyNoInteractions(domainEventPublisher)
+    }
+
+    @Test
+    fun testRun_thenSchedulesStoredTimersAndFiresOverdueOnes() {
+        val overdue = ScheduledTimer(1L, COFFEE_BREAK_ID, ScheduledTimer.Type.EXPIRY, Date.from(NOW.minusSeconds(60)))
+        val pending = ScheduledTimer(2L, COFFEE_BREAK_ID, ScheduledTimer.Type.REMINDER, Date.from(NOW.plusSeconds(60)))
+        Mockito.`when`(scheduledTimerRepository.findAll()).thenReturn(listOf(overdue, pending))
+
+        coffeeBreakScheduler.run(null)
+        advanceTo(TICK)
+
+        assertThat(publishedEvents()).hasSize(1).allMatch { it is CoffeeBreakExpiredEvent }
+        assertThat(timingWheel.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testRunWhenCoffeeBreakAlreadyStarted_thenReminderDroppedAndOnlyExpiryPublished() {
+        val reminder = ScheduledTimer(1L, COFFEE_BREAK_ID, ScheduledTimer.Type.REMINDER, Date.from(NOW.minusSeconds(600)))
+        val expiry = ScheduledTimer(2L, COFFEE_BREAK_ID, ScheduledTimer.Type.EXPIRY, Date.from(NOW.minusSeconds(300)))
+        Mockito.`when`(scheduledTimerRepository.findAll()).thenReturn(listOf(reminder, expiry))
+
+        coffeeBreakScheduler.run(null)
+        advanceTo(TICK)
+
+        Mockito.verify(scheduledTimerRepository).deleteInBatch(listOf(reminder))
+        assertThat(publishedEvents()).hasSize(1).allMatch { it is CoffeeBreakExpiredEvent }
+    }
+
+    @Test
+    fun testPollDue_thenFiresTimersPastDueStoredByOtherNodes() {
+        val overdue = ScheduledTimer(1L, COFFEE_BREAK_ID, ScheduledTimer.Type.EXPIRY, Date.from(NOW.minusSeconds(60)))
+        Mockito.`when`(
+            scheduledTimerRepository.findByFireAtLessThanEqualOrderByFireAt(
+                Mockito.eq(Date.from(NOW)), Mockito.any(Pageable::class.java)
+            )
+        ).thenReturn(listOf(overdue))
+
+        coffeeBreakScheduler.pollDue()
+
+        Mockito.verify(scheduledTimerRepository).deleteFired(1L)
+        assertThat(publishedEvents()).hasSize(1).allMatch { it is CoffeeBreakExpiredEvent }
+    }
+
+    @Test
+    fun testFireWhenPublishFails_thenRetriedOnWheelAfterBackoff() {
+        Mockito.doThrow(IllegalStateException("Broker unavailable")).doNothing()
+            .`when`(domainEventPublisher).publish(Mockito.eq(CoffeeBreak::class.java), Mockito.eq(COFFEE_BREAK_ID), Mockito.anyList())
+        coffeeBreakScheduler.schedule(COFFEE_BREAK_ID, NOW.plus(Duration.ofMinutes(2)))
+
+        advanceTo(Duration.ofMinutes(2).plus(TICK))
+        assertThat(timingWheel.size).isEqualTo(1)
+
+        advanceTo(Duration.ofMinutes(2).plus(TICK).plusSeconds(5).plus(TICK))
+        assertThat(timingWheel.size).isEqualTo(0)
+        Mockito.verify(domainEventPublisher, Mockito.times(2))
+            .publish(Mockito.eq(CoffeeBreak::class.java), Mockito.eq(COFFEE_BREAK_ID), Mockito.anyList())
+    }
+
+    private fun advanceTo(elapsed: Duration) {
+        this.elapsed = elapsed
+        timingWheel.advance()
+    }
+
+    private fun publishedEvents(): List<DomainEvent> {
+        @Suppress("UNCHECKED_CAST")
+        val captor = ArgumentCaptor.forClass(List::class.java) as ArgumentCaptor<List<DomainEvent>>
+        Mockito.verify(domainEventPublisher, Mockito.atLeastOnce())
+            .publish(Mockito.eq(CoffeeBreak::class.java), Mockito.eq(COFFEE_BREAK_ID), captor.capture())
+        return captor.allValues.flatten()
+    }
+
+    companion object {
+        const val COFFEE_BREAK_ID = 7L
+        val NOW: Instant = Instant.parse("2021-05-01T12:00:00Z")
+        val TICK: Duration = Duration.ofSeconds(1)
+    }
+}
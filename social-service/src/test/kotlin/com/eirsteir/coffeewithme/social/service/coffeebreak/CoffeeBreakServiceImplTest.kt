@@ -1,11 +1,18 @@
 package com.eirsteir.coffeewithme.social.service.coffeebreak
 
 import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import com.eirsteir.coffeewithme.commons.exception.APIException
 import com.eirsteir.coffeewithme.commons.exception.CWMException
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import io.eventuate.tram.events.publisher.DomainEventPublisher
 import org.junit.jupiter.api.Test
 import org.modelmapper.ModelMapper
 import org.springframework.context.annotation.Import
+import org.springframework.data.domain.PageRequest
+import java.time.Clock
+import java.time.LocalDateTime
 import java.time.LocalTime
+import java.time.ZoneOffset
 import java.util.*
 import java.util.List
 import java.util.function.Function
@@ -40,6 +47,12 @@ internal class CoffeeBreakServiceImplTest : BaseUnitTest() {
     @MockBean
     private val campusRepository: CampusRepository? = null
 
+    @MockBean
+    private val coffeeBreakScheduler: CoffeeBreakScheduler? = null
+
+    @MockBean
+    private val upcomingCoffeeBreaks: UpcomingCoffeeBreaks? = null
+
     @Autowired
     private val modelMapper: ModelMapper? = null
     @BeforeEach
@@ -79,7 +92,7 @@ internal class CoffeeBreakServiceImplTest : BaseUnitTest() {
             .scheduledTo(LocalTime.now())
             .build()
         Mockito.`when`(userRepository.findById(REQUESTER_ID)).thenReturn(Optional.ofNullable(currentUser))
-        Mockito.`when`(userRepository.findAllById(ADDRESSEE_IDS)).thenReturn(addressees)
+        Mockito.`when`(userRepository.findAllUserDetailsByIdIn(ADDRESSEE_IDS)).thenReturn(addresseesUserDetails)
         Mockito.`when`(campusRepository.findById(CAMPUS_ID)).thenReturn(Optional.ofNullable(campus))
         Mockito.`when`(coffeeBreakRepository.save(Mockito.any(CoffeeBreak::class.java)))
             .thenAnswer(Answer<Any?> { i: InvocationOnMock? -> i.getArgument(0, CoffeeBreak::class.java) })
@@ -106,13 +119,12 @@ internal class CoffeeBreakServiceImplTest : BaseUnitTest() {
     }
 
     @Test
-    fun testRegisterCoffeeBreakWhenCampusIsNull_thenRegisterWithCampusIsNull() {
+    fun testRegisterCoffeeBreakWhenCampusNotFound_thenThrowExceptionWithoutSaving() {
         Mockito.`when`(campusRepository.findById(CAMPUS_ID)).thenReturn(Optional.empty())
-        val request: CoffeeBreakRequest = CoffeeBreakRequest.builder().build()
-        coffeeBreak.setCampus(null)
-        val savedCoffeeBreakDetails: CoffeeBreakDetails =
-            coffeeBreakService.registerCoffeeBreak(request, currentUserDetails)
-        AssertionsForClassTypes.assertThat<CampusDetails?>(savedCoffeeBreakDetails.campus).isNull()
+        val request: CoffeeBreakRequest = CoffeeBreakRequest.builder().campusId(CAMPUS_ID).build()
+        AssertionsForClassTypes.assertThatExceptionOfType(APIException.EntityNotFoundException::class.java)
+            .isThrownBy(ThrowingCallable { coffeeBreakService.registerCoffeeBreak(request, currentUserDetails) })
+        Mockito.verify(coffeeBreakRepository, Mockito.never()).save(Mockito.any(CoffeeBreak::class.java))
     }
 
     @Test
@@ -136,6 +148,35 @@ internal class CoffeeBreakServiceImplTest : BaseUnitTest() {
             .isEqualToIgnoringSeconds(in5MinutesFromNow)
     }
 
+    @Test
+    fun testFindCoffeeBreaksInvitedToWhenNoPeriodGiven_thenDayFromNowOnClock() {
+        val now = LocalDateTime.of(2021, 5, 1, 12, 0)
+        val service = CoffeeBreakServiceImpl(
+            Mockito.mock(DomainEventPublisher::class.java),
+            coffeeBreakRepository!!,
+            userRepository!!,
+            campusRepository!!,
+            FriendGraph(),
+            coffeeBreakScheduler!!,
+            upcomingCoffeeBreaks!!,
+            Clock.fixed(now.toInstant(ZoneOffset.UTC), ZoneOffset.UTC)
+        )
+
+        service.findCoffeeBreaksInvitedTo(REQUESTER_ID, null, null, 20)
+
+        Mockito.verify(coffeeBreakRepository)
+            .findInvitedTo(REQUESTER_ID, now, now.plusDays(1), PageRequest.of(0, 20))
+    }
+
+    @Test
+    fun testFindCoffeeBreaksAtCampusWhenToNotAfterFrom_thenThrowException() {
+        val from = LocalDateTime.of(2021, 5, 1, 12, 0)
+        AssertionsForClassTypes.assertThatExceptionOfType(IllegalArgumentException::class.java)
+            .isThrownBy(ThrowingCallable {
+                coffeeBreakService.findCoffeeBreaksAtCampus(REQUESTER_ID, CAMPUS_ID, from, from, 20)
+            })
+    }
+
     companion object {
         const val REQUESTER_ID = 1L
         val ADDRESSEE_IDS = List.of(2L, 3L)
@@ -0,0 +1,87 @@
+package com.eirsteir.coffeewithme.social.service.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.domain.coffeebreak.CoffeeBreakDetails
+import com.eirsteir.coffeewithme.commons.domain.university.CampusDetails
+import com.eirsteir.coffeewithme.commons.domain.user.UserDetails
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.LocalDateTime
+import java.time.ZoneId
+import java.time.ZoneOffset
+
+internal class UpcomingCoffeeBreaksTest {
+    private val clock = MutableClock(NOW.toInstant(ZoneOffset.UTC))
+    private val upcomingCoffeeBreaks = UpcomingCoffeeBreaks(Duration.ofMinutes(5), clock)
+
+    @Test
+    fun testScheduledAt_thenReturnsBreaksWithinRangeInTimeOrder() {
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.plusMinutes(40)))
+        upcomingCoffeeBreaks.put(coffeeBreak(2L, CAMPUS_ID, NOW.plusMinutes(12)))
+        upcomingCoffeeBreaks.put(coffeeBreak(3L, CAMPUS_ID, NOW.plusMinutes(90)))
+        upcomingCoffeeBreaks.put(coffeeBreak(4L, OTHER_CAMPUS_ID, NOW.plusMinutes(12)))
+
+        val coffeeBreaks = upcomingCoffeeBreaks.scheduledAt(CAMPUS_ID, Duration.ofMinutes(60))
+
+        assertThat(coffeeBreaks.map { it.id }).containsExactly(2L, 1L)
+    }
+
+    @Test
+    fun testPutTwice_thenKeptOnce() {
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.plusMinutes(10)))
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.plusMinutes(10)))
+
+        assertThat(upcomingCoffeeBreaks.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testPutWhenStarted_thenIgnored() {
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.minusMinutes(1)))
+
+        assertThat(upcomingCoffeeBreaks.size).isZero
+    }
+
+    @Test
+    fun testScheduledAtWhenStartedBeforeExpiry_thenNotIncluded() {
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.plusMinutes(1)))
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(2))
+
+        assertThat(upcomingCoffeeBreaks.scheduledAt(CAMPUS_ID, Duration.ofMinutes(60))).isEmpty()
+    }
+
+    @Test
+    fun testExpire_thenDropsPassedBuckets() {
+        upcomingCoffeeBreaks.put(coffeeBreak(1L, CAMPUS_ID, NOW.plusMinutes(1)))
+        upcomingCoffeeBreaks.put(coffeeBreak(2L, CAMPUS_ID, NOW.plusMinutes(30)))
+
+        clock.instant = clock.instant.plus(Duration.ofMinutes(10))
+
+        assertThat(upcomingCoffeeBreaks.expire()).isEqualTo(1)
+        assertThat(upcomingCoffeeBreaks.size).isEqualTo(1)
+    }
+
+    private fun coffeeBreak(id: Long, campusId: Long, scheduledTo: LocalDateTime) = CoffeeBreakDetails(
+        id = id,
+        scheduledTo = scheduledTo,
+        requester = UserDetails(1L, "Requester", "req"),
+        addressees = setOf(),
+        campus = CampusDetails(campusId, "Campus $campusId")
+    )
+
+    private class MutableClock(var instant: Instant) : Clock() {
+        override fun getZone(): ZoneId = ZoneOffset.UTC
+
+        override fun withZone(zone: ZoneId): Clock = this
+
+        override fun instant(): Instant = instant
+    }
+
+    companion object {
+        val NOW: LocalDateTime = LocalDateTime.of(2021, 5, 1, 12, 0)
+        const val CAMPUS_ID = 1L
+        const val OTHER_CAMPUS_ID = 2L
+    }
+}
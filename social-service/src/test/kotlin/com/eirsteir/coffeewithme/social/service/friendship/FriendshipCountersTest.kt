@@ -0,0 +1,127 @@
+package com.eirsteir.coffeewithme.social.service.friendship
+
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipCounter
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.dto.FriendshipCounts
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.FriendshipCounterRepository
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import java.util.*
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+internal class FriendshipCountersTest {
+    private val counterRepository = Mockito.mock(FriendshipCounterRepository::class.java)
+    private val friendGraph = FriendGraph()
+    private val friendshipCounters = FriendshipCounters(counterRepository, friendGraph)
+
+    @BeforeEach
+    fun setUp() {
+        friendGraph.putEdge(USER_ID, FRIEND_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(REQUESTER_ID, USER_ID, FriendshipStatus.REQUESTED)
+    }
+
+    @Test
+    fun testCountsOfWhenCached_thenDoesNotReadRowAgain() {
+        Mockito.`when`(counterRepository.findById(USER_ID)).thenReturn(Optional.of(counter(friends = 3)))
+
+        friendshipCounters.countsOf(USER_ID)
+        val counts = friendshipCounters.countsOf(USER_ID)
+
+        assertThat(counts).isEqualTo(FriendshipCounts(friends = 3))
+        Mockito.verify(counterRepository, Mockito.times(1)).findById(USER_ID)
+    }
+
+    @Test
+    fun testCountsOfWhenNoRow_thenCountsFromGraphWithoutWriting() {
+        Mockito.`when`(counterRepository.findById(USER_ID)).thenReturn(Optional.empty())
+
+        val counts = friendshipCounters.countsOf(USER_ID)
+
+        assertThat(counts).isEqualTo(FriendshipCounts(friends = 1, incomingRequests = 1))
+        Mockito.verify(counterRepository, Mockito.never()).save(Mockito.any(FriendshipCounter::class.java))
+    }
+
+    @Test
+    fun testFriendshipAdded_thenEvictsCachedCounts() {
+        Mockito.`when`(counterRepository.findById(USER_ID))
+            .thenReturn(Optional.of(counter(friends = 1)))
+            .thenReturn(Optional.of(counter(friends = 2)))
+        friendshipCounters.countsOf(USER_ID)
+
+        friendshipCounters.friendshipAdded(USER_ID, OTHER_USER_ID, FriendshipStatus.ACCEPTED)
+
+        assertThat(friendshipCounters.countsOf(USER_ID)).isEqualTo(FriendshipCounts(friends = 2))
+    }
+
+    @Test
+    fun testIncrementCommittedWhileLoading_thenLoadedCountsAreDiscarded() {
+        val incremented = CountDownLatch(1)
+        Mockito.doAnswer { incremented.countDown() }
+            .`when`(counterRepository).incrementAll(listOf(USER_ID), 1, 0, 0)
+        val writer = Thread {
+            friendshipCounters.friendshipAdded(USER_ID, OTHER_USER_ID, FriendshipStatus.ACCEPTED)
+        }
+        Mockito.`when`(counterRepository.findById(USER_ID))
+            .thenAnswer {
+                writer.start()
+                incremented.await(5, TimeUnit.SECONDS)
+                Optional.of(counter(friends = 1))
+            }
+            .thenReturn(Optional.of(counter(friends = 2)))
+
+        friendshipCounters.countsOf(USER_ID)
+        writer.join()
+
+        assertThat(friendshipCounters.countsOf(USER_ID)).isEqualTo(FriendshipCounts(friends = 2))
+    }
+
+    @Test
+    fun testStatusChanged_thenAdjustsEachUserOnce() {
+        friendshipCounters.statusChanged(
+            USER_ID, OTHER_USER_ID, FriendshipStatus.REQUESTED, FriendshipStatus.ACCEPTED
+        )
+
+        Mockito.verify(counterRepository).incrementAll(listOf(USER_ID), 1, 0, -1)
+        Mockito.verify(counterRepository).incrementAll(listOf(OTHER_USER_ID), 1, -1, 0)
+        Mockito.verifyNoMoreInteractions(counterRepository)
+    }
+
+    @Test
+    fun testStatusChangedWhenCountsUnchanged_thenDoesNotWrite() {
+        friendshipCounters.statusChanged(
+            USER_ID, OTHER_USER_ID, FriendshipStatus.DECLINED, FriendshipStatus.BLOCKED
+        )
+
+        Mockito.verifyNoInteractions(counterRepository)
+    }
+
+    @Test
+    fun testFriendRequestsAdded_thenIncrementsEachSideOnce() {
+        val addresseeIds = listOf(FRIEND_ID, OTHER_USER_ID)
+
+        friendshipCounters.friendRequestsAdded(REQUESTER_ID, addresseeIds)
+
+        Mockito.verify(counterRepository).incrementAll(listOf(REQUESTER_ID), 0, 0, 2)
+        Mockito.verify(counterRepository).incrementAll(addresseeIds, 0, 1, 0)
+        Mockito.verifyNoMoreInteractions(counterRepository)
+    }
+
+    private fun counter(friends: Int = 0, incomingRequests: Int = 0, outgoingRequests: Int = 0) =
+        FriendshipCounter(
+            userId = USER_ID,
+            friendsCount = friends,
+            incomingRequestsCount = incomingRequests,
+            outgoingRequestsCount = outgoingRequests
+        )
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val FRIEND_ID = 2L
+        private const val REQUESTER_ID = 3L
+        private const val OTHER_USER_ID = 4L
+    }
+}
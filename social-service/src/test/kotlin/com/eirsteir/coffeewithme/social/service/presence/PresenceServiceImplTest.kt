@@ -0,0 +1,103 @@
+package com.eirsteir.coffeewithme.social.service.presence
+
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.domain.user.UserPresenceChangedEvent
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.presence.PresenceIndex
+import com.eirsteir.coffeewithme.social.repository.CampusRepository
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import com.eirsteir.coffeewithme.social.web.request.PresenceRequest
+import org.assertj.core.api.Assertions.assertThat
+import io.eventuate.tram.events.publisher.DomainEventPublisher
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import java.time.Clock
+import java.time.Duration
+import java.time.Instant
+import java.time.ZoneOffset
+
+internal class PresenceServiceImplTest {
+    private val clock = Clock.fixed(NOW, ZoneOffset.UTC)
+    private val domainEventPublisher = Mockito.mock(DomainEventPublisher::class.java)
+    private val presenceIndex = PresenceIndex(Duration.ofMinutes(1), clock)
+    private val campusRepository = Mockito.mock(CampusRepository::class.java)
+    private val userRepository = Mockito.mock(UserRepository::class.java)
+
+    private val presenceService = PresenceServiceImpl(
+        domainEventPublisher,
+        presenceIndex,
+        FriendBitmaps(FriendGraph()),
+        campusRepository,
+        userRepository,
+        clock
+    )
+
+    @BeforeEach
+    fun setUp() {
+        Mockito.`when`(campusRepository.existsById(CAMPUS_ID)).thenReturn(true)
+    }
+
+    @Test
+    fun testMarkAvailableForMaximum_thenMarkedAvailable() {
+        presenceService.markAvailable(USER_ID, PresenceRequest(PresenceRequest.MAX_AVAILABLE_MINUTES, CAMPUS_ID))
+
+        assertThat(presenceIndex.size).isEqualTo(1)
+    }
+
+    @Test
+    fun testMarkAvailable_thenPublishesPresenceToOtherNodes() {
+        presenceService.markAvailable(USER_ID, PresenceRequest(30, CAMPUS_ID))
+
+        val until = NOW.plus(Duration.ofMinutes(30)).toEpochMilli()
+        Mockito.verify(domainEventPublisher).publish(
+            User::class.java, USER_ID, listOf(UserPresenceChangedEvent(USER_ID, CAMPUS_ID, until))
+        )
+    }
+
+    @Test
+    fun testMarkUnavailable_thenPublishesPresenceToOtherNodes() {
+        presenceService.markUnavailable(USER_ID)
+
+        Mockito.verify(domainEventPublisher).publish(
+            User::class.java, USER_ID, listOf(UserPresenceChangedEvent(USER_ID, null, null))
+        )
+    }
+
+    @Test
+    fun testMarkAvailableWhenOverflowingMinutes_thenThrowsWithoutMarking() {
+        assertThatThrownBy { presenceService.markAvailable(USER_ID, PresenceRequest(Long.MAX_VALUE, CAMPUS_ID)) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+
+        assertThat(presenceIndex.size).isZero
+    }
+
+    @Test
+    fun testMarkAvailableWhenLongerThanMaximum_thenThrowsWithoutMarking() {
+        assertThatThrownBy {
+            presenceService.markAvailable(
+                USER_ID, PresenceRequest(PresenceRequest.MAX_AVAILABLE_MINUTES + 1, CAMPUS_ID)
+            )
+        }
+            .isInstanceOf(IllegalArgumentException::class.java)
+
+        assertThat(presenceIndex.size).isZero
+    }
+
+    @Test
+    fun testMarkAvailableWhenNegative_thenThrowsWithoutMarking() {
+        assertThatThrownBy { presenceService.markAvailable(USER_ID, PresenceRequest(-30, CAMPUS_ID)) }
+            .isInstanceOf(IllegalArgumentException::class.java)
+
+        assertThat(presenceIndex.size).isZero
+        Mockito.verifyNoInteractions(domainEventPublisher)
+    }
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val CAMPUS_ID = 2L
+        private val NOW: Instant = Instant.parse("2021-05-01T12:00:00Z")
+    }
+}
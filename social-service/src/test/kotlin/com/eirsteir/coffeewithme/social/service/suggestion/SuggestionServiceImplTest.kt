@@ -0,0 +1,80 @@
+package com.eirsteir.coffeewithme.social.service.suggestion
+
+import com.eirsteir.coffeewithme.social.config.ModelMapperConfig
+import com.eirsteir.coffeewithme.social.domain.friendship.FriendshipStatus
+import com.eirsteir.coffeewithme.social.domain.user.User
+import com.eirsteir.coffeewithme.social.graph.FriendBitmaps
+import com.eirsteir.coffeewithme.social.graph.FriendGraph
+import com.eirsteir.coffeewithme.social.repository.UserRepository
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers
+import org.mockito.Mockito
+
+internal class SuggestionServiceImplTest {
+    private lateinit var friendGraph: FriendGraph
+    private lateinit var userRepository: UserRepository
+    private lateinit var suggestionService: SuggestionServiceImpl
+
+    @BeforeEach
+    fun setUp() {
+        friendGraph = FriendGraph()
+        userRepository = Mockito.mock(UserRepository::class.java)
+        val friendBitmaps = FriendBitmaps(friendGraph)
+        suggestionService = SuggestionServiceImpl(
+            friendGraph, friendBitmaps, userRepository, ModelMapperConfig().run { dtoMapper(modelMapper()) }
+        )
+        friendGraph.addListener(friendBitmaps)
+        friendGraph.addListener(suggestionService)
+
+        (1L..6L).forEach { friendGraph.putUniversity(it, UNIVERSITY_ID) }
+        friendGraph.putUniversity(OTHER_UNIVERSITY_USER_ID, OTHER_UNIVERSITY_ID)
+
+        // User 1 is friends with 2 and 3, who share friends 4 and 5
+        friendGraph.putEdge(USER_ID, 2L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(3L, USER_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(2L, 4L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(3L, 4L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(2L, 5L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(2L, OTHER_UNIVERSITY_USER_ID, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(3L, 6L, FriendshipStatus.ACCEPTED)
+        friendGraph.putEdge(USER_ID, 6L, FriendshipStatus.REQUESTED)
+
+        Mockito.`when`(userRepository.findWithUniversityByIdIn(ArgumentMatchers.anyCollection()))
+            .thenAnswer { invocation ->
+                (invocation.getArgument<Collection<Long>>(0)).map { User(id = it, nickname = "user$it") }
+            }
+    }
+
+    @Test
+    fun testFindSuggestions_thenRankedByMutualFriends() {
+        val suggestions = suggestionService.findSuggestions(USER_ID, 10)
+
+        assertThat(suggestions.map { it.user.id }).containsExactly(4L, 5L)
+        assertThat(suggestions.map { it.mutualFriendsCount }).containsExactly(2, 1)
+    }
+
+    @Test
+    fun testFindSuggestionsWhenEdgeChanges_thenCacheIsInvalidated() {
+        suggestionService.findSuggestions(USER_ID, 10)
+
+        friendGraph.putEdge(USER_ID, 4L, FriendshipStatus.ACCEPTED)
+
+        assertThat(suggestionService.findSuggestions(USER_ID, 10).map { it.user.id }).containsExactly(5L)
+    }
+
+    @Test
+    fun testFindMutualFriends() {
+        val mutualFriends = suggestionService.findMutualFriends(USER_ID, 4L)
+
+        assertThat(mutualFriends.map { it.id }).containsExactly(2L, 3L)
+    }
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val OTHER_UNIVERSITY_USER_ID = 7L
+        private const val UNIVERSITY_ID = 10L
+        private const val OTHER_UNIVERSITY_ID = 20L
+    }
+}
@@ -0,0 +1,84 @@
+package com.eirsteir.coffeewithme.social.web.api.coffeebreak
+
+import com.eirsteir.coffeewithme.commons.exception.APIException
+import com.eirsteir.coffeewithme.commons.exception.APIResponseEntityExceptionHandler
+import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import com.eirsteir.coffeewithme.social.service.coffeebreak.CoffeeBreakService
+import com.eirsteir.coffeewithme.social.web.request.CoffeeBreakRequest
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.ArgumentMatchers
+import org.mockito.Mockito
+import org.springframework.http.MediaType
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+
+internal class CoffeeBreakControllerTest {
+
+    private val coffeeBreakService = Mockito.mock(CoffeeBreakService::class.java)
+    private val principal = UserDetailsImpl(id = USER_ID, email = "user@test.com", nickname = "user")
+    private lateinit var mockMvc: MockMvc
+
+    @BeforeEach
+    fun setUp() {
+        SecurityContextHolder.getContext().authentication =
+            UsernamePasswordAuthenticationToken(principal, null, principal.authorities)
+        mockMvc = MockMvcBuilders.standaloneSetup(CoffeeBreakController(coffeeBreakService))
+            .setControllerAdvice(APIResponseEntityExceptionHandler())
+            .setCustomArgumentResolvers(AuthenticationPrincipalArgumentResolver())
+            .build()
+    }
+
+    @AfterEach
+    fun tearDown() = SecurityContextHolder.clearContext()
+
+    @Test
+    fun testRegisterCoffeeBreakWhenCampusNotFound_thenReturnsNotFound() {
+        val request = CoffeeBreakRequest(scheduledToInMinutes = 30, campusId = CAMPUS_ID)
+        Mockito.`when`(coffeeBreakService.registerCoffeeBreak(request, principal))
+            .thenThrow(APIException.EntityNotFoundException("Requested campus with id - $CAMPUS_ID does not exist"))
+
+        mockMvc.perform(
+            post("/coffee-breaks")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""{"scheduledToInMinutes":30,"campusId":$CAMPUS_ID}""")
+        )
+            .andExpect(status().isNotFound)
+    }
+
+    @Test
+    fun testCoffeeBreaksWhenNoPeriodGiven_thenServiceResolvesDefaults() {
+        mockMvc.perform(get("/coffee-breaks").param("campus", CAMPUS_ID.toString()))
+            .andExpect(status().isNoContent)
+
+        Mockito.verify(coffeeBreakService).findCoffeeBreaksAtCampus(USER_ID, CAMPUS_ID, null, null, 20)
+    }
+
+    @Test
+    fun testInvitedToWhenPeriodRejected_thenReturnsBadRequest() {
+        Mockito.`when`(
+            coffeeBreakService.findCoffeeBreaksInvitedTo(
+                ArgumentMatchers.eq(USER_ID), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.eq(20)
+            )
+        ).thenThrow(IllegalArgumentException("To must be after from and at most 31 days later"))
+
+        mockMvc.perform(
+            get("/coffee-breaks/invited")
+                .param("from", "2021-05-02T12:00:00")
+                .param("to", "2021-05-01T12:00:00")
+        )
+            .andExpect(status().isBadRequest)
+    }
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val CAMPUS_ID = 2L
+    }
+}
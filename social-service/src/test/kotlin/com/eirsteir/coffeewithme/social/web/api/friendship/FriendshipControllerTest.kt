@@ -129,8 +129,10 @@ internal class FriendshipControllerTest {
     @Throws(Exception::class)
     fun testGetFriendsWhenUserHasNoFriendships_thenReturnHttp204() {
         Mockito.`when`(userService.findUserById(requester.getId())).thenReturn(requester)
-        Mockito.`when`(friendshipService.findFriendshipsOf(Mockito.any(UserDetailsDto::class.java)))
-            .thenReturn(ArrayList<E?>())
+        Mockito.`when`(friendshipService.findFriendshipPage(
+                Mockito.anyLong(), ArgumentMatchers.eq(ACCEPTED), ArgumentMatchers.isNull(), Mockito.anyInt()
+            ))
+            .thenReturn(FriendshipPage(items = listOf(), next = null))
         mockMvc
             .perform(
                 MockMvcRequestBuilders.get("/friends")
@@ -158,13 +160,18 @@ internal class FriendshipControllerTest {
     @Throws(Exception::class)
     fun testGetFriendsWhenUserHasFriendships_thenReturnHttp200WithFriends() {
         Mockito.`when`(userService.findUserById(requester.getId())).thenReturn(requester)
-        Mockito.`when`(friendshipService.findFriendshipsOf(Mockito.any(UserDetailsDto::class.java)))
+        Mockito.`when`(friendshipService.findFriendshipPage(
+                Mockito.anyLong(), ArgumentMatchers.eq(ACCEPTED), ArgumentMatchers.isNull(), Mockito.anyInt()
+            ))
             .thenReturn(
-                listOf(
-                    FriendshipDto.builder()
-                        .requester(builder().id(REQUESTER_ID).build())
-                        .addressee(builder().id(ADDRESSEE_ID).build())
-                        .build()
+                FriendshipPage(
+                    items = listOf(
+                        FriendshipDto.builder()
+                            .requester(builder().id(REQUESTER_ID).build())
+                            .addressee(builder().id(ADDRESSEE_ID).build())
+                            .build()
+                    ),
+                    next = null
                 )
             )
         mockMvc
@@ -176,14 +183,14 @@ internal class FriendshipControllerTest {
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andExpect(
                 MockMvcResultMatchers.jsonPath<Int?>(
-                    "$[0].requester.id", Matchers.equalTo(
+                    "$.items[0].requester.id", Matchers.equalTo(
                         REQUESTER_ID.toInt()
                     )
                 )
             )
             .andExpect(
                 MockMvcResultMatchers.jsonPath<Int?>(
-                    "$[0].addressee.id",
+                    "$.items[0].addressee.id",
                     Matchers.equalTo(ADDRESSEE_ID.toInt())
                 )
             )
@@ -194,17 +201,19 @@ internal class FriendshipControllerTest {
     fun testGetFriendRequestsWhenUserHasFriendshipsWithStatusRequested_thenReturnListOfFriendships() {
         Mockito.`when`(userService.findUserById(requester.getId())).thenReturn(requester)
         Mockito.`when`(
-            friendshipService.findFriendshipsOf(
-                Mockito.any(Long::class.java),
-                ArgumentMatchers.eq(REQUESTED)
+            friendshipService.findFriendshipPage(
+                Mockito.anyLong(), ArgumentMatchers.eq(REQUESTED), ArgumentMatchers.isNull(), Mockito.anyInt()
             )
         )
             .thenReturn(
-                listOf(
-                    FriendshipDto.builder()
-                        .requester(builder().id(REQUESTER_ID).build())
-                        .addressee(builder().id(ADDRESSEE_ID).build())
-                        .build()
+                FriendshipPage(
+                    items = listOf(
+                        FriendshipDto.builder()
+                            .requester(builder().id(REQUESTER_ID).build())
+                            .addressee(builder().id(ADDRESSEE_ID).build())
+                            .build()
+                    ),
+                    next = null
                 )
             )
         mockMvc
@@ -216,14 +225,14 @@ internal class FriendshipControllerTest {
             .andExpect(MockMvcResultMatchers.status().isOk())
             .andExpect(
                 MockMvcResultMatchers.jsonPath<Int?>(
-                    "$[0].requester.id", Matchers.equalTo(
+                    "$.items[0].requester.id", Matchers.equalTo(
                         REQUESTER_ID.toInt()
                     )
                 )
             )
             .andExpect(
                 MockMvcResultMatchers.jsonPath<Int?>(
-                    "$[0].addressee.id",
+                    "$.items[0].addressee.id",
                     Matchers.equalTo(ADDRESSEE_ID.toInt())
                 )
             )
@@ -234,12 +243,11 @@ internal class FriendshipControllerTest {
     fun testGetFriendRequestsWhenUserHasNoFriendshipsWithStatusRequested_thenReturnHttp204() {
         Mockito.`when`(userService.findUserById(requester.getId())).thenReturn(requester)
         Mockito.`when`(
-            friendshipService.findFriendshipsOf(
-                Mockito.any(Long::class.java),
-                ArgumentMatchers.eq(REQUESTED)
+            friendshipService.findFriendshipPage(
+                Mockito.anyLong(), ArgumentMatchers.eq(REQUESTED), ArgumentMatchers.isNull(), Mockito.anyInt()
             )
         )
-            .thenReturn(ArrayList<E?>())
+            .thenReturn(FriendshipPage(items = listOf(), next = null))
         mockMvc
             .perform(
                 get("/friends/requests", requester.getId())
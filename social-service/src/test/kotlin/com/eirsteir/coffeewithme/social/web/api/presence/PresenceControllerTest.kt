@@ -0,0 +1,82 @@
+package com.eirsteir.coffeewithme.social.web.api.presence
+
+import com.eirsteir.coffeewithme.commons.security.UserDetailsImpl
+import com.eirsteir.coffeewithme.social.service.presence.PresenceService
+import com.eirsteir.coffeewithme.social.web.request.PresenceRequest
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.springframework.http.MediaType
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken
+import org.springframework.security.core.context.SecurityContextHolder
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+
+internal class PresenceControllerTest {
+
+    private val presenceService = Mockito.mock(PresenceService::class.java)
+    private lateinit var mockMvc: MockMvc
+
+    @BeforeEach
+    fun setUp() {
+        val principal = UserDetailsImpl(id = USER_ID, email = "user@test.com", nickname = "user")
+        SecurityContextHolder.getContext().authentication =
+            UsernamePasswordAuthenticationToken(principal, null, principal.authorities)
+        mockMvc = MockMvcBuilders.standaloneSetup(PresenceController(presenceService))
+            .setCustomArgumentResolvers(AuthenticationPrincipalArgumentResolver())
+            .build()
+    }
+
+    @AfterEach
+    fun tearDown() = SecurityContextHolder.clearContext()
+
+    @Test
+    fun testMarkAvailable_thenReturnsNoContent() {
+        markAvailable(30)
+            .andExpect(status().isNoContent)
+
+        Mockito.verify(presenceService).markAvailable(USER_ID, PresenceRequest(30, CAMPUS_ID))
+    }
+
+    @Test
+    fun testMarkAvailableWhenLongerThanMaximum_thenReturnsBadRequest() {
+        markAvailable(PresenceRequest.MAX_AVAILABLE_MINUTES + 1)
+            .andExpect(status().isBadRequest)
+
+        Mockito.verifyNoInteractions(presenceService)
+    }
+
+    @Test
+    fun testMarkAvailableWhenOverflowingMinutes_thenReturnsBadRequest() {
+        markAvailable(Long.MAX_VALUE)
+            .andExpect(status().isBadRequest)
+
+        Mockito.verifyNoInteractions(presenceService)
+    }
+
+    @Test
+    fun testMarkAvailableWhenNotPositive_thenReturnsBadRequest() {
+        markAvailable(0)
+            .andExpect(status().isBadRequest)
+        markAvailable(-30)
+            .andExpect(status().isBadRequest)
+
+        Mockito.verifyNoInteractions(presenceService)
+    }
+
+    private fun markAvailable(availableForMinutes: Long) =
+        mockMvc.perform(
+            put("/presence")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""{"availableForMinutes":$availableForMinutes,"campusId":$CAMPUS_ID}""")
+        )
+
+    companion object {
+        private const val USER_ID = 1L
+        private const val CAMPUS_ID = 2L
+    }
+}
@@ -0,0 +1,81 @@
+package com.eirsteir.coffeewithme.social.web.api.university
+
+import com.eirsteir.coffeewithme.social.dto.NoCampusUniversity
+import com.eirsteir.coffeewithme.social.repository.UniversityRepository
+import com.fasterxml.jackson.databind.ObjectMapper
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+import org.mockito.Mockito
+import org.springframework.http.HttpHeaders
+import org.springframework.test.web.servlet.MockMvc
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.content
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.header
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers.status
+import org.springframework.test.web.servlet.setup.MockMvcBuilders
+import java.util.zip.GZIPInputStream
+
+internal class UniversityControllerTest {
+
+    private val universityRepository = Mockito.mock(UniversityRepository::class.java)
+    private val universityResponses = UniversityResponses(universityRepository, ObjectMapper())
+    private lateinit var mockMvc: MockMvc
+
+    @BeforeEach
+    fun setUp() {
+        Mockito.`when`(universityRepository.findAllExcludeCampuses())
+            .thenReturn(listOf(NoCampusUniversity(1L, "NTNU")))
+        mockMvc = MockMvcBuilders.standaloneSetup(UniversityController(universityResponses)).build()
+    }
+
+    @Test
+    fun testAllWhenRequestedTwice_thenSerializesOnce() {
+        repeat(2) {
+            mockMvc.perform(get("/universities").param("includeCampuses", "false"))
+                .andExpect(status().isOk)
+                .andExpect(content().json("""[{"id":1,"name":"NTNU"}]"""))
+                .andExpect(header().string(HttpHeaders.ETAG, universityResponses.get(false).etag))
+        }
+
+        Mockito.verify(universityRepository, Mockito.times(1)).findAllExcludeCampuses()
+    }
+
+    @Test
+    fun testAllWhenClientAcceptsGzip_thenReturnsGzippedBody() {
+        val body = mockMvc.perform(
+            get("/universities").param("includeCampuses", "false").header(HttpHeaders.ACCEPT_ENCODING, "gzip, br")
+        )
+            .andExpect(status().isOk)
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.ETAG, universityResponses.get(false).gzippedEtag))
+            .andReturn().response.contentAsByteArray
+
+        assertThat(GZIPInputStream(body.inputStream()).readBytes()).isEqualTo(universityResponses.get(false).json)
+    }
+
+    @Test
+    fun testAllWhenETagMatches_thenReturnsNotModified() {
+        val etag = universityResponses.get(false).etag
+
+        mockMvc.perform(
+            get("/universities").param("includeCampuses", "false").header(HttpHeaders.IF_NONE_MATCH, "\"other\", $etag")
+        )
+            .andExpect(status().isNotModified)
+            .andExpect(content().bytes(ByteArray(0)))
+    }
+
+    @Test
+    fun testAllWhenInvalidated_thenRebuildsWithNewETag() {
+        val etag = universityResponses.get(false).etag
+        Mockito.`when`(universityRepository.findAllExcludeCampuses())
+            .thenReturn(listOf(NoCampusUniversity(1L, "NTNU"), NoCampusUniversity(2L, "UiO")))
+        universityResponses.invalidate()
+
+        mockMvc.perform(
+            get("/universities").param("includeCampuses", "false").header(HttpHeaders.IF_NONE_MATCH, etag)
+        )
+            .andExpect(status().isOk)
+            .andExpect(content().json("""[{"id":1,"name":"NTNU"},{"id":2,"name":"UiO"}]"""))
+    }
+}
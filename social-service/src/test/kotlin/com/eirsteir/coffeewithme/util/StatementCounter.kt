@@ -0,0 +1,19 @@
+package com.eirsteir.coffeewithme.util
+
+import org.hibernate.SessionFactory
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager
+
+/**
+ * Runs [block] against an empty persistence context and returns how many SQL statements it
+ * prepared, so fetch plans can be asserted to stay free of N+1 selects.
+ *
+ * Requires `hibernate.generate_statistics`, which the test profile enables.
+ */
+fun TestEntityManager.countStatements(block: () -> Unit): Long {
+    flush()
+    clear()
+    val statistics = entityManager.entityManagerFactory.unwrap(SessionFactory::class.java).statistics
+    statistics.clear()
+    block()
+    return statistics.prepareStatementCount
+}
@@ -0,0 +1,97 @@
+-- Compares the plans and latencies of the friendship lookups before and after V2__friendship_status_indexes.
+--
+-- Run against a scratch MySQL 5.7 schema migrated to V1 only, e.g. the coffeewithme database from
+-- docker-compose-dev.yml with `spring.flyway.target=1`. Run it from this directory, since it sources the
+-- V2 migration by relative path:
+--
+--   mysql -uroot -ppassword coffeewithme < friendship_queries.sql
+--
+-- The script seeds 100 000 users with about 50 friendships each, runs the old OR queries and the
+-- UNION ALL rewrites without the V2 indexes, then applies the indexes and runs them again.
+
+drop procedure if exists seed_friendships;
+
+delimiter //
+create procedure seed_friendships(in user_count int, in friendships_per_user int)
+begin
+    declare i int default 1;
+    declare j int;
+
+    insert into university (id, name) values (1, 'Benchmark University');
+
+    while i <= user_count do
+        insert into user (id, email, nickname, name, university_id, created_date_time)
+        values (i, concat('user', i, '.benchmark'), concat('user', i), concat('User ', i), 1, now(6));
+        set i = i + 1;
+    end while;
+
+    set i = 1;
+    while i <= user_count do
+        set j = 0;
+        while j < friendships_per_user do
+            insert ignore into friendship (requester_id, addressee_id, status, created_date_time)
+            values (i, 1 + floor(rand() * user_count), 1 + floor(rand() * 2), now(6) - interval floor(rand() * 1000000) second);
+            set j = j + 1;
+        end while;
+        set i = i + 1;
+    end while;
+end //
+delimiter ;
+
+start transaction;
+call seed_friendships(100000, 50);
+commit;
+analyze table user, friendship;
+
+set @user_id = 4242;
+set profiling = 1;
+set profiling_history_size = 100;
+
+-- Before: OR predicates
+explain select f.* from friendship f
+where (f.requester_id = @user_id or f.addressee_id = @user_id) and f.status = 2;
+
+select sql_no_cache count(*) from friendship f
+where (f.requester_id = @user_id or f.addressee_id = @user_id) and f.status = 2;
+
+explain select
+    (select count(*) from friendship f where (f.requester_id = @user_id or f.addressee_id = @user_id) and f.status = 2);
+
+-- Before: UNION ALL without the V2 indexes
+explain select f.* from friendship f where f.requester_id = @user_id and f.status = 2
+union all
+select f.* from friendship f where f.addressee_id = @user_id and f.status = 2;
+
+select sql_no_cache count(*) from (
+    select f.requester_id from friendship f where f.requester_id = @user_id and f.status = 2
+    union all
+    select f.requester_id from friendship f where f.addressee_id = @user_id and f.status = 2
+) friends;
+
+-- After: apply the V2 indexes
+source ../../../../main/resources/db/migration/V2__friendship_status_indexes.sql
+
+explain select f.* from friendship f
+where (f.requester_id = @user_id or f.addressee_id = @user_id) and f.status = 2;
+
+select sql_no_cache count(*) from friendship f
+where (f.requester_id = @user_id or f.addressee_id = @user_id) and f.status = 2;
+
+explain select f.* from friendship f where f.requester_id = @user_id and f.status = 2
+union all
+select f.* from friendship f where f.addressee_id = @user_id and f.status = 2;
+
+select sql_no_cache count(*) from (
+    select f.requester_id from friendship f where f.requester_id = @user_id and f.status = 2
+    union all
+    select f.requester_id from friendship f where f.addressee_id = @user_id and f.status = 2
+) friends;
+
+explain select
+    (select count(*) from friendship where requester_id = @user_id and status = 2)
+    + (select count(*) from friendship where addressee_id = @user_id and status = 2);
+
+-- Durations of every statement above, in order
+show profiles;
+
+drop procedure seed_friendships;